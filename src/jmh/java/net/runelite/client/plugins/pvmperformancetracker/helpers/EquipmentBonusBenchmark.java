@@ -0,0 +1,189 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import com.google.gson.Gson;
+import net.runelite.api.Item;
+import net.runelite.client.game.ItemStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Equipment cost of one melee attack's expected damage, before and after EquipmentBonusSnapshot
+ *
+ * perAttackWalk replays what CombatFormulas did per attack before the snapshot: the attack bonus, strength bonus and
+ * two void checks each walked the worn items and looked up every item's stats. perAttackSnapshot reads the same
+ * values from a snapshot, and rebuildSnapshot is what an equipment change now costs instead.
+ *
+ * Item stats come from a plain map, so the walk leaves out ItemManager's canonicalize and cache lookups and the
+ * equipment container fetch; the numbers understate the old per-attack cost rather than overstate it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class EquipmentBonusBenchmark
+{
+    // Worn slots of a typical melee setup; empty slots are -1 as in the equipment container
+    private static final int[][] GEAR = {
+        // id, stab, slash, crush, strength
+        {10828, 0, 0, 0, 3},     // Helm of neitiznot
+        {-1, 0, 0, 0, 0},        // Cape slot left empty
+        {19553, 10, 10, 10, 10}, // Amulet of torture
+        {12954, 25, 24, 23, 6},  // Dragon defender
+        {4151, 0, 82, 0, 82},    // Abyssal whip
+        {10551, 0, 0, 0, 4},     // Fighter torso
+        {-1, 0, 0, 0, 0},
+        {1079, 0, 0, 0, 0},      // Rune platelegs
+        {-1, 0, 0, 0, 0},
+        {7462, 12, 12, 12, 12},  // Barrows gloves
+        {11840, 0, 0, 0, 4},     // Dragon boots
+        {-1, 0, 0, 0, 0},
+        {11773, 0, 0, 0, 8},     // Berserker ring (i)
+        {-1, 0, 0, 0, 0},
+    };
+
+    private static final Gson GSON = new Gson();
+
+    private Item[] items;
+    private IntFunction<ItemStats> itemStatsLookup;
+    private EquipmentBonusSnapshot snapshot;
+    private String style;
+
+    @Setup
+    public void setUp()
+    {
+        Map<Integer, ItemStats> stats = new HashMap<>();
+        items = new Item[GEAR.length];
+        for (int i = 0; i < GEAR.length; i++)
+        {
+            int[] gear = GEAR[i];
+            items[i] = new Item(gear[0], 1);
+            if (gear[0] > 0)
+            {
+                stats.put(gear[0], GSON.fromJson(String.format(
+                        "{\"equipable\":true,\"equipment\":{\"astab\":%d,\"aslash\":%d,\"acrush\":%d,\"str\":%d}}",
+                        gear[1], gear[2], gear[3], gear[4]), ItemStats.class));
+            }
+        }
+        itemStatsLookup = stats::get;
+        snapshot = EquipmentBonusSnapshot.build(items, itemStatsLookup, 1);
+        style = "slash";
+    }
+
+    @Benchmark
+    public int perAttackWalk()
+    {
+        // Attack roll: attack bonus and void, then max hit: strength bonus and void
+        int attackBonus = meleeAttackWalk(style);
+        boolean voidAttack = voidMeleeWalk();
+        int strengthBonus = strengthWalk();
+        boolean voidStrength = voidMeleeWalk();
+        return attackBonus + strengthBonus + (voidAttack ? 1 : 0) + (voidStrength ? 2 : 0);
+    }
+
+    @Benchmark
+    public int perAttackSnapshot()
+    {
+        int attackBonus = snapshot.getMeleeAttack(style);
+        boolean voidAttack = snapshot.isVoidMelee();
+        int strengthBonus = snapshot.getStrength();
+        boolean voidStrength = snapshot.isVoidMelee();
+        return attackBonus + strengthBonus + (voidAttack ? 1 : 0) + (voidStrength ? 2 : 0);
+    }
+
+    @Benchmark
+    public EquipmentBonusSnapshot rebuildSnapshot()
+    {
+        return EquipmentBonusSnapshot.build(items, itemStatsLookup, 2);
+    }
+
+    private int meleeAttackWalk(String style)
+    {
+        int totalBonus = 0;
+        for (Item item : items)
+        {
+            if (item.getId() > 0)
+            {
+                ItemStats itemStats = itemStatsLookup.apply(item.getId());
+                if (itemStats != null && itemStats.getEquipment() != null)
+                {
+                    switch (style.toLowerCase())
+                    {
+                        case "stab":
+                            totalBonus += itemStats.getEquipment().getAstab();
+                            break;
+                        case "crush":
+                            totalBonus += itemStats.getEquipment().getAcrush();
+                            break;
+                        default:
+                            totalBonus += itemStats.getEquipment().getAslash();
+                            break;
+                    }
+                }
+            }
+        }
+        return totalBonus;
+    }
+
+    private int strengthWalk()
+    {
+        int totalBonus = 0;
+        for (Item item : items)
+        {
+            if (item.getId() > 0)
+            {
+                ItemStats itemStats = itemStatsLookup.apply(item.getId());
+                if (itemStats != null && itemStats.getEquipment() != null)
+                {
+                    totalBonus += itemStats.getEquipment().getStr();
+                }
+            }
+        }
+        return totalBonus;
+    }
+
+    private boolean voidMeleeWalk()
+    {
+        boolean hasHelm = false;
+        boolean hasTop = false;
+        boolean hasBottom = false;
+        boolean hasGloves = false;
+
+        for (Item item : items)
+        {
+            int id = item.getId();
+            if (id == 11665)
+            {
+                hasHelm = true;
+            }
+            if (id == 8839 || id == 10611 || id == 13072)
+            {
+                hasTop = true;
+            }
+            if (id == 8840 || id == 10612 || id == 13073)
+            {
+                hasBottom = true;
+            }
+            if (id == 8842)
+            {
+                hasGloves = true;
+            }
+        }
+
+        return hasHelm && hasTop && hasBottom && hasGloves;
+    }
+}
@@ -0,0 +1,168 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import com.google.gson.stream.JsonWriter;
+import net.runelite.client.plugins.pvmperformancetracker.enums.BossIds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup cost of the NPC stats database: parsing the whole JSON file (what every start did before the snapshot),
+ * indexing it for the boss rows (first start), and mapping the binary snapshot (every later start)
+ *
+ * Each invocation is one load, measured single-shot in fresh forks so the numbers are start-up costs rather than
+ * JIT-warmed loops. The database is generated at roughly the size and shape of monsters-complete.json; the files
+ * stay in the page cache, so disk reads are not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 10)
+@Fork(5)
+public class NpcStatsLoadBenchmark
+{
+    private static final int NPC_COUNT = 16000;
+    private static final int DROPS_PER_NPC = 12;
+
+    private Path directory;
+    private Path jsonFile;
+    private Path snapshotFile;
+    private long lastModified;
+    private long size;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("npc-stats-benchmark");
+        jsonFile = directory.resolve("osrsbox-monsters.json");
+        snapshotFile = directory.resolve("npc-stats.bin");
+
+        writeDatabase(jsonFile);
+        lastModified = Files.getLastModifiedTime(jsonFile).toMillis();
+        size = Files.size(jsonFile);
+
+        NpcStatsSnapshot.write(snapshotFile, parseJson(), lastModified, size);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public NpcStatsStore parseJson() throws IOException
+    {
+        try (Reader reader = Files.newBufferedReader(jsonFile, StandardCharsets.UTF_8))
+        {
+            return new NpcStatsParser().parse(reader);
+        }
+    }
+
+    @Benchmark
+    public NpcStatsStore indexJson() throws IOException
+    {
+        return NpcStatsJsonIndex.build(jsonFile).readRows(BossIds.BOSS_IDS);
+    }
+
+    @Benchmark
+    public NpcStatsStore mapSnapshot()
+    {
+        return NpcStatsSnapshot.open(snapshotFile, lastModified, size).readRows(BossIds.BOSS_IDS);
+    }
+
+    /**
+     * Write a database with every boss id plus filler NPCs, with the fields and drop tables OSRSBox entries have
+     */
+    private static void writeDatabase(Path file) throws IOException
+    {
+        Set<Integer> ids = new LinkedHashSet<>(BossIds.BOSS_IDS);
+        for (int id = 1; ids.size() < NPC_COUNT; id++)
+        {
+            ids.add(id);
+        }
+
+        Random random = new Random(42);
+        String[] attackTypes = {"melee", "stab", "slash", "crush", "magic", "ranged", "dragonfire"};
+
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             JsonWriter writer = new JsonWriter(out))
+        {
+            writer.beginObject();
+            for (int id : ids)
+            {
+                writer.name(Integer.toString(id)).beginObject();
+                writer.name("id").value(id);
+                writer.name("name").value("Monster " + (id % 3000));
+                writer.name("incomplete").value(false);
+                writer.name("members").value(random.nextBoolean());
+                writer.name("release_date").value("2005-02-28");
+                writer.name("combat_level").value(random.nextInt(1000));
+                writer.name("size").value(1 + random.nextInt(5));
+                writer.name("hitpoints").value(1 + random.nextInt(2000));
+                writer.name("max_hit").value(random.nextInt(80));
+                writer.name("attack_type").beginArray()
+                        .value(attackTypes[random.nextInt(attackTypes.length)])
+                        .value(attackTypes[random.nextInt(attackTypes.length)])
+                        .endArray();
+                writer.name("attack_speed").value(2 + random.nextInt(6));
+                writer.name("aggressive").value(random.nextBoolean());
+                writer.name("poisonous").value(random.nextBoolean());
+                writer.name("slayer_level").value(random.nextInt(99));
+                writer.name("slayer_xp").value(random.nextInt(5000) / 10.0);
+                writer.name("examine").value("An example monster, number " + id + ".");
+                writer.name("wiki_url").value("https://oldschool.runescape.wiki/w/Monster_" + id);
+                for (String stat : new String[]{"attack_level", "strength_level", "defence_level", "magic_level",
+                        "ranged_level", "attack_stab", "attack_slash", "attack_crush", "attack_magic", "attack_ranged",
+                        "defence_stab", "defence_slash", "defence_crush", "defence_magic", "defence_ranged",
+                        "attack_accuracy", "melee_strength", "ranged_strength", "magic_damage"})
+                {
+                    writer.name(stat).value(random.nextInt(400) - 50);
+                }
+
+                writer.name("drops").beginArray();
+                for (int drop = 0; drop < DROPS_PER_NPC; drop++)
+                {
+                    writer.beginObject()
+                            .name("id").value(random.nextInt(30000))
+                            .name("name").value("Item " + random.nextInt(30000))
+                            .name("members").value(random.nextBoolean())
+                            .name("quantity").value("1-" + (1 + random.nextInt(300)))
+                            .name("noted").value(random.nextBoolean())
+                            .name("rarity").value(random.nextDouble())
+                            .name("rolls").value(1)
+                            .endObject();
+                }
+                writer.endArray();
+
+                writer.endObject();
+            }
+            writer.endObject();
+        }
+    }
+}
@@ -223,6 +223,31 @@ public interface PvMPerformanceTrackerConfig extends Config
 		return false;
 	}
 
+	@ConfigItem(
+			keyName = "maxDetailEvents",
+			name = "Per-hit Detail Budget",
+			description = "Damage events kept in memory for past fights; older fights' hits are moved to disk",
+			position = 4,
+			section = combatSection
+	)
+	@Range(min = 1000, max = 5000000)
+	default int maxDetailEvents()
+	{
+		return 100000;
+	}
+
+	@ConfigItem(
+			keyName = "saveFightHistory",
+			name = "Save Fight History",
+			description = "Keep past fights across client restarts",
+			position = 5,
+			section = combatSection
+	)
+	default boolean saveFightHistory()
+	{
+		return true;
+	}
+
 	/**
 	 * Overlay metric options
 	 */
@@ -4,8 +4,9 @@ import net.runelite.api.Client;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
-import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
-import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+import net.runelite.client.plugins.pvmperformancetracker.models.FightSnapshot;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerSnapshot;
+import net.runelite.client.plugins.pvmperformancetracker.models.TrackerSnapshot;
 import net.runelite.client.plugins.pvmperformancetracker.enums.TrackingMode;
 
 import javax.inject.Inject;
@@ -74,7 +75,8 @@ public class PvMPerformanceTrackerOverlay extends Overlay
             return null;
         }
 
-        Fight activeFight = getActiveFight();
+        // Rendered from the snapshot published on the last game tick, never from the live fight
+        FightSnapshot activeFight = getActiveFight();
         if (activeFight == null)
         {
             return null;
@@ -83,7 +85,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         // For Overall mode, show even if no activity yet
         // For Current Fight mode, show if fight exists (even if ended)
         boolean isOverall = activeFight.getBossName() != null && activeFight.getBossName().equals("Overall");
-        if (!isOverall && !activeFight.hasActivity())
+        if (!isOverall && activeFight.getPlayers().isEmpty())
         {
             return null;
         }
@@ -99,8 +101,8 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
-        // Get sorted players
-        List<PlayerEntry> players = getSortedPlayers(activeFight);
+        // Players are already sorted by damage
+        List<PlayerSnapshot> players = activeFight.getPlayers();
 
         // Calculate total height
         int totalHeight = TITLE_HEIGHT + TOP_PADDING + (players.size() * (BAR_HEIGHT + BAR_PADDING)) + TOP_PADDING;
@@ -114,7 +116,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
 
         // Draw player bars
         int yOffset = TITLE_HEIGHT + TOP_PADDING;
-        int maxDamage = players.isEmpty() ? 1 : players.get(0).stats.getDamageDealt();
+        int maxDamage = players.isEmpty() ? 1 : players.get(0).getDamageDealt();
 
         for (int i = 0; i < players.size(); i++)
         {
@@ -125,7 +127,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         return new Dimension(currentWidth, totalHeight);
     }
 
-    private void drawTitle(Graphics2D graphics, Fight fight)
+    private void drawTitle(Graphics2D graphics, FightSnapshot fight)
     {
         graphics.setColor(TITLE_BACKGROUND);
         graphics.fillRect(0, 0, currentWidth, TITLE_HEIGHT);
@@ -143,7 +145,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         graphics.drawString(title, titleX, TITLE_HEIGHT - 6);
     }
 
-    private String buildTitle(Fight fight)
+    private String buildTitle(FightSnapshot fight)
     {
         StringBuilder title = new StringBuilder();
 
@@ -162,16 +164,16 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         return title.toString();
     }
 
-    private void drawPlayerBar(Graphics2D graphics, PlayerEntry entry, int y, int maxDamage, Fight fight, int playerIndex)
+    private void drawPlayerBar(Graphics2D graphics, PlayerSnapshot stats, int y, int maxDamage, FightSnapshot fight, int playerIndex)
     {
         String localPlayerName = client.getLocalPlayer() != null ? client.getLocalPlayer().getName() : "";
-        boolean isLocalPlayer = entry.playerName.equals(localPlayerName);
+        boolean isLocalPlayer = stats.getPlayerName().equals(localPlayerName);
 
         // Full bar width (extends entire overlay)
         int fullBarWidth = currentWidth - (SIDE_PADDING * 2);
 
         // Calculate filled portion based on damage percentage
-        double damagePercent = maxDamage > 0 ? (double) entry.stats.getDamageDealt() / maxDamage : 0;
+        double damagePercent = maxDamage > 0 ? (double) stats.getDamageDealt() / maxDamage : 0;
         int filledWidth = (int) (fullBarWidth * damagePercent);
 
         // Draw background bar (unfilled portion)
@@ -188,21 +190,21 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         graphics.drawRect(SIDE_PADDING, y, fullBarWidth, BAR_HEIGHT);
 
         // Build text content
-        String statsText = buildStatsText(entry, fight);
+        String statsText = buildStatsText(stats, fight);
 
         // Draw text inside bar
         graphics.setFont(new Font("Arial", Font.BOLD, 11));
         FontMetrics fm = graphics.getFontMetrics();
 
         // Check if text fits
-        int textWidth = fm.stringWidth(entry.playerName + " " + statsText);
+        int textWidth = fm.stringWidth(stats.getPlayerName() + " " + statsText);
         String displayText;
 
         if (textWidth > fullBarWidth - 12)
         {
             // Need to truncate or compact
-            String compactStats = buildCompactStatsText(entry, fight);
-            String truncatedName = entry.playerName;
+            String compactStats = buildCompactStatsText(stats, fight);
+            String truncatedName = stats.getPlayerName();
 
             // Try truncating name first
             while (fm.stringWidth(truncatedName + "... " + compactStats) > fullBarWidth - 12 && truncatedName.length() > 3)
@@ -210,18 +212,18 @@ public class PvMPerformanceTrackerOverlay extends Overlay
                 truncatedName = truncatedName.substring(0, truncatedName.length() - 1);
             }
 
-            if (truncatedName.length() < entry.playerName.length())
+            if (truncatedName.length() < stats.getPlayerName().length())
             {
                 displayText = truncatedName + "... " + compactStats;
             }
             else
             {
-                displayText = entry.playerName + " " + compactStats;
+                displayText = stats.getPlayerName() + " " + compactStats;
             }
         }
         else
         {
-            displayText = entry.playerName + " " + statsText;
+            displayText = stats.getPlayerName() + " " + statsText;
         }
 
         Color textColor = isLocalPlayer ? Color.YELLOW : Color.WHITE;
@@ -233,36 +235,36 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         graphics.drawString(displayText, textX, textY);
     }
 
-    private String buildStatsText(PlayerEntry entry, Fight fight)
+    private String buildStatsText(PlayerSnapshot stats, FightSnapshot fight)
     {
         StringBuilder text = new StringBuilder();
 
-        text.append(DF.format(entry.stats.getDamageDealt()));
+        text.append(DF.format(stats.getDamageDealt()));
         text.append(" (");
-        text.append(formatMetric(config.overlayMetric1(), entry.stats, fight));
+        text.append(formatMetric(config.overlayMetric1(), stats, fight));
         text.append(", ");
-        text.append(formatMetric(config.overlayMetric2(), entry.stats, fight));
+        text.append(formatMetric(config.overlayMetric2(), stats, fight));
         text.append(")");
 
         return text.toString();
     }
 
-    private String buildCompactStatsText(PlayerEntry entry, Fight fight)
+    private String buildCompactStatsText(PlayerSnapshot stats, FightSnapshot fight)
     {
         // Ultra compact: "100(10, -12)"
         StringBuilder text = new StringBuilder();
 
-        text.append(DF_COMPACT.format(entry.stats.getDamageDealt()));
+        text.append(DF_COMPACT.format(stats.getDamageDealt()));
         text.append("(");
-        text.append(formatMetricCompact(config.overlayMetric1(), entry.stats, fight));
+        text.append(formatMetricCompact(config.overlayMetric1(), stats, fight));
         text.append(", ");
-        text.append(formatMetricCompact(config.overlayMetric2(), entry.stats, fight));
+        text.append(formatMetricCompact(config.overlayMetric2(), stats, fight));
         text.append(")");
 
         return text.toString();
     }
 
-    private String formatMetric(PvMPerformanceTrackerConfig.OverlayMetric metric, PlayerStats stats, Fight fight)
+    private String formatMetric(PvMPerformanceTrackerConfig.OverlayMetric metric, PlayerSnapshot stats, FightSnapshot fight)
     {
         switch (metric)
         {
@@ -274,7 +276,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
                 return DF.format(stats.getDamageDealt()) + " DMG";
 
             case TICKS_LOST:
-                int ticksLost = calculateTicksLost(stats, fight);
+                int ticksLost = stats.getTicksLost();
                 return "-" + ticksLost + "T";
 
             case EXPECTED_DPS:
@@ -313,7 +315,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         }
     }
 
-    private String formatMetricCompact(PvMPerformanceTrackerConfig.OverlayMetric metric, PlayerStats stats, Fight fight)
+    private String formatMetricCompact(PvMPerformanceTrackerConfig.OverlayMetric metric, PlayerSnapshot stats, FightSnapshot fight)
     {
         switch (metric)
         {
@@ -325,7 +327,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
                 return DF_COMPACT.format(stats.getDamageDealt());
 
             case TICKS_LOST:
-                int ticksLost = calculateTicksLost(stats, fight);
+                int ticksLost = stats.getTicksLost();
                 return "-" + ticksLost;
 
             case EXPECTED_DPS:
@@ -364,28 +366,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         }
     }
 
-    private int calculateTicksLost(PlayerStats stats, Fight fight)
-    {
-        // Get current tick from fight tracker
-        int currentTick = plugin.getFightTracker().getCurrentTick();
-
-        // Check if this is Overall mode
-        boolean isOverall = fight.getBossName() != null && fight.getBossName().equals("Overall");
-
-        if (isOverall)
-        {
-            // Overall is already synced with base + current, just return the value
-            return Math.max(0, stats.getAttackingTicksLost());
-        }
-        else
-        {
-            // Current Fight - calculate real-time
-            int ticksLost = stats.calculateTicksLost(currentTick, fight.isActive());
-            return Math.max(0, ticksLost);
-        }
-    }
-
-    private int getMetricValue(PvMPerformanceTrackerConfig.OverlayMetric metric, PlayerStats stats)
+    private int getMetricValue(PvMPerformanceTrackerConfig.OverlayMetric metric, PlayerSnapshot stats)
     {
         switch (metric)
         {
@@ -418,7 +399,7 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         return String.format("%02d:%02d:%02d", minutes, seconds, centiseconds);
     }
 
-    private Fight getActiveFight()
+    private FightSnapshot getActiveFight()
     {
         if (plugin.getFightTracker() == null)
         {
@@ -426,42 +407,16 @@ public class PvMPerformanceTrackerOverlay extends Overlay
         }
 
         TrackingMode mode = config.trackingMode();
+        TrackerSnapshot snapshot = plugin.getFightTracker().getSnapshot();
 
         if (mode == TrackingMode.CURRENT_FIGHT)
         {
-            return plugin.getFightTracker().getCurrentFight();
+            return snapshot.getCurrentFight();
         }
         else
         {
-            return plugin.getFightTracker().getOverallFight();
+            return snapshot.getOverallFight();
         }
     }
 
-    private List<PlayerEntry> getSortedPlayers(Fight fight)
-    {
-        List<PlayerEntry> players = new ArrayList<>();
-
-        Map<String, PlayerStats> allStats = fight.getPlayerStats();
-        for (Map.Entry<String, PlayerStats> entry : allStats.entrySet())
-        {
-            players.add(new PlayerEntry(entry.getKey(), entry.getValue()));
-        }
-
-        // Sort by damage descending
-        players.sort((a, b) -> Integer.compare(b.stats.getDamageDealt(), a.stats.getDamageDealt()));
-
-        return players;
-    }
-
-    private static class PlayerEntry
-    {
-        final String playerName;
-        final PlayerStats stats;
-
-        PlayerEntry(String playerName, PlayerStats stats)
-        {
-            this.playerName = playerName;
-            this.stats = stats;
-        }
-    }
 }
\ No newline at end of file
@@ -4,8 +4,12 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
 import net.runelite.client.ui.components.PluginErrorPanel;
-import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
-import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.FightTracker;
+import net.runelite.client.plugins.pvmperformancetracker.models.BossPlayerStats;
+import net.runelite.client.plugins.pvmperformancetracker.models.BossStatsSummary;
+import net.runelite.client.plugins.pvmperformancetracker.models.FightSnapshot;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerSnapshot;
+import net.runelite.client.plugins.pvmperformancetracker.models.TrackerSnapshot;
 import net.runelite.client.plugins.pvmperformancetracker.enums.TrackingMode;
 
 import javax.swing.*;
@@ -15,7 +19,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.text.DecimalFormat;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import java.util.List;
 
 @Slf4j
 public class PvMPerformanceTrackerPanel extends PluginPanel
@@ -24,6 +28,7 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
     private static final DecimalFormat DF_DECIMAL = new DecimalFormat("#,##0.0");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
     private static final int PANEL_WIDTH = 225; // Standard RuneLite sidebar width
+    private static final int HISTORY_ROWS = 10;
 
     private final PvMPerformanceTrackerPlugin plugin;
 
@@ -37,6 +42,9 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
 
     private final PluginErrorPanel noDataPanel = new PluginErrorPanel();
 
+    // Version of the last snapshot rendered; only touched on the Swing thread
+    private long renderedVersion = -1;
+
     public PvMPerformanceTrackerPanel(PvMPerformanceTrackerPlugin plugin)
     {
         super(false);
@@ -173,29 +181,34 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         return wrapper;
     }
 
+    /**
+     * Rebuild the panel from the tracker's latest published snapshot
+     * Safe to call from any thread; nothing is rebuilt if that snapshot has already been rendered
+     */
     public void updatePanel()
     {
+        FightTracker fightTracker = plugin.getFightTracker();
+        TrackerSnapshot snapshot = fightTracker != null ? fightTracker.getSnapshot() : TrackerSnapshot.EMPTY;
+
         SwingUtilities.invokeLater(() -> {
-            updateCurrentFight();
-            updateOverall();
-            updateFightHistory();
+            if (snapshot.getVersion() == renderedVersion)
+            {
+                return;
+            }
+            renderedVersion = snapshot.getVersion();
+
+            updateCurrentFight(snapshot.getCurrentFight(), snapshot.getCurrentBossStats());
+            updateOverall(snapshot.getOverallFight());
+            updateFightHistory(snapshot.getHistory());
             revalidate();
             repaint();
         });
     }
 
-    private void updateCurrentFight()
+    private void updateCurrentFight(FightSnapshot currentFight, BossStatsSummary bossStats)
     {
         currentFightPanel.removeAll();
 
-        if (plugin.getFightTracker() == null)
-        {
-            addNoDataLabel(currentFightPanel);
-            return;
-        }
-
-        Fight currentFight = plugin.getFightTracker().getCurrentFight();
-
         // Show current fight if it exists (even if inactive/ended)
         if (currentFight == null)
         {
@@ -204,20 +217,16 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         }
 
         currentFightPanel.add(createCompactFightPanel(currentFight, true));
+        if (bossStats != null)
+        {
+            currentFightPanel.add(createBossStatsPanel(bossStats));
+        }
     }
 
-    private void updateOverall()
+    private void updateOverall(FightSnapshot overallFight)
     {
         overallPanel.removeAll();
 
-        if (plugin.getFightTracker() == null)
-        {
-            addNoDataLabel(overallPanel);
-            return;
-        }
-
-        Fight overallFight = plugin.getFightTracker().getOverallFight();
-
         // Always show Overall (will show 0s if empty)
         if (overallFight != null)
         {
@@ -229,18 +238,10 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         }
     }
 
-    private void updateFightHistory()
+    private void updateFightHistory(List<FightSnapshot> history)
     {
         fightHistoryPanel.removeAll();
 
-        if (plugin.getFightTracker() == null)
-        {
-            addNoDataLabel(fightHistoryPanel);
-            return;
-        }
-
-        java.util.List<Fight> history = plugin.getFightTracker().getFightHistory();
-
         if (history.isEmpty())
         {
             addNoDataLabel(fightHistoryPanel);
@@ -248,12 +249,9 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         }
 
         // Show only last 10 fights to save space
-        int count = 0;
-        for (Fight fight : history)
+        for (int i = 0; i < history.size() && i < HISTORY_ROWS; i++)
         {
-            if (count >= 10) break;
-            fightHistoryPanel.add(createCompactFightPanel(fight, false));
-            count++;
+            fightHistoryPanel.add(createCompactFightPanel(history.get(i), false));
         }
     }
 
@@ -266,7 +264,7 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         panel.add(noData);
     }
 
-    private JPanel createCompactFightPanel(Fight fight, boolean isCurrent)
+    private JPanel createCompactFightPanel(FightSnapshot fight, boolean isCurrent)
     {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
@@ -301,28 +299,13 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         }
 
         // Compact stats
-        PlayerStats localStats = fight.getLocalPlayerStats();
+        PlayerSnapshot localStats = fight.getLocalPlayer();
         if (localStats != null)
         {
-            boolean isOverall = fight.getBossName() != null && fight.getBossName().equals("Overall");
-            int ticksLost;
-
-            if (isOverall)
-            {
-                // Overall mode: tick loss is already aggregated
-                ticksLost = localStats.getAttackingTicksLost();
-            }
-            else
-            {
-                // Current Fight: calculate real-time
-                int currentTick = plugin.getFightTracker() != null ? plugin.getFightTracker().getCurrentTick() : 0;
-                ticksLost = localStats.calculateTicksLost(currentTick, fight.isActive());
-            }
-
             // Offensive stats
             panel.add(createCompactStatRow("DMG:", DF.format(localStats.getDamageDealt())));
             panel.add(createCompactStatRow("DPS:", DF_DECIMAL.format(localStats.calculateDPS(fight.getDurationTicks()))));
-            panel.add(createCompactStatRow("TL:", String.valueOf(ticksLost)));
+            panel.add(createCompactStatRow("TL:", String.valueOf(localStats.getTicksLost())));
 
             // Defensive stats (if any damage taken)
             if (localStats.getDamageTaken() > 0)
@@ -368,6 +351,38 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         return panel;
     }
 
+    /**
+     * The local player's record at the current boss, from every recorded fight there
+     */
+    private JPanel createBossStatsPanel(BossStatsSummary bossStats)
+    {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+        panel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createMatteBorder(0, 0, 1, 0, Color.GRAY),
+                new EmptyBorder(6, 8, 6, 8)
+        ));
+        panel.setMaximumSize(new Dimension(PANEL_WIDTH, 120));
+
+        JLabel titleLabel = new JLabel("This boss (" + bossStats.getFights() + " fights)");
+        titleLabel.setForeground(Color.WHITE);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 11));
+        panel.add(titleLabel);
+
+        panel.add(createCompactStatRow("Avg DPS:", DF_DECIMAL.format(bossStats.getMeanDps())));
+        panel.add(createCompactStatRow("p90 DPS:", DF_DECIMAL.format(bossStats.getP90Dps())));
+        panel.add(createCompactStatRow("Best DPS:", DF_DECIMAL.format(bossStats.getBestDps())));
+        if (bossStats.getBestDurationTicks() != BossPlayerStats.NO_DURATION)
+        {
+            panel.add(createCompactStatRow("PB:", formatDurationTicks(bossStats.getBestDurationTicks())));
+        }
+        panel.add(createCompactStatRow("Med. Time:", formatDurationTicks((int) Math.round(bossStats.getMedianDurationTicks()))));
+        panel.add(createCompactStatRow("TL %:", DF_DECIMAL.format(bossStats.getTickLossRate() * 100) + "%"));
+
+        return panel;
+    }
+
     private JPanel createCompactStatRow(String label, String value)
     {
         JPanel row = new JPanel(new BorderLayout());
@@ -388,7 +403,7 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         return row;
     }
 
-    private void showFightDetails(Fight fight)
+    private void showFightDetails(FightSnapshot fight)
     {
         // Create a detailed view dialog - compact version
         JDialog dialog = new JDialog();
@@ -407,7 +422,7 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
                 {"Boss:", fight.getBossName() != null ? fight.getBossName() : "Unknown"},
                 {"Total DMG:", DF.format(fight.getTotalDamage())},
                 {"Duration:", formatDurationTicks(fight.getDurationTicks())},
-                {"Players:", String.valueOf(fight.getPlayerStats().size())}
+                {"Players:", String.valueOf(fight.getPlayers().size())}
         }));
 
         content.add(Box.createVerticalStrut(10));
@@ -427,12 +442,9 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         playersSection.add(playersTitle);
         playersSection.add(Box.createVerticalStrut(8));
 
-        for (Map.Entry<String, PlayerStats> entry : fight.getPlayerStats().entrySet())
+        for (PlayerSnapshot stats : fight.getPlayers())
         {
-            String playerName = entry.getKey();
-            PlayerStats stats = entry.getValue();
-
-            playersSection.add(createPlayerDetailPanel(playerName, stats, fight));
+            playersSection.add(createPlayerDetailPanel(stats, fight));
             playersSection.add(Box.createVerticalStrut(5));
         }
 
@@ -446,7 +458,7 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         dialog.setVisible(true);
     }
 
-    private JPanel createPlayerDetailPanel(String playerName, PlayerStats stats, Fight fight)
+    private JPanel createPlayerDetailPanel(PlayerSnapshot stats, FightSnapshot fight)
     {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
@@ -457,7 +469,7 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         ));
 
         // Truncate name if needed
-        String displayName = playerName;
+        String displayName = stats.getPlayerName();
         if (displayName.length() > 20)
         {
             displayName = displayName.substring(0, 17) + "...";
@@ -468,25 +480,10 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         nameLabel.setFont(new Font("Arial", Font.BOLD, 11));
         panel.add(nameLabel);
 
-        boolean isOverall = fight.getBossName() != null && fight.getBossName().equals("Overall");
-        int ticksLost;
-
-        if (isOverall)
-        {
-            // Overall mode: tick loss already aggregated
-            ticksLost = stats.getAttackingTicksLost();
-        }
-        else
-        {
-            // Current Fight: calculate real-time
-            int currentTick = plugin.getFightTracker() != null ? plugin.getFightTracker().getCurrentTick() : 0;
-            ticksLost = stats.calculateTicksLost(currentTick, fight.isActive());
-        }
-
         // Offensive stats
         panel.add(createCompactStatRow("DMG:", DF.format(stats.getDamageDealt())));
         panel.add(createCompactStatRow("DPS:", DF_DECIMAL.format(stats.calculateDPS(fight.getDurationTicks()))));
-        panel.add(createCompactStatRow("Ticks Lost:", String.valueOf(ticksLost)));
+        panel.add(createCompactStatRow("Ticks Lost:", String.valueOf(stats.getTicksLost())));
         panel.add(createCompactStatRow("Accuracy:", DF_DECIMAL.format(stats.getAccuracyPercentage()) + "%"));
 
         // Expected damage stats (if available)
@@ -555,13 +552,15 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
         return String.format("%d:%02d", minutes, seconds);
     }
 
+    // Fights are only modified on the client thread; the tracker republishes and updates the panel afterwards
+
     private void endCurrentFight()
     {
-        if (plugin.getFightTracker() != null)
+        FightTracker fightTracker = plugin.getFightTracker();
+        if (fightTracker != null)
         {
-            plugin.getFightTracker().endCurrentFight();
+            plugin.getClientThread().invokeLater(() -> fightTracker.endCurrentFight());
         }
-        updatePanel();
     }
 
     private void resetOverall()
@@ -573,10 +572,10 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
                 JOptionPane.YES_NO_OPTION
         );
 
-        if (confirm == JOptionPane.YES_OPTION && plugin.getFightTracker() != null)
+        FightTracker fightTracker = plugin.getFightTracker();
+        if (confirm == JOptionPane.YES_OPTION && fightTracker != null)
         {
-            plugin.getFightTracker().resetOverallTracking();
-            updatePanel();
+            plugin.getClientThread().invokeLater(() -> fightTracker.resetOverallTracking());
         }
     }
 
@@ -589,10 +588,10 @@ public class PvMPerformanceTrackerPanel extends PluginPanel
                 JOptionPane.YES_NO_OPTION
         );
 
-        if (confirm == JOptionPane.YES_OPTION && plugin.getFightTracker() != null)
+        FightTracker fightTracker = plugin.getFightTracker();
+        if (confirm == JOptionPane.YES_OPTION && fightTracker != null)
         {
-            plugin.getFightTracker().clearHistory();
-            updatePanel();
+            plugin.getClientThread().invokeLater(() -> fightTracker.clearHistory());
         }
     }
 }
\ No newline at end of file
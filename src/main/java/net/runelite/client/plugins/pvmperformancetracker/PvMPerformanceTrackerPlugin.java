@@ -16,6 +16,7 @@ import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.ImageUtil;
 import net.runelite.client.RuneLite;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.plugins.pvmperformancetracker.helpers.*;
 import net.runelite.client.plugins.pvmperformancetracker.listeners.*;
 import net.runelite.client.plugins.pvmperformancetracker.party.PartyStatsManager;
@@ -34,6 +35,10 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 	@Inject
 	private Client client;
 
+	@Inject
+	@Getter
+	private ClientThread clientThread;
+
 	@Inject
 	private PvMPerformanceTrackerConfig config;
 
@@ -61,6 +66,11 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 	@Getter
 	private FightTracker fightTracker;
 
+	private DamageDetailSpill detailSpill;
+
+	@Getter
+	private FightHistoryStore fightHistoryStore;
+
 	@Getter
 	private DamageCalculator damageCalculator;
 
@@ -82,10 +92,36 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 	@Getter
 	private CombatFormulas combatFormulas;
 
+	@Getter
+	private NpcMetricsBackfill npcMetricsBackfill;
+
+	// Prayers and boosted levels, recaptured on first use after a stat, varbit or game state change
+	private CombatStateSnapshot combatState = CombatStateSnapshot.EMPTY;
+	private boolean combatStateDirty = true;
+
 	// Listeners
 	private HitsplatListener hitsplatListener;
 	private AnimationListener animationListener;
 
+	// Hitsplats and attack animations staged by the listeners, processed together at the next GameTick
+	@Getter
+	private final TickEventBuffer tickEvents = new TickEventBuffer();
+
+	private final TickEventBuffer.Handler tickEventHandler = new TickEventBuffer.Handler()
+	{
+		@Override
+		public void onHitsplat(Actor target, int amount, int hitpoints)
+		{
+			hitsplatListener.processHitsplat(target, amount, hitpoints);
+		}
+
+		@Override
+		public void onAttackAnimation(Actor actor, int animationId, int animation)
+		{
+			animationListener.processAttackAnimation(actor, animationId, animation);
+		}
+	};
+
 	@Getter
 	private CombatEventListener combatEventListener;
 
@@ -95,25 +131,58 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 		log.info("PvM Performance Tracker started!");
 
 		// Initialize managers and helpers
-		fightTracker = new FightTracker(this, client);
+		detailSpill = new DamageDetailSpill(RuneLite.RUNELITE_DIR);
+		fightHistoryStore = new FightHistoryStore(RuneLite.RUNELITE_DIR);
+		fightTracker = new FightTracker(this, client, detailSpill, fightHistoryStore);
 		damageCalculator = new DamageCalculator(client);
 		damageClassifier = new DamageClassifier(client);
-		weaponSpeedHelper = new WeaponSpeedHelper(client);
+		weaponSpeedHelper = new WeaponSpeedHelper(client, itemManager);
 		bossDetectionHelper = new BossDetectionHelper();
 		partyStatsManager = new PartyStatsManager(this, client, partyService);
 
 		// Initialize NPC stats provider (async to avoid blocking startup)
 		npcStatsProvider = new NpcStatsProvider(RuneLite.RUNELITE_DIR);
 		combatFormulas = new CombatFormulas(client, itemManager);
+		npcMetricsBackfill = new NpcMetricsBackfill(this);
 
-		// Load NPC database in background
-		new Thread(() -> {
-			try {
-				npcStatsProvider.initialize();
-			} catch (Exception e) {
-				log.error("Failed to initialize NPC stats provider", e);
+		// Load NPC database in background; metrics from fights started meanwhile are back-filled once it's ready
+		final NpcMetricsBackfill backfill = npcMetricsBackfill;
+		npcStatsProvider.load().whenComplete((store, ex) -> clientThread.invokeLater(() ->
+		{
+			if (ex == null)
+			{
+				backfillNpcMetrics();
+			}
+			else
+			{
+				backfill.clear();
 			}
-		}, "NPC-Stats-Loader").start();
+		}));
+
+		// Same for NPCs outside the boss list, whose entries are read on demand
+		npcStatsProvider.setTailReadListener(() -> clientThread.invokeLater(this::backfillNpcMetrics));
+
+		// Bring back the most recent saved fights without reading the rest of the log
+		if (config.saveFightHistory())
+		{
+			final FightTracker tracker = fightTracker;
+			fightHistoryStore.loadRecent(config.maxSessionHistory())
+				.thenAccept(fights -> clientThread.invokeLater(() -> tracker.restoreHistory(fights)))
+				.exceptionally(ex ->
+				{
+					log.warn("Failed to load saved fights", ex);
+					return null;
+				});
+		}
+
+		// Equipment bonuses and the weapon profile are otherwise only rebuilt on ItemContainerChanged
+		final CombatFormulas formulas = combatFormulas;
+		final WeaponSpeedHelper weapons = weaponSpeedHelper;
+		clientThread.invokeLater(() ->
+		{
+			formulas.updateEquipment();
+			weapons.updateEquipment();
+		});
 
 		// Initialize listeners
 		hitsplatListener = new HitsplatListener(this);
@@ -150,6 +219,9 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 		overlayManager.remove(overlay);
 		clientToolbar.removeNavigation(navigationButton);
 
+		// Events staged since the last tick are dropped
+		tickEvents.clear();
+
 		// End active fight
 		if (fightTracker != null && fightTracker.hasActiveFight())
 		{
@@ -161,11 +233,38 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 		{
 			fightTracker.resetOverallTracking();
 		}
+
+		// Stop the NPC database loader
+		if (npcStatsProvider != null)
+		{
+			npcStatsProvider.shutdown();
+		}
+
+		// Finish saving ended fights, including the one ended above
+		if (fightHistoryStore != null)
+		{
+			fightHistoryStore.close();
+		}
+
+		// Spilled per-hit detail is only readable for this session
+		if (detailSpill != null)
+		{
+			detailSpill.close();
+		}
 	}
 
 	@Subscribe
 	public void onGameTick(GameTick event)
 	{
+		if (partyStatsManager != null)
+		{
+			partyStatsManager.invalidateInteractions();
+		}
+
+		// Attribute and record the tick's events against one view of the client state,
+		// before the tracker advances the tick and publishes the snapshot
+		processTickEvents();
+
 		if (fightTracker != null)
 		{
 			fightTracker.onGameTick();
@@ -197,9 +296,54 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 		}
 	}
 
+	@Subscribe
+	public void onInteractingChanged(InteractingChanged event)
+	{
+		// Only players' targets feed hitsplat attribution
+		if (event.getSource() instanceof Player && partyStatsManager != null)
+		{
+			partyStatsManager.invalidateInteractions();
+		}
+	}
+
+	@Subscribe
+	public void onItemContainerChanged(ItemContainerChanged event)
+	{
+		if (event.getContainerId() != InventoryID.EQUIPMENT.getId())
+		{
+			return;
+		}
+
+		if (combatFormulas != null)
+		{
+			combatFormulas.updateEquipment(event.getItemContainer());
+		}
+		if (weaponSpeedHelper != null)
+		{
+			weaponSpeedHelper.updateEquipment(event.getItemContainer());
+		}
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged event)
+	{
+		// Prayers and the attack style settings are varbits; recapture lazily on next use
+		combatStateDirty = true;
+	}
+
+	@Subscribe
+	public void onStatChanged(StatChanged event)
+	{
+		// Boosts, drains and hitpoints; the state version only moves if a formula input changed
+		combatStateDirty = true;
+	}
+
 	@Subscribe
 	public void onActorDeath(ActorDeath event)
 	{
+		// The killing blow is still staged; record it before the fight can end
+		processTickEvents();
+
 		if (combatEventListener != null)
 		{
 			combatEventListener.onActorDeath(event);
@@ -209,6 +353,15 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged event)
 	{
+		// The local player comes and goes with the game state
+		combatStateDirty = true;
+
+		// Record what was staged before logout or a hop ends the fight
+		if (event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING)
+		{
+			processTickEvents();
+		}
+
 		if (event.getGameState() == GameState.LOGGED_IN)
 		{
 			// Player logged in - update party members
@@ -231,6 +384,13 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 				fightTracker.resetOverallTracking();
 			}
 		}
+
+		// The client replaces player objects on logout and world hop
+		if ((event.getGameState() == GameState.LOGIN_SCREEN || event.getGameState() == GameState.HOPPING)
+			&& fightTracker != null)
+		{
+			fightTracker.getActors().clearActorCache();
+		}
 	}
 
 	@Subscribe
@@ -250,6 +410,19 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 			}
 		}
 
+		// Fight state is owned by the client thread
+		if (event.getKey().equals("maxDetailEvents") && fightTracker != null)
+		{
+			final FightTracker tracker = fightTracker;
+			clientThread.invokeLater(() -> tracker.enforceDetailBudget());
+		}
+
+		if (event.getKey().equals("maxSessionHistory") && fightTracker != null)
+		{
+			final FightTracker tracker = fightTracker;
+			clientThread.invokeLater(() -> tracker.resizeHistory());
+		}
+
 		// Update panel
 		if (panel != null)
 		{
@@ -273,6 +446,61 @@ public class PvMPerformanceTrackerPlugin extends Plugin
 		return config;
 	}
 
+	/**
+	 * Process the events staged since the last tick in one pass, in the order they arrived
+	 */
+	private void processTickEvents()
+	{
+		if (tickEvents.isEmpty())
+		{
+			return;
+		}
+
+		if (!config.enableTracking() || hitsplatListener == null || animationListener == null)
+		{
+			tickEvents.clear();
+			return;
+		}
+
+		tickEvents.drain(tickEventHandler);
+	}
+
+	/**
+	 * Apply metrics queued while NPC stats were loading
+	 * Must be called on the client thread
+	 */
+	private void backfillNpcMetrics()
+	{
+		if (npcMetricsBackfill == null)
+		{
+			return;
+		}
+
+		npcMetricsBackfill.drain();
+		if (fightTracker != null)
+		{
+			fightTracker.invalidateSnapshot(true);
+		}
+		if (panel != null)
+		{
+			panel.updatePanel();
+		}
+	}
+
+	/**
+	 * Get the local player's combat state for the current tick
+	 * Must be called on the client thread
+	 */
+	public CombatStateSnapshot getCombatState()
+	{
+		if (combatStateDirty)
+		{
+			combatState = CombatStateSnapshot.capture(client, combatState);
+			combatStateDirty = false;
+		}
+		return combatState;
+	}
+
 	/**
 	 * Create a placeholder icon (16x16)
 	 * Replace with actual icon file later
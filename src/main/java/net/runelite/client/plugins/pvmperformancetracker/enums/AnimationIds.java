@@ -155,6 +155,110 @@ public class AnimationIds
             AnimationID.HUMAN_SPELLCAST_DEMONBANE // Arceuus demonbane
     );
 
+    // Melee animations that roll stab or crush accuracy; any other melee animation is treated as slash
+    public static final List<Integer> STAB_IDS = Arrays.asList(
+            AnimationID.HUMAN_OSMUMTENS_FANG, // Osmumten's fang stab
+            AnimationID.WEAPON_SWORD_OSMUMTEN03_SPECIAL, // Osmumten's fang spec
+            AnimationID.HUMAN_DHUNTER_LANCE_ATTACK, // Dragon hunter lance stab, Swift blade
+            AnimationID.HUMAN_BLUNT_SPIKE, // Pickaxe spike, Inquisitor's mace stab
+            AnimationID.HUMAN_SPEAR_SPIKE, // Spear stab, Chally, Zamorakian hasta
+            AnimationID.HUMAN_DDAGGER_LUNGE, // Dragon dagger stab
+            AnimationID.HUMAN_DSPEAR_STAB, // Zamorakian hasta, Keris partisan
+            AnimationID.HUMAN_SWORD_STAB, // Stab
+            AnimationID.D_CLAWS_PUNCH, // Claw stab
+            AnimationID.ABYSSAL_DAGGER_LUNGE, // Abyssal dagger stab
+            AnimationID.HUMAN_DRAGON_SWORD_SPEC, // Dragon sword spec
+            AnimationID.GHRAZI_RAPIER_ATTACK, // Rapier
+            AnimationID.HUMAN_ZAMORAKSPEAR_STAB, // Zamorakian spear
+            AnimationID.BARROWS_WAR_SPEAR_STAB, // Guthan's warspear stab
+            AnimationID.DTTD_PLAYER_STAB_BONE_DAGGER, // Bone dagger spec
+            AnimationID.STAB_WOLBANEDAGGER, // Wolfbane stab
+            AnimationID.HUMAN_DHSWORD_STAB // Dragon spear spec
+    );
+
+    public static final List<Integer> CRUSH_IDS = Arrays.asList(
+            AnimationID.HUMAN_DHUNTER_LANCE_CRUSH, // Dragon hunter lance crush
+            AnimationID.HUMAN_AXE_CHOP, // Staff bash
+            AnimationID.HUMAN_INQUISITORS_MACE_CRUSH, // Inquisitor's mace crush
+            AnimationID.HUMAN_BLUNT_POUND, // Crush, DWH, Ham joint
+            AnimationID.HUMAN_DHSWORD_CHOP, // 2h crush
+            AnimationID.HUMAN_SPEAR_LUNGE, // Spear crush
+            AnimationID.DRAGON_WARHAMMER_SA_PLAYER, // Dragon warhammer spec
+            AnimationID.WILD_CAVE_CHAINMACE_CRUSH, // Ursine/Viggora mace
+            AnimationID.HUMAN_SPECIAL02_URSINE, // Ursine mace spec
+            AnimationID.HUMAN_UNARMEDPUNCH, // Punch
+            AnimationID.HUMAN_UNARMEDKICK, // Kick
+            AnimationID.HUMAN_STAFF_PUMMEL, // Crozier crush
+            AnimationID.HUMAN_STAFFORB_PUMMEL, // Keris partisan crush, Zamorakian hasta crush
+            AnimationID.ABYSSAL_BLUDGEON_CRUSH, // Abyssal bludgeon
+            AnimationID.ABYSSAL_BLUDGEON_SPECIAL_ATTACK, // Abyssal bludgeon spec
+            AnimationID.HUMAN_ZAMORAKSPEAR_LUNGE, // Blue moon spear crush
+            AnimationID.BARROW_GUTHAN_CRUSH, // Verac's flail, Bone mace
+            AnimationID.BARROW_DHAROK_CRUSH, // Dharok's greataxe crush
+            AnimationID.BARROW_TORAG_CRUSH, // Torag's hammer
+            AnimationID.BARROWS_WAR_SPEAR_CRUSH, // Guthan's warspear crush
+            AnimationID.IVANDIS_FLAIL_ATTACK, // Blisterwood flail
+            AnimationID.BATTLEAXE_CRUSH, // Leaf-bladed battleaxe crush, Zombie axe crush
+            AnimationID.ANCIENT_AXE_SLASH, // Soulreaper Axe crush
+            AnimationID.DH_SWORD_UPDATE_SMASH, // Saradomin sword, Godswords
+            AnimationID.BARROWS_QUARTERSTAFF_ATTACK, // Ahrim's staff bash
+            AnimationID.BRAIN_PLAYER_ANCHOR_ATTACK, // Barrelchest anchor
+            AnimationID.HUMAN_DINHS_BULWARK_BASH, // Dinh's bulwark
+            AnimationID.HUMAN_ELDER_MAUL_ATTACK, // Maul
+            AnimationID.HUMAN_ELDER_MAUL_SPEC, // Elder maul spec
+            AnimationID.SLAYER_GRANITE_MAUL_ATTACK, // Gadderhammer, Granite maul
+            AnimationID.SLAYER_GRANITE_MAUL_DEFEND, // Granite maul block
+            AnimationID.SLAYER_GRANITE_MAUL_SPECIAL_ATTACK, // Granite maul spec
+            AnimationID.SHATTER, // Dragon mace spec
+            AnimationID.PMOON_MACUAHUITL_CRUSH // Dual macuahuitl
+    );
+
+    public static final List<Integer> SPECIAL_ATTACK_IDS = Arrays.asList(
+            AnimationID.WEAPON_SWORD_OSMUMTEN03_SPECIAL, // Osmumten's fang spec
+            AnimationID.DRAGON_HALBERD_SPECIAL_ATTACK, // Halberd spec
+            AnimationID.DRAGON_WARHAMMER_SA_PLAYER, // Dragon warhammer spec
+            AnimationID.HUMAN_SPECIAL02_VOIDWAKER, // Voidwaker spec
+            AnimationID.PUNCTURE, // Dragon dagger spec
+            AnimationID.HUMAN_SPECIAL02_URSINE, // Ursine mace spec
+            AnimationID.TOA_KERIS_PARTISAN_SPECIAL01, // Keris partisan of corruption spec
+            AnimationID.HUMAN_DRAGON_CLAWS_SPEC, // Claw spec
+            AnimationID.HUMAN_WEAPON_BURNING_CLAWS_02_SPEC, // Burning claws spec
+            AnimationID.DARK_SPEC_PLAYER, // Arclight spec
+            AnimationID.ABYSSAL_DAGGER_SPECIAL, // Abyssal dagger spec
+            AnimationID.ABYSSAL_BLUDGEON_SPECIAL_ATTACK, // Abyssal bludgeon spec
+            AnimationID.HUMAN_DRAGON_SWORD_SPEC, // Dragon sword spec
+            AnimationID.DTTD_PLAYER_STAB_BONE_DAGGER, // Bone dagger spec
+            AnimationID.ANCIENT_AXE_SPECIAL, // Soulreaper Axe spec
+            AnimationID.SARADOMIN_SWORD_SPECIAL_PLAYER, // Saradomin sword spec
+            AnimationID.BLESSED_SARADOMIN_SWORD_SPECIAL_PLAYER, // Saradomin's blessed sword spec
+            AnimationID.ZGS_SPECIAL_PLAYER, // Zamorak godsword spec
+            AnimationID.ZGS_SPECIAL_ORNATE_PLAYER, // Zamorak godsword spec
+            AnimationID.SGS_SPECIAL_PLAYER, // Saradomin godsword spec
+            AnimationID.SGS_SPECIAL_ORNATE_PLAYER, // Saradomin godsword spec
+            AnimationID.BGS_SPECIAL_PLAYER, // Bandos godsword spec
+            AnimationID.BGS_SPECIAL_ORNATE_PLAYER, // Bandos godsword spec
+            AnimationID.AGS_SPECIAL_PLAYER, // Armadyl godsword spec
+            AnimationID.AGS_SPECIAL_ORNATE_PLAYER, // Armadyl godsword spec
+            AnimationID.NGS_SPECIAL_PLAYER, // Ancient godsword spec
+            AnimationID.BRAIN_PLAYER_ANCHOR_SPECIAL_ATTACK, // Barrelchest anchor spec
+            AnimationID.QIP_DRAGON_SLAYER_PLAYER_UNLEASHING_FIRE, // Dragonfire shield spec
+            AnimationID.HUMAN_ELDER_MAUL_SPEC, // Elder maul spec
+            AnimationID.SLAYER_GRANITE_MAUL_SPECIAL_ATTACK, // Granite maul spec
+            AnimationID.SHATTER, // Dragon mace spec
+            AnimationID.DRAGON_TWO_HANDED_SWORD, // Dragon 2h spec
+            AnimationID.CHAIR_SIT_READY_THRONE_5B, // Dragon longsword spec
+            AnimationID.CHAIR_SIT_READY_THRONE_3B, // Dragon scimitar spec
+            AnimationID.HUMAN_DHSWORD_STAB, // Dragon spear spec
+            AnimationID.SNAPSHOT, // Magic shortbow spec
+            AnimationID.HUMAN_DRAGON_TKNIVES_SPEC, // Dragon knife spec
+            AnimationID.HUMAN_SPECIAL01_WEBWEAVER, // Webweaver bow spec
+            AnimationID.DTTD_PLAYER_FIRE_BONE_CROSSBOW_PVN, // Dorgeshuun crossbow spec
+            AnimationID.HUMAN_SPECIAL_ATLATL_01, // Eclipse atlatl spec
+            AnimationID.HUMAN_GLAIVE_RALOS01_UNCHARGED_SPECIAL, // Tonalztics of ralos (Uncharged)
+            AnimationID.HUMAN_GLAIVE_RALOS01_CHARGED_SPECIAL, // Tonalztics of ralos spec
+            AnimationID.NIGHTMARE_STAFF_SPECIAL // Eldritch/Volatile nightmare staff spec
+    );
+
     public static int getTicks(int attackAnimationId, int weaponId)
     {
         int ticks = 0;
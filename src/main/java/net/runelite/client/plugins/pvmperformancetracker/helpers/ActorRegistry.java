@@ -0,0 +1,109 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.api.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-session interning of player names to small int ids
+ *
+ * Fights store player stats in arrays indexed by these ids, so the hit and attack paths work with ints. A player
+ * object seen recently resolves to its id by reference through a small cache; the name is only hashed the first time
+ * that object is seen. Ids are never reused within a session. Only used on the client thread.
+ *
+ * NPC targets need no registry: they are already identified by their int NPC id.
+ */
+public class ActorRegistry
+{
+    public static final int UNKNOWN = -1;
+
+    // A raid party plus a few stale entries
+    private static final int ACTOR_CACHE_SIZE = 16;
+
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private final Player[] cachedPlayers = new Player[ACTOR_CACHE_SIZE];
+    private final int[] cachedIds = new int[ACTOR_CACHE_SIZE];
+    private int nextCacheSlot;
+
+    /**
+     * Id of a player in the scene, or UNKNOWN if the player has no name yet
+     */
+    public int playerId(Player player)
+    {
+        if (player == null)
+        {
+            return UNKNOWN;
+        }
+
+        for (int i = 0; i < ACTOR_CACHE_SIZE; i++)
+        {
+            if (cachedPlayers[i] == player)
+            {
+                return cachedIds[i];
+            }
+        }
+
+        String name = player.getName();
+        if (name == null)
+        {
+            return UNKNOWN;
+        }
+
+        int id = playerId(name);
+        cachedPlayers[nextCacheSlot] = player;
+        cachedIds[nextCacheSlot] = id;
+        nextCacheSlot = (nextCacheSlot + 1) % ACTOR_CACHE_SIZE;
+        return id;
+    }
+
+    /**
+     * Id of a player by name, assigning the next id the first time the name is seen
+     */
+    public int playerId(String name)
+    {
+        if (name == null)
+        {
+            return UNKNOWN;
+        }
+
+        Integer id = idsByName.get(name);
+        if (id == null)
+        {
+            id = names.size();
+            names.add(name);
+            idsByName.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Name for an id, for display and export
+     */
+    public String getName(int id)
+    {
+        return id >= 0 && id < names.size() ? names.get(id) : null;
+    }
+
+    public int size()
+    {
+        return names.size();
+    }
+
+    /**
+     * Forget cached player objects, e.g. on logout or world hop when the client replaces them
+     * Ids stay assigned, so stats recorded under them remain valid
+     */
+    public void clearActorCache()
+    {
+        for (int i = 0; i < ACTOR_CACHE_SIZE; i++)
+        {
+            cachedPlayers[i] = null;
+        }
+        nextCacheSlot = 0;
+    }
+}
@@ -0,0 +1,200 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.client.plugins.pvmperformancetracker.enums.AnimationIds;
+import net.runelite.client.plugins.pvmperformancetracker.enums.AttackStyle;
+
+import java.util.List;
+
+/**
+ * Everything known about player attack animations, in one table indexed by animation id
+ *
+ * Built once at class load from the lists in AnimationIds. Each entry packs the attack flag, combat style, default
+ * weapon speed and special attack flag into a short, so classifying an AnimationChanged event is one array read with
+ * no boxing. Callers that need several fields fetch the entry once with lookup() and decode it with the static
+ * accessors below.
+ *
+ * An animation listed under more than one style keeps the first one registered (melee, then ranged, then magic);
+ * the few raw ids the plugin recognised before only fill in ids AnimationIds doesn't list.
+ */
+public final class AnimationRegistry
+{
+    public static final int STYLE_STAB = 1;
+    public static final int STYLE_SLASH = 2;
+    public static final int STYLE_CRUSH = 3;
+    public static final int STYLE_RANGED = 4;
+    public static final int STYLE_MAGIC = 5;
+
+    // Style names as understood by CombatFormulas, indexed by style
+    private static final String[] STYLE_NAMES = {null, "stab", "slash", "crush", "ranged", "magic"};
+
+    public static final int DEFAULT_SPEED = 4;
+
+    // Entry layout: bit 0 attack, bits 1-3 style, bit 4 special attack, bits 5-8 speed in ticks
+    private static final int ATTACK_BIT = 1;
+    private static final int STYLE_SHIFT = 1;
+    private static final int STYLE_MASK = 0x7;
+    private static final int SPECIAL_BIT = 1 << 4;
+    private static final int SPEED_SHIFT = 5;
+    private static final int SPEED_MASK = 0xF;
+
+    // {id, style, speed} for attack animations recognised before AnimationIds was wired in
+    private static final int[][] LEGACY_ANIMATIONS = {
+            {422, STYLE_CRUSH, 4},  // Unarmed punch
+            {423, STYLE_CRUSH, 4},  // Unarmed kick
+            {401, STYLE_SLASH, 4},  // Bronze-Rune swords
+            {406, STYLE_SLASH, 4},  // Dragon longsword
+            {407, STYLE_SLASH, 4},  // Dragon dagger
+            {428, STYLE_SLASH, 4},  // Staff bash
+            {440, STYLE_SLASH, 4},  // Pickaxe
+            {1658, STYLE_SLASH, 4}, // Whip
+            {1378, STYLE_SLASH, 4}, // Dragon scimitar
+            {7514, STYLE_SLASH, 6}, // Godsword
+            {8145, STYLE_STAB, 4},  // Rapier
+            {8056, STYLE_SLASH, 5}, // Scythe
+            {390, STYLE_SLASH, 4},  // Staff
+            {386, STYLE_SLASH, 6},  // 2h sword
+            {4230, STYLE_RANGED, 5}, // Crossbow
+            {426, STYLE_RANGED, 5}, // Shortbow
+            {5061, STYLE_RANGED, 2}, // Blowpipe
+            {7617, STYLE_RANGED, 6}, // Crossbow
+            {7552, STYLE_RANGED, 7}, // Ballista
+            {8291, STYLE_RANGED, 5}, // Bow of faerdhinen
+            {929, STYLE_RANGED, 5}, // Longbow
+            {7554, STYLE_RANGED, 7}, // Heavy ballista
+            {7555, STYLE_RANGED, 7}, // Light ballista
+            {1162, STYLE_MAGIC, 5}, // Standard spell
+            {1167, STYLE_MAGIC, 5}, // Ancient spell
+            {1978, STYLE_MAGIC, 5}, // Powered staff
+            {8532, STYLE_MAGIC, 4}, // Trident
+            {7855, STYLE_MAGIC, 4}, // Sanguinesti staff
+            {9493, STYLE_MAGIC, 4}, // Tumeken's shadow
+    };
+
+    private static final short[] ENTRIES = build();
+
+    private AnimationRegistry()
+    {
+    }
+
+    /**
+     * Packed entry for an animation id, 0 if it isn't a known attack (including -1 for no animation)
+     */
+    public static int lookup(int animationId)
+    {
+        return animationId >= 0 && animationId < ENTRIES.length ? ENTRIES[animationId] : 0;
+    }
+
+    public static boolean isAttack(int entry)
+    {
+        return (entry & ATTACK_BIT) != 0;
+    }
+
+    /**
+     * One of the STYLE_ constants, 0 for a non-attack entry
+     */
+    public static int getStyle(int entry)
+    {
+        return (entry >> STYLE_SHIFT) & STYLE_MASK;
+    }
+
+    /**
+     * Style name as passed to CombatFormulas ("stab", "slash", "crush", "ranged", "magic"), null for a non-attack
+     */
+    public static String getStyleName(int entry)
+    {
+        return STYLE_NAMES[getStyle(entry)];
+    }
+
+    public static AttackStyle getAttackStyle(int entry)
+    {
+        switch (getStyle(entry))
+        {
+            case STYLE_STAB:
+            case STYLE_SLASH:
+            case STYLE_CRUSH:
+                return AttackStyle.MELEE;
+            case STYLE_RANGED:
+                return AttackStyle.RANGED;
+            case STYLE_MAGIC:
+                return AttackStyle.MAGIC;
+            default:
+                return AttackStyle.UNKNOWN;
+        }
+    }
+
+    /**
+     * Attack speed in ticks of the usual weapon for the animation, for players whose equipment isn't known
+     */
+    public static int getDefaultSpeed(int entry)
+    {
+        int speed = (entry >> SPEED_SHIFT) & SPEED_MASK;
+        return speed == 0 ? DEFAULT_SPEED : speed;
+    }
+
+    public static boolean isSpecialAttack(int entry)
+    {
+        return (entry & SPECIAL_BIT) != 0;
+    }
+
+    private static short[] build()
+    {
+        int maxId = 0;
+        for (List<Integer> ids : List.of(AnimationIds.MELEE_IDS, AnimationIds.RANGED_IDS, AnimationIds.MAGE_IDS))
+        {
+            for (int id : ids)
+            {
+                maxId = Math.max(maxId, id);
+            }
+        }
+        for (int[] legacy : LEGACY_ANIMATIONS)
+        {
+            maxId = Math.max(maxId, legacy[0]);
+        }
+
+        short[] entries = new short[maxId + 1];
+
+        for (int id : AnimationIds.MELEE_IDS)
+        {
+            int style = AnimationIds.STAB_IDS.contains(id) ? STYLE_STAB
+                    : AnimationIds.CRUSH_IDS.contains(id) ? STYLE_CRUSH
+                    : STYLE_SLASH;
+            register(entries, id, style, AnimationIds.getTicks(id, -1));
+        }
+        for (int id : AnimationIds.RANGED_IDS)
+        {
+            register(entries, id, STYLE_RANGED, AnimationIds.getTicks(id, -1));
+        }
+        for (int id : AnimationIds.MAGE_IDS)
+        {
+            register(entries, id, STYLE_MAGIC, AnimationIds.getTicks(id, -1));
+        }
+        for (int[] legacy : LEGACY_ANIMATIONS)
+        {
+            register(entries, legacy[0], legacy[1], legacy[2]);
+        }
+
+        for (int id : AnimationIds.SPECIAL_ATTACK_IDS)
+        {
+            if (id >= 0 && id < entries.length && isAttack(entries[id]))
+            {
+                entries[id] |= SPECIAL_BIT;
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Add an entry unless the id already has one; getTicks() returns 0 for animations it has no speed for
+     */
+    private static void register(short[] entries, int id, int style, int speed)
+    {
+        if (id < 0 || entries[id] != 0)
+        {
+            return;
+        }
+
+        int ticks = speed > 0 ? Math.min(speed, SPEED_MASK) : DEFAULT_SPEED;
+        entries[id] = (short) (ATTACK_BIT | style << STYLE_SHIFT | ticks << SPEED_SHIFT);
+    }
+}
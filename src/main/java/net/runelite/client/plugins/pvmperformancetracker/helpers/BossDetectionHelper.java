@@ -2,11 +2,22 @@ package net.runelite.client.plugins.pvmperformancetracker.helpers;
 
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.NPC;
+import net.runelite.client.plugins.pvmperformancetracker.enums.BossIds;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Classifies NPCs as bosses, raid bosses, Godwars bosses and by category
+ *
+ * The classification of an NPC id is computed the first time the id is seen and cached in an int-keyed table, so
+ * isBoss, isRaidBoss, isGodwarsBoss and getBossCategory are a single table lookup afterwards. Ids in BossIds.BOSS_IDS
+ * are seeded as bosses up front. On a miss, every name keyword is found in one pass of a precompiled Aho-Corasick
+ * matcher instead of a contains() scan per keyword. Only used on the client thread.
+ */
 @Slf4j
 public class BossDetectionHelper
 {
@@ -127,55 +138,75 @@ public class BossDetectionHelper
 
     // Boss combat level thresholds
     private static final int MIN_BOSS_COMBAT_LEVEL = 100;
+    private static final int MIN_BOSS_SIZE = 3;
+    private static final int HIGH_COMBAT_LEVEL = 300;
+
+    // Classification bits; the category index is stored above them
+    private static final int BOSS = 1;
+    private static final int RAID = 1 << 1;
+    private static final int GODWARS = 1 << 2;
+    private static final int NAME_CLASSIFIED = 1 << 3;
+    private static final int CATEGORY_SHIFT = 8;
+    private static final int NOT_CLASSIFIED = -1;
+
+    private static final String UNKNOWN_CATEGORY = "Unknown";
+    private static final String[] CATEGORIES = {
+            "Standard", "Boss", "Slayer Boss", "Dragon/Snake Boss", "Fight Caves/Inferno", "Godwars Dungeon", "Raid"
+    };
+    private static final int STANDARD = 0;
+    private static final int NAMED_BOSS = 1;
+    private static final int SLAYER_BOSS = 2;
+    private static final int DRAGON_SNAKE_BOSS = 3;
+    private static final int FIGHT_CAVES_INFERNO = 4;
+    private static final int GODWARS_DUNGEON = 5;
+    private static final int RAID_BOSS = 6;
+
+    // Keyword flags reported by the name matcher
+    private static final int KEYWORD_BOSS_NAME = 1;
+    private static final int KEYWORD_RAID = 1 << 1;
+    private static final int KEYWORD_GODWARS = 1 << 2;
+    private static final int KEYWORD_FIGHT_CAVES = 1 << 3;
+    private static final int KEYWORD_DRAGON_SNAKE = 1 << 4;
+    private static final int KEYWORD_SLAYER = 1 << 5;
+
+    private static final String[] RAID_KEYWORDS = {
+            // Chambers of Xeric
+            "Olm", "Tekton", "Vespula", "Vanguard", "Vasa", "Muttadile",
+            // Theatre of Blood
+            "Maiden", "Bloat", "Nylocas", "Sotetseg", "Xarpus", "Verzik",
+            // Tombs of Amascut
+            "Apmeken", "Ba-Ba", "Kephri", "Akkha", "Zebak", "Warden"
+    };
+    private static final String[] GODWARS_KEYWORDS = {"Graardor", "Kree'arra", "Zilyana", "K'ril"};
+    private static final String[] FIGHT_CAVES_KEYWORDS = {"TzTok-Jad", "TzKal-Zuk"};
+    private static final String[] DRAGON_SNAKE_KEYWORDS = {"Zulrah", "Vorkath"};
+    private static final String[] SLAYER_KEYWORDS = {
+            "Cerberus", "Kraken", "Thermonuclear", "Abyssal Sire", "Grotesque", "Alchemical Hydra"
+    };
+
+    // NPC id -> classification bits and category
+    private final IntIntMap classifications = new IntIntMap(256, NOT_CLASSIFIED);
+
+    private MultiPatternMatcher keywordMatcher;
+
+    // Boss names joined by a separator, to check whether a name is part of any boss name in one search
+    private String joinedBossNames;
+
+    public BossDetectionHelper()
+    {
+        rebuildMatchers();
+    }
 
     /**
      * Check if an NPC is considered a boss
      */
     public boolean isBoss(NPC npc)
     {
-        if (npc == null)
-        {
-            return false;
-        }
-
-        String npcName = npc.getName();
-        if (npcName == null)
+        if (npc == null || npc.getName() == null)
         {
             return false;
         }
-
-        // Check if NPC name matches known bosses
-        if (BOSS_NAMES.contains(npcName))
-        {
-            return true;
-        }
-
-        // Check for partial matches (some bosses have variations)
-        for (String bossName : BOSS_NAMES)
-        {
-            if (npcName.contains(bossName) || bossName.contains(npcName))
-            {
-                return true;
-            }
-        }
-
-        // Check combat level and size as fallback
-        int combatLevel = npc.getCombatLevel();
-        int size = npc.getComposition().getSize();
-
-        // High combat level + large size often indicates a boss
-        if (combatLevel >= MIN_BOSS_COMBAT_LEVEL && size >= 3)
-        {
-            return true;
-        }
-
-        // Very high combat level alone can indicate a boss
-        if (combatLevel >= 300)
-        {
-            return true;
-        }
-
-        return false;
+        return (classify(npc) & BOSS) != 0;
     }
 
     /**
@@ -187,31 +218,7 @@ public class BossDetectionHelper
         {
             return false;
         }
-
-        String name = npc.getName();
-
-        // Chambers of Xeric
-        if (name.contains("Olm") || name.contains("Tekton") || name.contains("Vespula") ||
-                name.contains("Vanguard") || name.contains("Vasa") || name.contains("Muttadile"))
-        {
-            return true;
-        }
-
-        // Theatre of Blood
-        if (name.contains("Maiden") || name.contains("Bloat") || name.contains("Nylocas") ||
-                name.contains("Sotetseg") || name.contains("Xarpus") || name.contains("Verzik"))
-        {
-            return true;
-        }
-
-        // Tombs of Amascut
-        if (name.contains("Apmeken") || name.contains("Ba-Ba") || name.contains("Kephri") ||
-                name.contains("Akkha") || name.contains("Zebak") || name.contains("Warden"))
-        {
-            return true;
-        }
-
-        return false;
+        return (classify(npc) & RAID) != 0;
     }
 
     /**
@@ -223,10 +230,7 @@ public class BossDetectionHelper
         {
             return false;
         }
-
-        String name = npc.getName();
-        return name.contains("Graardor") || name.contains("Kree'arra") ||
-                name.contains("Zilyana") || name.contains("K'ril") || name.equals("Nex");
+        return (classify(npc) & GODWARS) != 0;
     }
 
     /**
@@ -236,55 +240,146 @@ public class BossDetectionHelper
     {
         if (npc == null || npc.getName() == null)
         {
-            return "Unknown";
+            return UNKNOWN_CATEGORY;
+        }
+        return CATEGORIES[classify(npc) >>> CATEGORY_SHIFT];
+    }
+
+    /**
+     * Add a custom boss name to the detection list
+     */
+    public void addCustomBoss(String bossName)
+    {
+        if (bossName != null && !bossName.isEmpty())
+        {
+            BOSS_NAMES.add(bossName);
+            rebuildMatchers();
+            log.debug("Added custom boss: {}", bossName);
         }
+    }
 
-        if (isRaidBoss(npc))
+    /**
+     * Cached classification of the NPC's id, computed from its name and stats on the first lookup
+     */
+    private int classify(NPC npc)
+    {
+        int npcId = npc.getId();
+        int cached = classifications.get(npcId);
+        if (cached != NOT_CLASSIFIED && (cached & NAME_CLASSIFIED) != 0)
         {
-            return "Raid";
+            return cached;
         }
 
-        if (isGodwarsBoss(npc))
+        // Seeded boss ids keep their boss bit whatever the name says
+        int classification = classifyByName(npc) | NAME_CLASSIFIED;
+        if (cached != NOT_CLASSIFIED)
         {
-            return "Godwars Dungeon";
+            classification |= cached & BOSS;
         }
 
+        classifications.put(npcId, classification);
+        return classification;
+    }
+
+    private int classifyByName(NPC npc)
+    {
         String name = npc.getName();
+        int keywords = keywordMatcher.match(name);
+
+        int classification = 0;
 
-        if (name.contains("TzTok-Jad") || name.contains("TzKal-Zuk"))
+        // Known boss name, a variation containing one, or part of one
+        if ((keywords & KEYWORD_BOSS_NAME) != 0 || joinedBossNames.contains(name) || isBossByStats(npc))
         {
-            return "Fight Caves/Inferno";
+            classification |= BOSS;
         }
 
-        if (name.contains("Zulrah") || name.contains("Vorkath"))
+        if ((keywords & KEYWORD_RAID) != 0)
         {
-            return "Dragon/Snake Boss";
+            classification |= RAID;
         }
-
-        if (name.contains("Cerberus") || name.contains("Kraken") ||
-                name.contains("Thermonuclear") || name.contains("Abyssal Sire") ||
-                name.contains("Grotesque") || name.contains("Alchemical Hydra"))
+        if ((keywords & KEYWORD_GODWARS) != 0 || name.equals("Nex"))
         {
-            return "Slayer Boss";
+            classification |= GODWARS;
         }
 
-        if (BOSS_NAMES.contains(name))
+        int category;
+        if ((classification & RAID) != 0)
+        {
+            category = RAID_BOSS;
+        }
+        else if ((classification & GODWARS) != 0)
+        {
+            category = GODWARS_DUNGEON;
+        }
+        else if ((keywords & KEYWORD_FIGHT_CAVES) != 0)
+        {
+            category = FIGHT_CAVES_INFERNO;
+        }
+        else if ((keywords & KEYWORD_DRAGON_SNAKE) != 0)
+        {
+            category = DRAGON_SNAKE_BOSS;
+        }
+        else if ((keywords & KEYWORD_SLAYER) != 0)
+        {
+            category = SLAYER_BOSS;
+        }
+        else if (BOSS_NAMES.contains(name))
+        {
+            category = NAMED_BOSS;
+        }
+        else
         {
-            return "Boss";
+            category = STANDARD;
         }
 
-        return "Standard";
+        return classification | category << CATEGORY_SHIFT;
     }
 
     /**
-     * Add a custom boss name to the detection list
+     * Fallback for unlisted bosses: high combat level and large size, or very high combat level
      */
-    public void addCustomBoss(String bossName)
+    private static boolean isBossByStats(NPC npc)
     {
-        if (bossName != null && !bossName.isEmpty())
+        int combatLevel = npc.getCombatLevel();
+        if (combatLevel >= HIGH_COMBAT_LEVEL)
         {
-            BOSS_NAMES.add(bossName);
-            log.debug("Added custom boss: {}", bossName);
+            return true;
+        }
+        return combatLevel >= MIN_BOSS_COMBAT_LEVEL && npc.getComposition().getSize() >= MIN_BOSS_SIZE;
+    }
+
+    /**
+     * Compile the name keywords and reset the cache to the seeded boss ids
+     */
+    private void rebuildMatchers()
+    {
+        Map<String, Integer> keywords = new HashMap<>();
+        for (String bossName : BOSS_NAMES)
+        {
+            keywords.merge(bossName, KEYWORD_BOSS_NAME, (a, b) -> a | b);
+        }
+        addKeywords(keywords, RAID_KEYWORDS, KEYWORD_RAID);
+        addKeywords(keywords, GODWARS_KEYWORDS, KEYWORD_GODWARS);
+        addKeywords(keywords, FIGHT_CAVES_KEYWORDS, KEYWORD_FIGHT_CAVES);
+        addKeywords(keywords, DRAGON_SNAKE_KEYWORDS, KEYWORD_DRAGON_SNAKE);
+        addKeywords(keywords, SLAYER_KEYWORDS, KEYWORD_SLAYER);
+
+        keywordMatcher = new MultiPatternMatcher(keywords);
+        joinedBossNames = String.join("\0", BOSS_NAMES);
+
+        classifications.clear();
+        for (int bossId : BossIds.BOSS_IDS)
+        {
+            classifications.put(bossId, BOSS);
+        }
+    }
+
+    private static void addKeywords(Map<String, Integer> keywords, String[] names, int flag)
+    {
+        for (String name : names)
+        {
+            keywords.merge(name, flag, (a, b) -> a | b);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.client.plugins.pvmperformancetracker.models.BossPlayerStats;
+import net.runelite.client.plugins.pvmperformancetracker.models.BossStatsSummary;
+import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-boss, per-player statistics over every completed fight, for personal bests and percentiles
+ *
+ * Fights are added once as they complete, so lookups never rescan history. Saved fights from earlier sessions are
+ * indexed per boss in the background, the first time that boss is fought, and merged in (see merge()).
+ * Only used on the client thread.
+ */
+public class BossStatsIndex
+{
+    // Boss NPC id -> player name -> stats
+    private final Map<Integer, Map<String, BossPlayerStats>> bosses = new HashMap<>();
+
+    // Bumped on every change, so callers can tell when a summary they took is stale
+    private long version;
+
+    /**
+     * Add a completed fight; fights without a duration are skipped
+     */
+    public void addFight(Fight fight)
+    {
+        int durationTicks = fight.getDurationTicks();
+        if (durationTicks <= 0)
+        {
+            return;
+        }
+
+        Map<String, BossPlayerStats> players = bosses.computeIfAbsent(fight.getBossNpcId(), id -> new HashMap<>());
+        for (int i = 0; i < fight.getPlayerCount(); i++)
+        {
+            PlayerStats stats = fight.getPlayer(i);
+            players.computeIfAbsent(stats.getPlayerName(), BossPlayerStats::new)
+                    .record(stats.calculateDPS(durationTicks), durationTicks, stats.calculateTicksLost(fight.getEndTick(), false));
+        }
+        version++;
+    }
+
+    /**
+     * Add everything indexed in another instance
+     */
+    public void merge(BossStatsIndex other)
+    {
+        for (Map.Entry<Integer, Map<String, BossPlayerStats>> boss : other.bosses.entrySet())
+        {
+            Map<String, BossPlayerStats> players = bosses.computeIfAbsent(boss.getKey(), id -> new HashMap<>());
+            for (BossPlayerStats stats : boss.getValue().values())
+            {
+                players.computeIfAbsent(stats.getPlayerName(), BossPlayerStats::new).merge(stats);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * A player's stats at a boss, or null if they have no recorded fights there
+     */
+    public BossPlayerStats get(int bossNpcId, String playerName)
+    {
+        Map<String, BossPlayerStats> players = bosses.get(bossNpcId);
+        return players == null ? null : players.get(playerName);
+    }
+
+    /**
+     * Summary of a player's fights at a boss, or null if they have none recorded there
+     */
+    public BossStatsSummary summarize(int bossNpcId, String playerName)
+    {
+        BossPlayerStats stats = get(bossNpcId, playerName);
+        return stats == null || stats.getCount() == 0 ? null : stats.summarize();
+    }
+
+    /**
+     * Every player with recorded fights at a boss
+     */
+    public Map<String, BossPlayerStats> getPlayers(int bossNpcId)
+    {
+        Map<String, BossPlayerStats> players = bosses.get(bossNpcId);
+        return players == null ? Collections.emptyMap() : Collections.unmodifiableMap(players);
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    public void clear()
+    {
+        bosses.clear();
+        version++;
+    }
+}
@@ -0,0 +1,132 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.Getter;
+
+/**
+ * Direct-mapped memo of player vs NPC calculations
+ *
+ * Entries are keyed by (NPC id, attack style, equipment snapshot version, combat state version). Gear, prayer and
+ * boost changes produce new snapshot versions, so stale entries simply stop matching and get overwritten - there is
+ * nothing to expire. Only used from the client thread.
+ */
+public class CombatCalculationCache
+{
+    // Attack style slots; every other style string is calculated like "melee"
+    static final int STYLE_STAB = 0;
+    static final int STYLE_SLASH = 1;
+    static final int STYLE_CRUSH = 2;
+    static final int STYLE_RANGED = 3;
+    static final int STYLE_MAGIC = 4;
+    static final int STYLE_MELEE = 5;
+    static final int STYLE_COUNT = 6;
+
+    // A raid only has a handful of live (NPC, style) pairs
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private final int[] npcIds = new int[SLOTS];
+    private final int[] styles = new int[SLOTS];
+    private final int[] equipmentVersions = new int[SLOTS];
+    private final int[] stateVersions = new int[SLOTS];
+
+    final int[] attackRolls = new int[SLOTS];
+    final int[] defenceRolls = new int[SLOTS];
+    final double[] hitChances = new double[SLOTS];
+    final int[] maxHits = new int[SLOTS];
+    final double[] expectedDamages = new double[SLOTS];
+
+    @Getter
+    private long hits;
+
+    @Getter
+    private long misses;
+
+    public CombatCalculationCache()
+    {
+        clear();
+    }
+
+    /**
+     * Map an attack style string to its slot, treating null and unknown styles as melee
+     */
+    static int styleIndex(String attackStyle)
+    {
+        if (attackStyle == null)
+        {
+            return STYLE_MELEE;
+        }
+
+        switch (attackStyle.toLowerCase())
+        {
+            case "stab":
+                return STYLE_STAB;
+            case "slash":
+                return STYLE_SLASH;
+            case "crush":
+                return STYLE_CRUSH;
+            case "ranged":
+                return STYLE_RANGED;
+            case "magic":
+                return STYLE_MAGIC;
+            default:
+                return STYLE_MELEE;
+        }
+    }
+
+    /**
+     * Find the slot holding the given key
+     * @return the slot, or -1 on a miss
+     */
+    int find(int npcId, int style, int equipmentVersion, int stateVersion)
+    {
+        int slot = slot(npcId, style);
+        if (npcIds[slot] == npcId && styles[slot] == style
+                && equipmentVersions[slot] == equipmentVersion && stateVersions[slot] == stateVersion)
+        {
+            hits++;
+            return slot;
+        }
+
+        misses++;
+        return -1;
+    }
+
+    /**
+     * Claim the slot for the given key; the caller fills in the result arrays
+     */
+    int claim(int npcId, int style, int equipmentVersion, int stateVersion)
+    {
+        int slot = slot(npcId, style);
+        npcIds[slot] = npcId;
+        styles[slot] = style;
+        equipmentVersions[slot] = equipmentVersion;
+        stateVersions[slot] = stateVersion;
+        return slot;
+    }
+
+    public void clear()
+    {
+        for (int i = 0; i < SLOTS; i++)
+        {
+            npcIds[i] = Integer.MIN_VALUE;
+            styles[i] = -1;
+        }
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Share of lookups answered from the cache, or 0 before the first lookup
+     */
+    public double getHitRate()
+    {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private static int slot(int npcId, int style)
+    {
+        // Fibonacci hashing, keeping the top bits
+        return ((npcId * STYLE_COUNT + style) * 0x9E3779B9) >>> (Integer.SIZE - SLOT_BITS);
+    }
+}
@@ -4,17 +4,34 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
-import net.runelite.client.game.ItemStats;
+
 /**
  * OSRS combat formula calculations
  * Based on OSRS Wiki formulas
+ *
+ * Prayers and levels come from the CombatStateSnapshot passed in and gear from the equipment snapshot,
+ * so the calculations themselves never touch the client
  */
 @Slf4j
 public class CombatFormulas
 {
+    private static final int HIT_DISTRIBUTION_SLOT_BITS = 5;
+    private static final int HIT_DISTRIBUTION_SLOTS = 1 << HIT_DISTRIBUTION_SLOT_BITS;
+
     private final Client client;
     private final ItemManager itemManager;
 
+    // Rebuilt on equipment changes only; read by every formula below
+    private volatile EquipmentBonusSnapshot equipmentBonuses = EquipmentBonusSnapshot.EMPTY;
+
+    // Results per (NPC, style, equipment version, combat state version)
+    private final CombatCalculationCache calculationCache = new CombatCalculationCache();
+
+    // NPC damage distributions per (NPC, protection prayer, player defence roll), direct-mapped like the calculation
+    // cache so lookups on every hit taken don't box the key; a colliding key just overwrites the slot
+    private final long[] hitDistributionKeys = new long[HIT_DISTRIBUTION_SLOTS];
+    private final HitDistribution[] hitDistributions = new HitDistribution[HIT_DISTRIBUTION_SLOTS];
+
     public CombatFormulas(Client client, ItemManager itemManager)
     {
         this.client = client;
@@ -25,32 +42,62 @@ public class CombatFormulas
      * Calculate expected damage dealt by player to NPC
      * Expected Damage = (Max Hit / 2) * Accuracy
      */
-    public double calculateExpectedDamage(NpcCombatStats npcStats, String attackStyle)
+    public double calculateExpectedDamage(NpcCombatStats npcStats, String attackStyle, CombatStateSnapshot state)
     {
         if (npcStats == null)
         {
             return 0.0;
         }
 
-        Player localPlayer = client.getLocalPlayer();
-        if (localPlayer == null)
+        if (!state.isLocalPlayerPresent())
         {
             return 0.0;
         }
 
-        int maxHit = calculateMaxHit(attackStyle);
-        double accuracy = calculateAccuracy(npcStats, attackStyle);
+        return calculationCache.expectedDamages[lookup(npcStats, attackStyle, state)];
+    }
+
+    /**
+     * Find or calculate the cached results for this NPC, style, gear and combat state
+     * Must be called on the client thread
+     */
+    private int lookup(NpcCombatStats npcStats, String attackStyle, CombatStateSnapshot state)
+    {
+        int npcId = npcStats.getId();
+        int style = CombatCalculationCache.styleIndex(attackStyle);
+        int equipmentVersion = equipmentBonuses.getVersion();
+
+        int slot = calculationCache.find(npcId, style, equipmentVersion, state.getVersion());
+        if (slot >= 0)
+        {
+            return slot;
+        }
+
+        int playerAttackRoll = calculatePlayerAttackRoll(attackStyle, state);
+        int npcDefenceRoll = calculateNpcDefenceRoll(npcStats, attackStyle);
+        double accuracy = calculateHitChance(playerAttackRoll, npcDefenceRoll);
+        int maxHit = calculateMaxHit(attackStyle, state);
+
+        slot = calculationCache.claim(npcId, style, equipmentVersion, state.getVersion());
+        calculationCache.attackRolls[slot] = playerAttackRoll;
+        calculationCache.defenceRolls[slot] = npcDefenceRoll;
+        calculationCache.hitChances[slot] = accuracy;
+        calculationCache.maxHits[slot] = maxHit;
+        calculationCache.expectedDamages[slot] = (maxHit / 2.0) * accuracy;
+        return slot;
+    }
 
-        return (maxHit / 2.0) * accuracy;
+    public CombatCalculationCache getCalculationCache()
+    {
+        return calculationCache;
     }
 
     /**
      * Calculate player's max hit
      */
-    public int calculateMaxHit(String attackStyle)
+    public int calculateMaxHit(String attackStyle, CombatStateSnapshot state)
     {
-        Player localPlayer = client.getLocalPlayer();
-        if (localPlayer == null)
+        if (!state.isLocalPlayerPresent())
         {
             return 0;
         }
@@ -64,11 +111,11 @@ public class CombatFormulas
         switch (attackStyle.toLowerCase())
         {
             case "magic":
-                return calculateMagicMaxHit();
+                return calculateMagicMaxHit(state);
             case "ranged":
-                return calculateRangedMaxHit();
+                return calculateRangedMaxHit(state);
             default: // melee (stab/slash/crush)
-                return calculateMeleeMaxHit();
+                return calculateMeleeMaxHit(state);
         }
     }
 
@@ -76,16 +123,17 @@ public class CombatFormulas
      * Calculate melee max hit
      * Formula: floor(0.5 + Strength Level * (Strength Bonus + 64) / 640)
      */
-    private int calculateMeleeMaxHit()
+    private int calculateMeleeMaxHit(CombatStateSnapshot state)
     {
-        int strengthLevel = client.getBoostedSkillLevel(Skill.STRENGTH);
-        int strengthBonus = getPlayerStrengthBonus();
+        int strengthLevel = state.getStrengthLevel();
+        EquipmentBonusSnapshot equipment = equipmentBonuses;
+        int strengthBonus = equipment.getStrength();
 
         // Prayer multipliers
-        double prayerMultiplier = getStrengthPrayerMultiplier();
+        double prayerMultiplier = getStrengthPrayerMultiplier(state);
 
         // Void multiplier
-        double voidMultiplier = hasVoidMelee() ? 1.10 : 1.0;
+        double voidMultiplier = equipment.isVoidMelee() ? 1.10 : 1.0;
 
         double effectiveStrength = Math.floor(strengthLevel * prayerMultiplier * voidMultiplier) + 8 + 3; // +3 for aggressive stance
 
@@ -95,16 +143,17 @@ public class CombatFormulas
     /**
      * Calculate ranged max hit
      */
-    private int calculateRangedMaxHit()
+    private int calculateRangedMaxHit(CombatStateSnapshot state)
     {
-        int rangedLevel = client.getBoostedSkillLevel(Skill.RANGED);
-        int rangedStrength = getPlayerRangedStrength();
+        int rangedLevel = state.getRangedLevel();
+        EquipmentBonusSnapshot equipment = equipmentBonuses;
+        int rangedStrength = equipment.getRangedStrength();
 
         // Prayer multipliers
-        double prayerMultiplier = getRangedPrayerMultiplier();
+        double prayerMultiplier = getRangedPrayerMultiplier(state);
 
         // Void multiplier
-        double voidMultiplier = hasVoidRanged() ? 1.10 : 1.0;
+        double voidMultiplier = equipment.isVoidRanged() ? 1.10 : 1.0;
 
         double effectiveRanged = Math.floor(rangedLevel * prayerMultiplier * voidMultiplier) + 8 + 3;
 
@@ -114,13 +163,13 @@ public class CombatFormulas
     /**
      * Calculate magic max hit
      */
-    private int calculateMagicMaxHit()
+    private int calculateMagicMaxHit(CombatStateSnapshot state)
     {
-        int magicLevel = client.getBoostedSkillLevel(Skill.MAGIC);
-        int magicDamageBonus = getPlayerMagicDamage();
+        int magicLevel = state.getMagicLevel();
+        int magicDamageBonus = equipmentBonuses.getMagicDamage();
 
         // Prayer multipliers
-        double prayerMultiplier = getMagicPrayerMultiplier();
+        double prayerMultiplier = getMagicPrayerMultiplier(state);
 
         // Base magic damage (depends on spell - using average)
         int baseSpellDamage = 20; // Placeholder - could detect actual spell
@@ -134,36 +183,41 @@ public class CombatFormulas
     /**
      * Calculate player accuracy against NPC
      */
-    public double calculateAccuracy(NpcCombatStats npcStats, String attackStyle)
+    public double calculateAccuracy(NpcCombatStats npcStats, String attackStyle, CombatStateSnapshot state)
     {
         if (npcStats == null)
         {
             return 0.5;
         }
 
-        int playerAttackRoll = calculatePlayerAttackRoll(attackStyle);
-        int npcDefenceRoll = calculateNpcDefenceRoll(npcStats, attackStyle);
+        return calculationCache.hitChances[lookup(npcStats, attackStyle, state)];
+    }
 
-        // Standard accuracy formula
-        if (playerAttackRoll > npcDefenceRoll)
+    /**
+     * Standard accuracy formula
+     */
+    private static double calculateHitChance(int attackRoll, int defenceRoll)
+    {
+        if (attackRoll > defenceRoll)
         {
-            return 1.0 - (npcDefenceRoll + 2.0) / (2.0 * (playerAttackRoll + 1.0));
+            return 1.0 - (defenceRoll + 2.0) / (2.0 * (attackRoll + 1.0));
         }
         else
         {
-            return playerAttackRoll / (2.0 * (npcDefenceRoll + 1.0));
+            return attackRoll / (2.0 * (defenceRoll + 1.0));
         }
     }
 
     /**
      * Calculate player's attack roll
      */
-    private int calculatePlayerAttackRoll(String attackStyle)
+    private int calculatePlayerAttackRoll(String attackStyle, CombatStateSnapshot state)
     {
         int attackBonus = 0;
         int attackLevel = 0;
         double prayerMultiplier = 1.0;
         double voidMultiplier = 1.0;
+        EquipmentBonusSnapshot equipment = equipmentBonuses;
 
         if (attackStyle == null)
         {
@@ -173,21 +227,21 @@ public class CombatFormulas
         switch (attackStyle.toLowerCase())
         {
             case "magic":
-                attackLevel = client.getBoostedSkillLevel(Skill.MAGIC);
-                attackBonus = getPlayerMagicAttack();
-                prayerMultiplier = getMagicPrayerMultiplier();
+                attackLevel = state.getMagicLevel();
+                attackBonus = equipment.getMagicAttack();
+                prayerMultiplier = getMagicPrayerMultiplier(state);
                 break;
             case "ranged":
-                attackLevel = client.getBoostedSkillLevel(Skill.RANGED);
-                attackBonus = getPlayerRangedAttack();
-                prayerMultiplier = getRangedPrayerMultiplier();
-                voidMultiplier = hasVoidRanged() ? 1.10 : 1.0;
+                attackLevel = state.getRangedLevel();
+                attackBonus = equipment.getRangedAttack();
+                prayerMultiplier = getRangedPrayerMultiplier(state);
+                voidMultiplier = equipment.isVoidRanged() ? 1.10 : 1.0;
                 break;
             default: // melee
-                attackLevel = client.getBoostedSkillLevel(Skill.ATTACK);
-                attackBonus = getPlayerMeleeAttack(attackStyle);
-                prayerMultiplier = getAttackPrayerMultiplier();
-                voidMultiplier = hasVoidMelee() ? 1.10 : 1.0;
+                attackLevel = state.getAttackLevel();
+                attackBonus = equipment.getMeleeAttack(attackStyle);
+                prayerMultiplier = getAttackPrayerMultiplier(state);
+                voidMultiplier = equipment.isVoidMelee() ? 1.10 : 1.0;
                 break;
         }
 
@@ -208,333 +262,50 @@ public class CombatFormulas
     }
 
     /**
-     * Get player's strength bonus from equipment
-     */
-    private int getPlayerStrengthBonus()
-    {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                ItemStats itemStats = itemManager.getItemStats(item.getId());
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    totalBonus += itemStats.getEquipment().getStr();
-                }
-            }
-        }
-        return totalBonus;
-    }
-
-    /**
-     * Get player's ranged strength from equipment
-     */
-    private int getPlayerRangedStrength()
-    {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                ItemStats itemStats = itemManager.getItemStats(item.getId());
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    totalBonus += itemStats.getEquipment().getRstr();
-                }
-            }
-        }
-        return totalBonus;
-    }
-
-    /**
-     * Get player's magic damage bonus from equipment
+     * Rebuild the equipment bonus snapshot from the player's worn items
+     * Called on the client thread when the equipment container changes, and once at startup
      */
-    private int getPlayerMagicDamage()
+    public void updateEquipment(ItemContainer equipment)
     {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                ItemStats itemStats = itemManager.getItemStats(item.getId());
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    totalBonus += itemStats.getEquipment().getMdmg();
-                }
-            }
-        }
-        return totalBonus;
+        equipmentBonuses = EquipmentBonusSnapshot.build(equipment != null ? equipment.getItems() : null,
+                itemManager, equipmentBonuses.getVersion() + 1);
     }
 
     /**
-     * Get player's melee attack bonus
+     * Rebuild the equipment bonus snapshot from the client's current equipment
      */
-    private int getPlayerMeleeAttack(String style)
+    public void updateEquipment()
     {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                ItemStats itemStats = itemManager.getItemStats(item.getId());
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    // Get appropriate attack bonus based on style
-                    switch (style.toLowerCase())
-                    {
-                        case "stab":
-                            totalBonus += itemStats.getEquipment().getAstab();
-                            break;
-                        case "slash":
-                            totalBonus += itemStats.getEquipment().getAslash();
-                            break;
-                        case "crush":
-                            totalBonus += itemStats.getEquipment().getAcrush();
-                            break;
-                        default:
-                            totalBonus += itemStats.getEquipment().getAslash(); // Default slash
-                            break;
-                    }
-                }
-            }
-        }
-        return totalBonus;
+        updateEquipment(client.getItemContainer(InventoryID.EQUIPMENT));
     }
 
-    /**
-     * Get player's ranged attack bonus
-     */
-    private int getPlayerRangedAttack()
+    public EquipmentBonusSnapshot getEquipmentBonuses()
     {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                ItemStats itemStats = itemManager.getItemStats(item.getId());
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    totalBonus += itemStats.getEquipment().getArange();
-                }
-            }
-        }
-        return totalBonus;
-    }
-
-    /**
-     * Get player's magic attack bonus
-     */
-    private int getPlayerMagicAttack()
-    {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                net.runelite.client.game.ItemStats itemStats = itemManager.getItemStats(item.getId());
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    totalBonus += itemStats.getEquipment().getAmagic();
-                }
-            }
-        }
-        return totalBonus;
-    }
-
-    /**
-     * Get player's defence bonus against attack type
-     */
-    private int getPlayerDefenceBonus(String attackType)
-    {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return 0;
-        }
-
-        int totalBonus = 0;
-        for (Item item : equipment.getItems())
-        {
-            if (item.getId() > 0)
-            {
-                net.runelite.client.game.ItemStats itemStats = itemManager.getItemStats(item.getId());
-                //ItemStats itemStats = itemManager.getItemStats(item.getId(), );
-                if (itemStats != null && itemStats.getEquipment() != null)
-                {
-                    switch (attackType.toLowerCase())
-                    {
-                        case "stab":
-                            totalBonus += itemStats.getEquipment().getDstab();
-                            break;
-                        case "slash":
-                            totalBonus += itemStats.getEquipment().getDslash();
-                            break;
-                        case "crush":
-                            totalBonus += itemStats.getEquipment().getDcrush();
-                            break;
-                        case "magic":
-                            totalBonus += itemStats.getEquipment().getDmagic();
-                            break;
-                        case "ranged":
-                            totalBonus += itemStats.getEquipment().getDrange();
-                            break;
-                        default:
-                            totalBonus += itemStats.getEquipment().getDslash();
-                            break;
-                    }
-                }
-            }
-        }
-        return totalBonus;
-    }
-
-    /**
-     * Check if player has void melee set
-     */
-    private boolean hasVoidMelee()
-    {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return false;
-        }
-
-        boolean hasHelm = false;
-        boolean hasTop = false;
-        boolean hasBottom = false;
-        boolean hasGloves = false;
-
-        for (Item item : equipment.getItems())
-        {
-            int id = item.getId();
-            // Void melee helm
-            if (id == 11665)
-            {
-                hasHelm = true;
-            }
-            // Void knight top
-            if (id == 8839 || id == 10611 || id == 13072)
-            {
-                hasTop = true;
-            }
-            // Void knight robe
-            if (id == 8840 || id == 10612 || id == 13073)
-            {
-                hasBottom = true;
-            }
-            // Void knight gloves
-            if (id == 8842)
-            {
-                hasGloves = true;
-            }
-        }
-
-        return hasHelm && hasTop && hasBottom && hasGloves;
-    }
-
-    /**
-     * Check if player has void ranged set
-     */
-    private boolean hasVoidRanged()
-    {
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return false;
-        }
-
-        boolean hasHelm = false;
-        boolean hasTop = false;
-        boolean hasBottom = false;
-        boolean hasGloves = false;
-
-        for (Item item : equipment.getItems())
-        {
-            int id = item.getId();
-            // Void ranger helm
-            if (id == 11664)
-            {
-                hasHelm = true;
-            }
-            // Void knight top
-            if (id == 8839 || id == 10611 || id == 13072)
-            {
-                hasTop = true;
-            }
-            // Void knight robe
-            if (id == 8840 || id == 10612 || id == 13073)
-            {
-                hasBottom = true;
-            }
-            // Void knight gloves
-            if (id == 8842)
-            {
-                hasGloves = true;
-            }
-        }
-
-        return hasHelm && hasTop && hasBottom && hasGloves;
+        return equipmentBonuses;
     }
 
     /**
      * Get strength prayer multiplier
      */
-    private double getStrengthPrayerMultiplier()
+    private static double getStrengthPrayerMultiplier(CombatStateSnapshot state)
     {
-        if (client.isPrayerActive(Prayer.BURST_OF_STRENGTH))
+        if (state.isPrayerActive(Prayer.BURST_OF_STRENGTH))
         {
             return 1.05;
         }
-        if (client.isPrayerActive(Prayer.SUPERHUMAN_STRENGTH))
+        if (state.isPrayerActive(Prayer.SUPERHUMAN_STRENGTH))
         {
             return 1.10;
         }
-        if (client.isPrayerActive(Prayer.ULTIMATE_STRENGTH))
+        if (state.isPrayerActive(Prayer.ULTIMATE_STRENGTH))
         {
             return 1.15;
         }
-        if (client.isPrayerActive(Prayer.CHIVALRY))
+        if (state.isPrayerActive(Prayer.CHIVALRY))
         {
             return 1.18;
         }
-        if (client.isPrayerActive(Prayer.PIETY))
+        if (state.isPrayerActive(Prayer.PIETY))
         {
             return 1.23;
         }
@@ -544,25 +315,25 @@ public class CombatFormulas
     /**
      * Get attack prayer multiplier
      */
-    private double getAttackPrayerMultiplier()
+    private static double getAttackPrayerMultiplier(CombatStateSnapshot state)
     {
-        if (client.isPrayerActive(Prayer.CLARITY_OF_THOUGHT))
+        if (state.isPrayerActive(Prayer.CLARITY_OF_THOUGHT))
         {
             return 1.05;
         }
-        if (client.isPrayerActive(Prayer.IMPROVED_REFLEXES))
+        if (state.isPrayerActive(Prayer.IMPROVED_REFLEXES))
         {
             return 1.10;
         }
-        if (client.isPrayerActive(Prayer.INCREDIBLE_REFLEXES))
+        if (state.isPrayerActive(Prayer.INCREDIBLE_REFLEXES))
         {
             return 1.15;
         }
-        if (client.isPrayerActive(Prayer.CHIVALRY))
+        if (state.isPrayerActive(Prayer.CHIVALRY))
         {
             return 1.15;
         }
-        if (client.isPrayerActive(Prayer.PIETY))
+        if (state.isPrayerActive(Prayer.PIETY))
         {
             return 1.20;
         }
@@ -572,21 +343,21 @@ public class CombatFormulas
     /**
      * Get ranged prayer multiplier (attack and strength)
      */
-    private double getRangedPrayerMultiplier()
+    private static double getRangedPrayerMultiplier(CombatStateSnapshot state)
     {
-        if (client.isPrayerActive(Prayer.SHARP_EYE))
+        if (state.isPrayerActive(Prayer.SHARP_EYE))
         {
             return 1.05;
         }
-        if (client.isPrayerActive(Prayer.HAWK_EYE))
+        if (state.isPrayerActive(Prayer.HAWK_EYE))
         {
             return 1.10;
         }
-        if (client.isPrayerActive(Prayer.EAGLE_EYE))
+        if (state.isPrayerActive(Prayer.EAGLE_EYE))
         {
             return 1.15;
         }
-        if (client.isPrayerActive(Prayer.RIGOUR))
+        if (state.isPrayerActive(Prayer.RIGOUR))
         {
             return 1.23;
         }
@@ -596,94 +367,116 @@ public class CombatFormulas
     /**
      * Get magic prayer multiplier
      */
-    private double getMagicPrayerMultiplier()
+    private static double getMagicPrayerMultiplier(CombatStateSnapshot state)
     {
-        if (client.isPrayerActive(Prayer.MYSTIC_WILL))
+        if (state.isPrayerActive(Prayer.MYSTIC_WILL))
         {
             return 1.05;
         }
-        if (client.isPrayerActive(Prayer.MYSTIC_LORE))
+        if (state.isPrayerActive(Prayer.MYSTIC_LORE))
         {
             return 1.10;
         }
-        if (client.isPrayerActive(Prayer.MYSTIC_MIGHT))
+        if (state.isPrayerActive(Prayer.MYSTIC_MIGHT))
         {
             return 1.15;
         }
-        if (client.isPrayerActive(Prayer.AUGURY))
+        if (state.isPrayerActive(Prayer.AUGURY))
         {
             return 1.25;
         }
         return 1.0;
     }
 
+    // Bits of the protection prayer mask returned by CombatStateSnapshot.getProtectionPrayers()
+    public static final int PROTECT_FROM_MELEE = 1;
+    public static final int PROTECT_FROM_MISSILES = 1 << 1;
+    public static final int PROTECT_FROM_MAGIC = 1 << 2;
+
     /**
-     * Calculate probability of death from a hit
-     * Given current HP and NPC attack
+     * Check if a protection prayer mask covers the NPC's primary attack type
      */
-    public double calculateDeathProbability(int currentHp, NpcCombatStats npcStats, boolean isPrayerActive)
+    public static boolean isProtectedFrom(NpcCombatStats npcStats, int protectionPrayers)
     {
-        if (currentHp <= 0 || npcStats == null)
+        String attackType = npcStats.getPrimaryAttackType();
+        if (attackType == null)
         {
-            return 0.0;
+            return false;
         }
 
-        // Get NPC's max hit
-        Integer npcMaxHit = npcStats.getMaxHit();
-        if (npcMaxHit == null || npcMaxHit == 0)
+        switch (attackType.toLowerCase())
         {
-            return 0.0;
+            case "melee":
+                return (protectionPrayers & PROTECT_FROM_MELEE) != 0;
+            case "ranged":
+                return (protectionPrayers & PROTECT_FROM_MISSILES) != 0;
+            case "magic":
+                return (protectionPrayers & PROTECT_FROM_MAGIC) != 0;
+            default:
+                return false;
         }
+    }
 
-        // Adjust for prayer
-        int effectiveMaxHit = npcMaxHit;
-        if (isPrayerActive)
+    /**
+     * Calculate probability of death from a hit
+     * Given current HP and NPC attack
+     */
+    public double calculateDeathProbability(int currentHp, NpcCombatStats npcStats, boolean isPrayerActive, CombatStateSnapshot state)
+    {
+        return calculateDeathProbability(currentHp, 1, npcStats, isPrayerActive, state);
+    }
+
+    /**
+     * Calculate probability of dying to the NPC's next hits attacks (up to HitDistribution.MAX_HITS)
+     */
+    public double calculateDeathProbability(int currentHp, int hits, NpcCombatStats npcStats, boolean isPrayerActive, CombatStateSnapshot state)
+    {
+        if (currentHp <= 0 || npcStats == null)
         {
-            // Protection prayers reduce damage by 40%
-            effectiveMaxHit = (int) (npcMaxHit * 0.6);
+            return 0.0;
         }
 
-        // If max hit can't kill player, no death risk
-        if (effectiveMaxHit < currentHp)
+        HitDistribution distribution = getNpcHitDistribution(npcStats, isPrayerActive, state);
+        if (distribution == null)
         {
             return 0.0;
         }
 
-        // Calculate NPC's hit chance against player
-        double hitChance = calculateNpcAccuracyAgainstPlayer(npcStats);
-
-        // Probability of hitting lethal damage (currentHp or more)
-        // Assuming uniform distribution from 0 to max hit
-        double lethalDamageChance = (effectiveMaxHit - currentHp + 1.0) / (effectiveMaxHit + 1.0);
-
-        return hitChance * lethalDamageChance;
+        return distribution.deathChance(hits, currentHp);
     }
 
     /**
-     * Calculate NPC's accuracy against player
+     * Get the damage distribution of the NPC's attack against the player
+     * Cached per (NPC, protection prayer, player defence roll); null if the NPC has no max hit
      */
-    private double calculateNpcAccuracyAgainstPlayer(NpcCombatStats npcStats)
+    public HitDistribution getNpcHitDistribution(NpcCombatStats npcStats, boolean isPrayerActive, CombatStateSnapshot state)
     {
-        if (npcStats == null)
+        // Get NPC's max hit
+        int npcMaxHit = npcStats.getMaxHitOrDefault();
+        if (npcMaxHit == 0)
         {
-            return 0.5;
+            return null;
         }
 
-        // Get NPC's attack roll
-        int npcAttackRoll = calculateNpcAttackRoll(npcStats);
-
         // Get player's defence roll
-        int playerDefenceRoll = calculatePlayerDefenceRoll(npcStats);
+        int playerDefenceRoll = calculatePlayerDefenceRoll(npcStats, state);
 
-        // Standard accuracy formula
-        if (npcAttackRoll > playerDefenceRoll)
-        {
-            return 1.0 - (playerDefenceRoll + 2.0) / (2.0 * (npcAttackRoll + 1.0));
-        }
-        else
+        long key = ((long) npcStats.getId() << 32) | ((playerDefenceRoll & 0x7FFFFFFFL) << 1) | (isPrayerActive ? 1 : 0);
+        int slot = (int) (key ^ (key >>> 32) ^ (key >>> 17)) & (HIT_DISTRIBUTION_SLOTS - 1);
+        HitDistribution distribution = hitDistributions[slot];
+        if (distribution == null || hitDistributionKeys[slot] != key)
         {
-            return npcAttackRoll / (2.0 * (playerDefenceRoll + 1.0));
+            // Calculate NPC's hit chance against player
+            double hitChance = calculateHitChance(calculateNpcAttackRoll(npcStats), playerDefenceRoll);
+
+            // Protection prayers reduce damage by 40%
+            double damageMultiplier = isPrayerActive ? 0.6 : 1.0;
+
+            distribution = HitDistribution.forAttack(npcMaxHit, hitChance, damageMultiplier);
+            hitDistributionKeys[slot] = key;
+            hitDistributions[slot] = distribution;
         }
+        return distribution;
     }
 
     /**
@@ -724,7 +517,7 @@ public class CombatFormulas
     /**
      * Calculate player's defence roll against NPC
      */
-    private int calculatePlayerDefenceRoll(NpcCombatStats npcStats)
+    private int calculatePlayerDefenceRoll(NpcCombatStats npcStats, CombatStateSnapshot state)
     {
         String attackType = npcStats.getPrimaryAttackType();
         if (attackType == null)
@@ -733,13 +526,13 @@ public class CombatFormulas
         }
 
         // Get player defence level
-        int defenceLevel = client.getBoostedSkillLevel(Skill.DEFENCE);
+        int defenceLevel = state.getDefenceLevel();
 
         // Get player's defensive bonus against this attack type
-        int defenceBonus = getPlayerDefenceBonus(attackType);
+        int defenceBonus = equipmentBonuses.getDefence(attackType);
 
         // Prayer multipliers for defence
-        double prayerMultiplier = getDefencePrayerMultiplier();
+        double prayerMultiplier = getDefencePrayerMultiplier(state);
 
         double effectiveDefence = Math.floor((defenceLevel * prayerMultiplier) + 8 + 1); // +1 for defensive style
 
@@ -749,33 +542,33 @@ public class CombatFormulas
     /**
      * Get prayer defence multiplier
      */
-    private double getDefencePrayerMultiplier()
+    private static double getDefencePrayerMultiplier(CombatStateSnapshot state)
     {
-        if (client.isPrayerActive(Prayer.THICK_SKIN))
+        if (state.isPrayerActive(Prayer.THICK_SKIN))
         {
             return 1.05;
         }
-        if (client.isPrayerActive(Prayer.ROCK_SKIN))
+        if (state.isPrayerActive(Prayer.ROCK_SKIN))
         {
             return 1.10;
         }
-        if (client.isPrayerActive(Prayer.STEEL_SKIN))
+        if (state.isPrayerActive(Prayer.STEEL_SKIN))
         {
             return 1.15;
         }
-        if (client.isPrayerActive(Prayer.CHIVALRY))
+        if (state.isPrayerActive(Prayer.CHIVALRY))
         {
             return 1.20;
         }
-        if (client.isPrayerActive(Prayer.PIETY))
+        if (state.isPrayerActive(Prayer.PIETY))
         {
             return 1.25;
         }
-        if (client.isPrayerActive(Prayer.RIGOUR))
+        if (state.isPrayerActive(Prayer.RIGOUR))
         {
             return 1.25;
         }
-        if (client.isPrayerActive(Prayer.AUGURY))
+        if (state.isPrayerActive(Prayer.AUGURY))
         {
             return 1.25;
         }
@@ -0,0 +1,141 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.Getter;
+import net.runelite.api.*;
+
+/**
+ * Immutable copy of the local player's prayers, boosted levels and attack style settings
+ * Captured again only after a stat or varbit change, so every hitsplat and attack in between reads the same values
+ * without going back to the client
+ */
+@Getter
+public final class CombatStateSnapshot
+{
+    public static final CombatStateSnapshot EMPTY = new CombatStateSnapshot();
+
+    private static final Prayer[] PRAYERS = Prayer.values();
+
+    // Changes only when an input of the combat formulas changes, so consumers can tell whether their cached results
+    // are stale. Hitpoints isn't one of them: the death chance reads it separately, and it changes on most hits.
+    private final int version;
+
+    private final boolean localPlayerPresent;
+
+    // One bit per Prayer ordinal
+    private final long activePrayers;
+
+    // Boosted levels
+    private final int attackLevel;
+    private final int strengthLevel;
+    private final int defenceLevel;
+    private final int rangedLevel;
+    private final int magicLevel;
+    private final int hitpoints;
+
+    // Attack style settings
+    private final int attackStyle;
+    private final int defensiveCastingMode;
+
+    private CombatStateSnapshot()
+    {
+        this(0, false, 0L, 1, 1, 1, 1, 1, 10, 0, 0);
+    }
+
+    public CombatStateSnapshot(int version, boolean localPlayerPresent, long activePrayers,
+                               int attackLevel, int strengthLevel, int defenceLevel, int rangedLevel, int magicLevel,
+                               int hitpoints, int attackStyle, int defensiveCastingMode)
+    {
+        this.version = version;
+        this.localPlayerPresent = localPlayerPresent;
+        this.activePrayers = activePrayers;
+        this.attackLevel = attackLevel;
+        this.strengthLevel = strengthLevel;
+        this.defenceLevel = defenceLevel;
+        this.rangedLevel = rangedLevel;
+        this.magicLevel = magicLevel;
+        this.hitpoints = hitpoints;
+        this.attackStyle = attackStyle;
+        this.defensiveCastingMode = defensiveCastingMode;
+    }
+
+    /**
+     * Read the current state from the client
+     * Returns previous itself if nothing changed, and keeps its version if only hitpoints changed
+     * Must be called on the client thread
+     */
+    public static CombatStateSnapshot capture(Client client, CombatStateSnapshot previous)
+    {
+        long activePrayers = 0L;
+        for (Prayer prayer : PRAYERS)
+        {
+            if (prayer.ordinal() < Long.SIZE && client.isPrayerActive(prayer))
+            {
+                activePrayers |= 1L << prayer.ordinal();
+            }
+        }
+
+        boolean localPlayerPresent = client.getLocalPlayer() != null;
+        int attackLevel = client.getBoostedSkillLevel(Skill.ATTACK);
+        int strengthLevel = client.getBoostedSkillLevel(Skill.STRENGTH);
+        int defenceLevel = client.getBoostedSkillLevel(Skill.DEFENCE);
+        int rangedLevel = client.getBoostedSkillLevel(Skill.RANGED);
+        int magicLevel = client.getBoostedSkillLevel(Skill.MAGIC);
+        int hitpoints = client.getBoostedSkillLevel(Skill.HITPOINTS);
+        int attackStyle = client.getVarpValue(VarPlayer.ATTACK_STYLE);
+        int defensiveCastingMode = client.getVarbitValue(Varbits.DEFENSIVE_CASTING_MODE);
+
+        boolean sameInputs = previous.localPlayerPresent == localPlayerPresent
+                && previous.activePrayers == activePrayers
+                && previous.attackLevel == attackLevel
+                && previous.strengthLevel == strengthLevel
+                && previous.defenceLevel == defenceLevel
+                && previous.rangedLevel == rangedLevel
+                && previous.magicLevel == magicLevel
+                && previous.attackStyle == attackStyle
+                && previous.defensiveCastingMode == defensiveCastingMode;
+
+        if (sameInputs && previous.hitpoints == hitpoints)
+        {
+            return previous;
+        }
+
+        return new CombatStateSnapshot(
+                sameInputs ? previous.version : previous.version + 1,
+                localPlayerPresent,
+                activePrayers,
+                attackLevel,
+                strengthLevel,
+                defenceLevel,
+                rangedLevel,
+                magicLevel,
+                hitpoints,
+                attackStyle,
+                defensiveCastingMode);
+    }
+
+    public boolean isPrayerActive(Prayer prayer)
+    {
+        return prayer.ordinal() < Long.SIZE && (activePrayers & (1L << prayer.ordinal())) != 0;
+    }
+
+    /**
+     * Active protection prayers as a CombatFormulas.PROTECT_FROM_* bitmask
+     */
+    public int getProtectionPrayers()
+    {
+        int mask = 0;
+        if (isPrayerActive(Prayer.PROTECT_FROM_MELEE))
+        {
+            mask |= CombatFormulas.PROTECT_FROM_MELEE;
+        }
+        if (isPrayerActive(Prayer.PROTECT_FROM_MISSILES))
+        {
+            mask |= CombatFormulas.PROTECT_FROM_MISSILES;
+        }
+        if (isPrayerActive(Prayer.PROTECT_FROM_MAGIC))
+        {
+            mask |= CombatFormulas.PROTECT_FROM_MAGIC;
+        }
+        return mask;
+    }
+}
@@ -139,28 +139,7 @@ public class DamageCalculator
      */
     public AttackStyle getAttackStyleFromAnimation(int animationId)
     {
-        // Common melee animations
-        if (animationId == 422 || animationId == 423 || animationId == 401 ||
-                animationId == 428 || animationId == 440 || animationId == 1378)
-        {
-            return AttackStyle.MELEE;
-        }
-
-        // Common ranged animations
-        if (animationId == 426 || animationId == 5061 || animationId == 4230 ||
-                animationId == 7552 || animationId == 7617)
-        {
-            return AttackStyle.RANGED;
-        }
-
-        // Common magic animations
-        if (animationId == 1162 || animationId == 1167 || animationId == 8532 ||
-                animationId == 7855 || animationId == 1978)
-        {
-            return AttackStyle.MAGIC;
-        }
-
-        return AttackStyle.UNKNOWN;
+        return AnimationRegistry.getAttackStyle(AnimationRegistry.lookup(animationId));
     }
 
     /**
@@ -0,0 +1,132 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only scratch file for per-hit damage detail that no longer fits the in-memory budget
+ *
+ * Only valid for the current session: the file is truncated when first written and deleted on close.
+ * Callers keep the offsets returned by append() and read their records back with read().
+ */
+@Slf4j
+public class DamageDetailSpill
+{
+    private static final String SPILL_FILE_NAME = "damage-detail.bin";
+
+    private final Path file;
+    private FileChannel channel;
+    private long end;
+    private boolean closed;
+
+    public DamageDetailSpill(File runeLiteDirectory)
+    {
+        this.file = Paths.get(runeLiteDirectory.getAbsolutePath(), "pvmperformancetracker", SPILL_FILE_NAME);
+    }
+
+    /**
+     * Append a record
+     * @return the offset to pass to read()
+     */
+    public synchronized long append(ByteBuffer record) throws IOException
+    {
+        FileChannel out = open();
+        long offset = end;
+
+        long position = offset;
+        while (record.hasRemaining())
+        {
+            position += out.write(record, position);
+        }
+
+        end = position;
+        return offset;
+    }
+
+    /**
+     * Read a record back into the buffer, filling it completely
+     */
+    public synchronized void read(long offset, ByteBuffer record) throws IOException
+    {
+        FileChannel in = open();
+
+        long position = offset;
+        while (record.hasRemaining())
+        {
+            int read = in.read(record, position);
+            if (read < 0)
+            {
+                throw new IOException("Damage detail spill file is truncated");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Bytes written so far this session
+     */
+    public synchronized long size()
+    {
+        return end;
+    }
+
+    /**
+     * Whether close() has been called; records can no longer be read back
+     */
+    public synchronized boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Close and delete the spill file; spilled detail is no longer readable afterwards
+     */
+    public synchronized void close()
+    {
+        closed = true;
+        if (channel == null)
+        {
+            return;
+        }
+
+        try
+        {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to delete damage detail spill file", e);
+        }
+
+        channel = null;
+        end = 0;
+    }
+
+    private FileChannel open() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("Damage detail spill file is closed");
+        }
+
+        if (channel == null)
+        {
+            Files.createDirectories(file.getParent());
+
+            // Anything left from a previous session is unreachable, so start over
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            end = 0;
+        }
+        return channel;
+    }
+}
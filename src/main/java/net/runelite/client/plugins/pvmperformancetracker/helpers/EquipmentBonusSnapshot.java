@@ -0,0 +1,203 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.Getter;
+import net.runelite.api.Item;
+import net.runelite.client.game.ItemEquipmentStats;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.ItemStats;
+
+import java.util.function.IntFunction;
+
+/**
+ * Immutable totals of the player's equipment bonuses and set effects, safe to hand to other threads
+ * Built once per equipment change so combat formulas don't walk every slot on each attack or hitsplat
+ */
+@Getter
+public final class EquipmentBonusSnapshot
+{
+    // Positions of each bonus in the totals build() sums into
+    private static final int STAB_ATTACK = 0;
+    private static final int SLASH_ATTACK = 1;
+    private static final int CRUSH_ATTACK = 2;
+    private static final int MAGIC_ATTACK = 3;
+    private static final int RANGED_ATTACK = 4;
+    private static final int STAB_DEFENCE = 5;
+    private static final int SLASH_DEFENCE = 6;
+    private static final int CRUSH_DEFENCE = 7;
+    private static final int MAGIC_DEFENCE = 8;
+    private static final int RANGED_DEFENCE = 9;
+    private static final int STRENGTH = 10;
+    private static final int RANGED_STRENGTH = 11;
+    private static final int MAGIC_DAMAGE = 12;
+    private static final int BONUS_COUNT = 13;
+
+    public static final EquipmentBonusSnapshot EMPTY = new EquipmentBonusSnapshot(0, new int[BONUS_COUNT], false, false);
+
+    // Incremented on every rebuild, so consumers can tell whether their cached results are stale
+    private final int version;
+
+    // Attack bonuses
+    private final int stabAttack;
+    private final int slashAttack;
+    private final int crushAttack;
+    private final int magicAttack;
+    private final int rangedAttack;
+
+    // Defence bonuses
+    private final int stabDefence;
+    private final int slashDefence;
+    private final int crushDefence;
+    private final int magicDefence;
+    private final int rangedDefence;
+
+    // Other bonuses
+    private final int strength;
+    private final int rangedStrength;
+    private final int magicDamage;
+
+    // Set effects
+    private final boolean voidMelee;
+    private final boolean voidRanged;
+
+    private EquipmentBonusSnapshot(int version, int[] bonuses, boolean voidMelee, boolean voidRanged)
+    {
+        this.version = version;
+        this.stabAttack = bonuses[STAB_ATTACK];
+        this.slashAttack = bonuses[SLASH_ATTACK];
+        this.crushAttack = bonuses[CRUSH_ATTACK];
+        this.magicAttack = bonuses[MAGIC_ATTACK];
+        this.rangedAttack = bonuses[RANGED_ATTACK];
+        this.stabDefence = bonuses[STAB_DEFENCE];
+        this.slashDefence = bonuses[SLASH_DEFENCE];
+        this.crushDefence = bonuses[CRUSH_DEFENCE];
+        this.magicDefence = bonuses[MAGIC_DEFENCE];
+        this.rangedDefence = bonuses[RANGED_DEFENCE];
+        this.strength = bonuses[STRENGTH];
+        this.rangedStrength = bonuses[RANGED_STRENGTH];
+        this.magicDamage = bonuses[MAGIC_DAMAGE];
+        this.voidMelee = voidMelee;
+        this.voidRanged = voidRanged;
+    }
+
+    /**
+     * Sum the bonuses of the given equipment items
+     */
+    public static EquipmentBonusSnapshot build(Item[] items, ItemManager itemManager, int version)
+    {
+        return build(items, itemManager::getItemStats, version);
+    }
+
+    /**
+     * Sum the bonuses of the given equipment items, looking up each item's stats with the given function
+     */
+    static EquipmentBonusSnapshot build(Item[] items, IntFunction<ItemStats> itemStatsLookup, int version)
+    {
+        int[] bonuses = new int[BONUS_COUNT];
+        if (items == null)
+        {
+            return new EquipmentBonusSnapshot(version, bonuses, false, false);
+        }
+
+        boolean hasMeleeHelm = false;
+        boolean hasRangedHelm = false;
+        boolean hasTop = false;
+        boolean hasBottom = false;
+        boolean hasGloves = false;
+
+        for (Item item : items)
+        {
+            int id = item.getId();
+
+            // Void melee helm
+            if (id == 11665)
+            {
+                hasMeleeHelm = true;
+            }
+            // Void ranger helm
+            if (id == 11664)
+            {
+                hasRangedHelm = true;
+            }
+            // Void knight top
+            if (id == 8839 || id == 10611 || id == 13072)
+            {
+                hasTop = true;
+            }
+            // Void knight robe
+            if (id == 8840 || id == 10612 || id == 13073)
+            {
+                hasBottom = true;
+            }
+            // Void knight gloves
+            if (id == 8842)
+            {
+                hasGloves = true;
+            }
+
+            if (id <= 0)
+            {
+                continue;
+            }
+
+            ItemStats itemStats = itemStatsLookup.apply(id);
+            if (itemStats == null || itemStats.getEquipment() == null)
+            {
+                continue;
+            }
+
+            ItemEquipmentStats equipment = itemStats.getEquipment();
+            bonuses[STAB_ATTACK] += equipment.getAstab();
+            bonuses[SLASH_ATTACK] += equipment.getAslash();
+            bonuses[CRUSH_ATTACK] += equipment.getAcrush();
+            bonuses[MAGIC_ATTACK] += equipment.getAmagic();
+            bonuses[RANGED_ATTACK] += equipment.getArange();
+            bonuses[STAB_DEFENCE] += equipment.getDstab();
+            bonuses[SLASH_DEFENCE] += equipment.getDslash();
+            bonuses[CRUSH_DEFENCE] += equipment.getDcrush();
+            bonuses[MAGIC_DEFENCE] += equipment.getDmagic();
+            bonuses[RANGED_DEFENCE] += equipment.getDrange();
+            bonuses[STRENGTH] += equipment.getStr();
+            bonuses[RANGED_STRENGTH] += equipment.getRstr();
+            bonuses[MAGIC_DAMAGE] += equipment.getMdmg();
+        }
+
+        boolean hasVoidBody = hasTop && hasBottom && hasGloves;
+        return new EquipmentBonusSnapshot(version, bonuses, hasMeleeHelm && hasVoidBody, hasRangedHelm && hasVoidBody);
+    }
+
+    /**
+     * Melee attack bonus for a style (stab/slash/crush), slash for anything else
+     */
+    public int getMeleeAttack(String style)
+    {
+        switch (style.toLowerCase())
+        {
+            case "stab":
+                return stabAttack;
+            case "crush":
+                return crushAttack;
+            default:
+                return slashAttack;
+        }
+    }
+
+    /**
+     * Defence bonus against an attack type (stab/slash/crush/magic/ranged), slash for anything else
+     */
+    public int getDefence(String attackType)
+    {
+        switch (attackType.toLowerCase())
+        {
+            case "stab":
+                return stabDefence;
+            case "crush":
+                return crushDefence;
+            case "magic":
+                return magicDefence;
+            case "ranged":
+                return rangedDefence;
+            default:
+                return slashDefence;
+        }
+    }
+}
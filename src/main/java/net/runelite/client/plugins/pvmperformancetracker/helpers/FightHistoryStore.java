@@ -0,0 +1,646 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.FightSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Saves completed fights across sessions
+ *
+ * Fights are appended to a log of length-prefixed, CRC-32 checked records (see FightRecordCodec for the payload).
+ * A sidecar index holds one fixed-size entry per record: log offset, record length, boss NPC id, start time and
+ * fight id. The index is only a cache of the log; entries missing from it are rebuilt from the log on startup, and an
+ * incomplete record at the end of the log (e.g. from a crash mid-write) is truncated.
+ *
+ * All file access happens on the store's own writer thread, so callers on the client thread never wait on disk.
+ * Saved fights go through a WriteBehindQueue and are written in batches with one fsync per batch; a fight queued
+ * again before it was written replaces the queued copy. A fight saved again after it was written (e.g. with
+ * back-filled metrics) is appended as a new record that supersedes the older one. Lookups return futures, see fights
+ * queued before them, and only read the latest record of each fight they match.
+ */
+@Slf4j
+public class FightHistoryStore
+{
+    private static final String LOG_FILE_NAME = "fight-history.log";
+    private static final String INDEX_FILE_NAME = "fight-history.idx";
+
+    private static final int LOG_MAGIC = 0x50564D46; // "PVMF"
+    private static final int INDEX_MAGIC = 0x50564D49; // "PVMI"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 2 * Integer.BYTES;
+
+    // Payload length and CRC-32
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    // Log offset, record length, boss NPC id, start time, fight id
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + 2 * Integer.BYTES + 3 * Long.BYTES;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    // Fights end at most every few seconds, so batches are mostly bounded by the interval
+    private static final int WRITE_BATCH_SIZE = 8;
+    private static final long WRITE_INTERVAL_MILLIS = 2000;
+    private static final int WRITE_QUEUE_CAPACITY = 1024;
+
+    private final Path logFile;
+    private final Path indexFile;
+    private final ScheduledThreadPoolExecutor executor;
+    private final WriteBehindQueue<FightSnapshot> writeQueue;
+
+    // Everything below is only used on the writer thread
+    private FileChannel logChannel;
+    private FileChannel indexChannel;
+    private boolean failed;
+    private long logEnd;
+
+    // Records that were in the log before this session's first write
+    private int savedBeforeOpen;
+
+    // In-memory copy of the index, one column per field, in log order
+    private int count;
+    private long[] offsets = new long[64];
+    private int[] lengths = new int[64];
+    private int[] bossNpcIds = new int[64];
+    private long[] startTimes = new long[64];
+    private long[] idsMost = new long[64];
+    private long[] idsLeast = new long[64];
+
+    // Entries replaced by a later record of the same fight, and the latest entry of each fight id
+    private boolean[] superseded = new boolean[64];
+    private final Map<UUID, Integer> latestEntries = new HashMap<>();
+
+    public FightHistoryStore(File runeLiteDirectory)
+    {
+        Path directory = Paths.get(runeLiteDirectory.getAbsolutePath(), "pvmperformancetracker");
+        this.logFile = directory.resolve(LOG_FILE_NAME);
+        this.indexFile = directory.resolve(INDEX_FILE_NAME);
+        this.executor = new ScheduledThreadPoolExecutor(1, r ->
+        {
+            Thread thread = new Thread(r, "Fight-History-Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // close() flushes explicitly, so a pending timed flush mustn't hold up shutdown
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.writeQueue = new WriteBehindQueue<>(executor, FightSnapshot::getFightId, this::writeBatch,
+                WRITE_BATCH_SIZE, WRITE_INTERVAL_MILLIS, WRITE_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Queue an ended fight to be saved; never blocks
+     * Saving a fight again replaces its earlier record
+     */
+    public void append(FightSnapshot fight)
+    {
+        writeQueue.offer(fight);
+    }
+
+    /**
+     * Queue depth, flush latency and other counters of the background writer
+     */
+    public WriteBehindQueue<FightSnapshot> getWriteQueue()
+    {
+        return writeQueue;
+    }
+
+    /**
+     * The most recently saved fights, oldest first
+     * Only these records are read; the rest of the log stays on disk
+     */
+    public CompletableFuture<List<Fight>> loadRecent(int limit)
+    {
+        return submit(() ->
+        {
+            // Walk back to the oldest of the latest limit fights, then read them in log order
+            int first = count;
+            int found = 0;
+            while (first > 0 && found < limit)
+            {
+                first--;
+                if (!superseded[first])
+                {
+                    found++;
+                }
+            }
+
+            List<Fight> fights = new ArrayList<>(Math.min(limit, count));
+            for (int i = first; i < count; i++)
+            {
+                if (!superseded[i])
+                {
+                    addFight(fights, i);
+                }
+            }
+            return fights;
+        });
+    }
+
+    /**
+     * Read every fight against a boss saved before this session, oldest first, on the writer thread
+     * Only that boss's records are decoded, found through the index. Each fight is handed to the action and not
+     * kept, so memory use doesn't grow with the log.
+     */
+    public CompletableFuture<Void> forEachSaved(int bossNpcId, Consumer<Fight> action)
+    {
+        return submit(() ->
+        {
+            for (int i = 0; i < savedBeforeOpen; i++)
+            {
+                if (bossNpcIds[i] != bossNpcId || superseded[i])
+                {
+                    continue;
+                }
+
+                Fight fight = tryReadFight(i);
+                if (fight != null)
+                {
+                    action.accept(fight);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Saved fights against a boss, newest first
+     */
+    public CompletableFuture<List<Fight>> findByBoss(int bossNpcId, int limit)
+    {
+        return submit(() ->
+        {
+            List<Fight> fights = new ArrayList<>();
+            for (int i = count - 1; i >= 0 && fights.size() < limit; i--)
+            {
+                if (bossNpcIds[i] == bossNpcId && !superseded[i])
+                {
+                    addFight(fights, i);
+                }
+            }
+            return fights;
+        });
+    }
+
+    /**
+     * Saved fights started between two dates (inclusive), oldest first
+     */
+    public CompletableFuture<List<Fight>> findBetween(LocalDate from, LocalDate to)
+    {
+        long start = FightRecordCodec.toEpochMillis(from.atStartOfDay());
+        long end = FightRecordCodec.toEpochMillis(to.plusDays(1).atStartOfDay());
+        return submit(() ->
+        {
+            List<Fight> fights = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+            {
+                if (startTimes[i] >= start && startTimes[i] < end && !superseded[i])
+                {
+                    addFight(fights, i);
+                }
+            }
+            return fights;
+        });
+    }
+
+    /**
+     * A saved fight by id, or null if it isn't in the history
+     */
+    public CompletableFuture<Fight> findById(String fightId)
+    {
+        UUID id = FightRecordCodec.parseFightId(fightId);
+        return submit(() ->
+        {
+            Integer entry = latestEntries.get(id);
+            return entry != null ? tryReadFight(entry) : null;
+        });
+    }
+
+    /**
+     * Write queued fights and close the files
+     * Waits up to a few seconds for the writer thread
+     */
+    public void close()
+    {
+        writeQueue.close();
+        try
+        {
+            executor.execute(this::closeFiles);
+        }
+        catch (RejectedExecutionException e)
+        {
+            return; // Already closed
+        }
+
+        executor.shutdown();
+        try
+        {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                log.warn("Timed out saving fight history");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Fight history writer: {}", writeQueue);
+    }
+
+    /**
+     * Run a query on the writer thread after writing everything queued
+     * The future fails with an IOException if the files can't be opened, or if the store is closed.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> query)
+    {
+        try
+        {
+            return CompletableFuture.supplyAsync(() ->
+            {
+                if (!ensureOpen())
+                {
+                    throw new CompletionException(new IOException("Fight history is unavailable"));
+                }
+                writeQueue.flush();
+                return query.get();
+            }, executor);
+        }
+        catch (RejectedExecutionException e)
+        {
+            CompletableFuture<T> closed = new CompletableFuture<>();
+            closed.completeExceptionally(e);
+            return closed;
+        }
+    }
+
+    private void addFight(List<Fight> fights, int entry)
+    {
+        Fight fight = tryReadFight(entry);
+        if (fight != null)
+        {
+            fights.add(fight);
+        }
+    }
+
+    private Fight tryReadFight(int entry)
+    {
+        try
+        {
+            return readFight(entry);
+        }
+        catch (IOException e)
+        {
+            log.warn("Skipping unreadable saved fight at offset {}", offsets[entry], e);
+            return null;
+        }
+    }
+
+    /**
+     * Open the files and recover the index the first time the store is used
+     * @return false if the files can't be used; nothing is saved this session then
+     */
+    private boolean ensureOpen()
+    {
+        if (logChannel != null)
+        {
+            return true;
+        }
+        if (failed)
+        {
+            return false;
+        }
+
+        try
+        {
+            Files.createDirectories(logFile.getParent());
+            logChannel = openFile(logFile, LOG_MAGIC, true);
+            indexChannel = openFile(indexFile, INDEX_MAGIC, false);
+            loadIndex();
+            recoverLog();
+            savedBeforeOpen = count;
+            return true;
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to open fight history, fights won't be saved this session", e);
+            failed = true;
+            closeFiles();
+            return false;
+        }
+    }
+
+    /**
+     * Open a file, starting it over if it has no valid header
+     * @param keepUnreadable move a file in an unknown format aside instead of overwriting it
+     */
+    private static FileChannel openFile(Path file, int magic, boolean keepUnreadable) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        if (channel.size() > 0)
+        {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            if (readFully(channel, header, 0) && header.getInt(0) == magic && header.getInt(Integer.BYTES) == VERSION)
+            {
+                return channel;
+            }
+
+            channel.close();
+            if (keepUnreadable)
+            {
+                Path aside = file.resolveSibling(file.getFileName() + ".unreadable");
+                log.warn("{} has an unknown format, moving it to {}", file.getFileName(), aside.getFileName());
+                Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(magic).putInt(VERSION).flip();
+        writeFully(channel, header, 0);
+        return channel;
+    }
+
+    /**
+     * Load the index, keeping entries up to the first one that doesn't match the log
+     */
+    private void loadIndex() throws IOException
+    {
+        long logSize = logChannel.size();
+        long indexSize = indexChannel.size();
+        int stored = (int) Math.min(Integer.MAX_VALUE / INDEX_ENTRY_SIZE, (indexSize - FILE_HEADER_SIZE) / INDEX_ENTRY_SIZE);
+
+        ByteBuffer entries = ByteBuffer.allocate(stored * INDEX_ENTRY_SIZE);
+        readFully(indexChannel, entries, FILE_HEADER_SIZE);
+        entries.flip();
+
+        // Records are contiguous, so each entry must start where the previous record ended
+        long expected = FILE_HEADER_SIZE;
+        for (int i = 0; i < stored; i++)
+        {
+            long offset = entries.getLong();
+            int length = entries.getInt();
+            int bossNpcId = entries.getInt();
+            long startTime = entries.getLong();
+            long idMost = entries.getLong();
+            long idLeast = entries.getLong();
+
+            if (offset != expected || length < FightRecordCodec.KEY_SIZE || length > MAX_RECORD_SIZE
+                    || offset + RECORD_HEADER_SIZE + length > logSize)
+            {
+                break;
+            }
+
+            addEntry(offset, length, bossNpcId, startTime, idMost, idLeast);
+            expected = offset + RECORD_HEADER_SIZE + length;
+        }
+
+        if (indexSize != FILE_HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE)
+        {
+            indexChannel.truncate(FILE_HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE);
+        }
+        logEnd = expected;
+    }
+
+    /**
+     * Index records written after the last indexed one, and drop a torn record at the end of the log
+     */
+    private void recoverLog() throws IOException
+    {
+        long logSize = logChannel.size();
+        int recovered = 0;
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (logEnd < logSize)
+        {
+            header.clear();
+            if (!readFully(logChannel, header, logEnd))
+            {
+                break;
+            }
+
+            int length = header.getInt(0);
+            if (length < FightRecordCodec.KEY_SIZE || length > MAX_RECORD_SIZE
+                    || logEnd + RECORD_HEADER_SIZE + length > logSize)
+            {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            if (!readFully(logChannel, payload, logEnd + RECORD_HEADER_SIZE)
+                    || checksum(payload.array(), 0, length) != header.getInt(Integer.BYTES))
+            {
+                break;
+            }
+
+            indexRecord(logEnd, payload);
+            logEnd += RECORD_HEADER_SIZE + length;
+            recovered++;
+        }
+
+        if (recovered > 0)
+        {
+            log.info("Re-indexed {} saved fights", recovered);
+        }
+
+        if (logEnd < logSize)
+        {
+            log.info("Truncating {} bytes of incomplete fight history", logSize - logEnd);
+            logChannel.truncate(logEnd);
+            logChannel.force(true);
+        }
+    }
+
+    /**
+     * Append a batch of fights with a single sync, called by the write queue on the writer thread
+     */
+    private void writeBatch(List<FightSnapshot> fights) throws IOException
+    {
+        if (!ensureOpen())
+        {
+            throw new IOException("Fight history is unavailable");
+        }
+
+        List<byte[]> payloads = new ArrayList<>(fights.size());
+        for (FightSnapshot fight : fights)
+        {
+            byte[] payload = FightRecordCodec.encode(fight);
+            if (payload.length > MAX_RECORD_SIZE)
+            {
+                log.warn("Fight record is too large to save ({} bytes)", payload.length);
+                continue;
+            }
+            payloads.add(payload);
+        }
+
+        long position = logEnd;
+        for (byte[] payload : payloads)
+        {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+            record.putInt(payload.length).putInt(checksum(payload, 0, payload.length)).put(payload).flip();
+            writeFully(logChannel, record, position);
+            position += record.capacity();
+        }
+
+        // The log is synced before the index, so an indexed record is always complete on disk
+        logChannel.force(false);
+
+        for (byte[] payload : payloads)
+        {
+            indexRecord(logEnd, ByteBuffer.wrap(payload));
+            logEnd += RECORD_HEADER_SIZE + payload.length;
+        }
+    }
+
+    /**
+     * Add a complete record to the in-memory index and the index file
+     */
+    private void indexRecord(long offset, ByteBuffer payload) throws IOException
+    {
+        addEntry(offset, payload.capacity(),
+                payload.getInt(FightRecordCodec.KEY_BOSS_NPC_ID),
+                payload.getLong(FightRecordCodec.KEY_START_TIME),
+                payload.getLong(FightRecordCodec.KEY_ID_MOST),
+                payload.getLong(FightRecordCodec.KEY_ID_LEAST));
+
+        int entry = count - 1;
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        buffer.putLong(offsets[entry])
+                .putInt(lengths[entry])
+                .putInt(bossNpcIds[entry])
+                .putLong(startTimes[entry])
+                .putLong(idsMost[entry])
+                .putLong(idsLeast[entry])
+                .flip();
+        writeFully(indexChannel, buffer, FILE_HEADER_SIZE + (long) entry * INDEX_ENTRY_SIZE);
+    }
+
+    private void addEntry(long offset, int length, int bossNpcId, long startTime, long idMost, long idLeast)
+    {
+        if (count == offsets.length)
+        {
+            int capacity = count * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            bossNpcIds = Arrays.copyOf(bossNpcIds, capacity);
+            startTimes = Arrays.copyOf(startTimes, capacity);
+            idsMost = Arrays.copyOf(idsMost, capacity);
+            idsLeast = Arrays.copyOf(idsLeast, capacity);
+            superseded = Arrays.copyOf(superseded, capacity);
+        }
+
+        Integer previous = latestEntries.put(new UUID(idMost, idLeast), count);
+        if (previous != null)
+        {
+            superseded[previous] = true;
+        }
+
+        offsets[count] = offset;
+        lengths[count] = length;
+        bossNpcIds[count] = bossNpcId;
+        startTimes[count] = startTime;
+        idsMost[count] = idMost;
+        idsLeast[count] = idLeast;
+        count++;
+    }
+
+    private Fight readFight(int entry) throws IOException
+    {
+        int length = lengths[entry];
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        if (!readFully(logChannel, record, offsets[entry]))
+        {
+            throw new IOException("Fight history log is truncated");
+        }
+
+        if (record.getInt(0) != length
+                || record.getInt(Integer.BYTES) != checksum(record.array(), RECORD_HEADER_SIZE, length))
+        {
+            throw new IOException("Fight history record is corrupt");
+        }
+
+        return FightRecordCodec.decode(record.array(), RECORD_HEADER_SIZE, length);
+    }
+
+    private void closeFiles()
+    {
+        try
+        {
+            if (logChannel != null)
+            {
+                logChannel.close();
+            }
+            if (indexChannel != null)
+            {
+                indexChannel.close();
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to close fight history", e);
+        }
+
+        logChannel = null;
+        indexChannel = null;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Fill the buffer from the given position
+     * @return false if the end of the file was reached first
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+            {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            position += channel.write(buffer, position);
+        }
+    }
+}
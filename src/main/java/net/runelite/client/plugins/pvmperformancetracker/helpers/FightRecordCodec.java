@@ -0,0 +1,158 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.FightSnapshot;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerSnapshot;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Binary form of a completed fight, as stored in the fight history log
+ *
+ * Layout (big endian):
+ *   key     - fight id (UUID, two longs), boss NPC id, start time (epoch millis); read on its own to build the index
+ *   fight   - duration ticks, boss name, local player name, player count
+ *   players - name followed by the summary stats of PlayerSnapshot
+ *
+ * Only summary stats are stored; per-hit detail is not kept across sessions.
+ */
+public final class FightRecordCodec
+{
+    // Offsets of the key fields, which the index reads without decoding the rest
+    static final int KEY_ID_MOST = 0;
+    static final int KEY_ID_LEAST = Long.BYTES;
+    static final int KEY_BOSS_NPC_ID = 2 * Long.BYTES;
+    static final int KEY_START_TIME = KEY_BOSS_NPC_ID + Integer.BYTES;
+    static final int KEY_SIZE = KEY_START_TIME + Long.BYTES;
+
+    private FightRecordCodec()
+    {
+    }
+
+    /**
+     * Encode an ended fight
+     */
+    public static byte[] encode(FightSnapshot fight) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(KEY_SIZE + 64 + fight.getPlayers().size() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        UUID id = parseFightId(fight.getFightId());
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+        out.writeInt(fight.getBossNpcId());
+        out.writeLong(toEpochMillis(fight.getStartTime()));
+
+        out.writeInt(fight.getDurationTicks());
+        out.writeUTF(nullToEmpty(fight.getBossName()));
+        out.writeUTF(nullToEmpty(fight.getLocalPlayerName()));
+        out.writeInt(fight.getPlayers().size());
+
+        for (PlayerSnapshot player : fight.getPlayers())
+        {
+            out.writeUTF(nullToEmpty(player.getPlayerName()));
+            out.writeInt(player.getDamageDealt());
+            out.writeInt(player.getTotalAttacks());
+            out.writeInt(player.getSuccessfulHits());
+            out.writeInt(player.getTicksLost());
+            out.writeDouble(player.getExpectedDamageDealt());
+            out.writeInt(player.getExpectedDamageCalculations());
+            out.writeInt(player.getDamageTaken());
+            out.writeInt(player.getAvoidableDamageTaken());
+            out.writeInt(player.getPrayableDamageTaken());
+            out.writeInt(player.getUnavoidableDamageTaken());
+            out.writeInt(player.getChancesOfDeath());
+            out.writeDouble(player.getCumulativeDeathChance());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Recreate an ended fight from its record
+     * Players are not interned (their id is ActorRegistry.UNKNOWN), so this can run on any thread
+     */
+    public static Fight decode(byte[] buffer, int offset, int length) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer, offset, length));
+
+        UUID id = new UUID(in.readLong(), in.readLong());
+        int bossNpcId = in.readInt();
+        LocalDateTime startTime = fromEpochMillis(in.readLong());
+
+        int durationTicks = in.readInt();
+        Fight fight = new Fight(id.toString(), startTime);
+        fight.setBossNpcId(bossNpcId);
+        fight.setBossName(emptyToNull(in.readUTF()));
+        fight.setLocalPlayerName(emptyToNull(in.readUTF()));
+        fight.setActive(false);
+        fight.setStartTick(0);
+        fight.setEndTick(durationTicks);
+        fight.setEndTime(startTime.plusNanos(durationTicks * 600_000_000L));
+
+        int playerCount = in.readInt();
+        for (int i = 0; i < playerCount; i++)
+        {
+            PlayerStats stats = fight.getOrCreatePlayerStats(ActorRegistry.UNKNOWN, in.readUTF());
+            stats.setDamageDealt(in.readInt());
+            stats.setTotalAttacks(in.readInt());
+            stats.setSuccessfulHits(in.readInt());
+            stats.setAttackingTicksLost(in.readInt());
+            stats.setExpectedDamageDealt(in.readDouble());
+            stats.setExpectedDamageCalculations(in.readInt());
+            stats.setDamageTaken(in.readInt());
+            stats.setAvoidableDamageTaken(in.readInt());
+            stats.setPrayableDamageTaken(in.readInt());
+            stats.setUnavoidableDamageTaken(in.readInt());
+            stats.setChancesOfDeath(in.readInt());
+            stats.setCumulativeDeathChance(in.readDouble());
+        }
+        return fight;
+    }
+
+    static long toEpochMillis(LocalDateTime time)
+    {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis)
+    {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Fight ids are random UUIDs; anything else is mapped to a stable name-based UUID
+     */
+    static UUID parseFightId(String fightId)
+    {
+        try
+        {
+            return UUID.fromString(fightId);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return UUID.nameUUIDFromBytes(fightId.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String nullToEmpty(String value)
+    {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value)
+    {
+        return value.isEmpty() ? null : value;
+    }
+}
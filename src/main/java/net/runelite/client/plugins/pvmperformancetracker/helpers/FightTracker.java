@@ -4,12 +4,18 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.client.plugins.pvmperformancetracker.PvMPerformanceTrackerPlugin;
+import net.runelite.client.plugins.pvmperformancetracker.models.BossStatsSummary;
 import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.FightHistoryBuffer;
+import net.runelite.client.plugins.pvmperformancetracker.models.FightSnapshot;
 import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+import net.runelite.client.plugins.pvmperformancetracker.models.TrackerSnapshot;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Manages fight tracking for both Current Fight and Overall modes
@@ -19,6 +25,8 @@ public class FightTracker
 {
     private final PvMPerformanceTrackerPlugin plugin;
     private final Client client;
+    private final DamageDetailSpill detailSpill;
+    private final FightHistoryStore historyStore;
 
     @Getter
     private Fight currentFight;
@@ -27,16 +35,41 @@ public class FightTracker
     @Getter
     private Fight overallFight;
 
-    //@Getter
-    private final List<Fight> fightHistory = new ArrayList<>();
+    // Newest first, capped at maxSessionHistory
+    private final FightHistoryBuffer fightHistory;
 
     @Getter
     private int currentTick;
 
-    public FightTracker(PvMPerformanceTrackerPlugin plugin, Client client)
+    // Player ids for this session, shared by every fight so Overall and history agree
+    @Getter
+    private final ActorRegistry actors = new ActorRegistry();
+
+    // Personal bests and percentiles per boss, updated as fights complete
+    private final BossStatsIndex bossStats = new BossStatsIndex();
+    // Bosses whose saved fights have been (or are being) merged into bossStats this session
+    private final Set<Integer> savedBossStatsLoaded = new HashSet<>();
+
+    // Last summary published for the current fight's boss, reused until the boss, player or index changes
+    private BossStatsSummary bossStatsSummary;
+    private int summaryBossNpcId;
+    private String summaryPlayerName;
+    private long summaryVersion = -1;
+
+    // Published for the overlay and panel; only built on the client thread
+    private final AtomicReference<TrackerSnapshot> snapshot = new AtomicReference<>(TrackerSnapshot.EMPTY);
+    private long snapshotVersion;
+    private int snapshotTick = -1;
+    private boolean snapshotDirty = true;
+
+    public FightTracker(PvMPerformanceTrackerPlugin plugin, Client client, DamageDetailSpill detailSpill,
+                        FightHistoryStore historyStore)
     {
         this.plugin = plugin;
         this.client = client;
+        this.detailSpill = detailSpill;
+        this.historyStore = historyStore;
+        this.fightHistory = new FightHistoryBuffer(plugin.getConfig().maxSessionHistory());
         this.currentTick = 0;
     }
 
@@ -56,9 +89,12 @@ public class FightTracker
         currentFight.setBossNpcId(bossNpcId);
 
         String localPlayerName = client.getLocalPlayer() != null ? client.getLocalPlayer().getName() : "Unknown";
+        int localPlayerId = actors.playerId(localPlayerName);
         currentFight.setLocalPlayerName(localPlayerName);
+        currentFight.setLocalPlayerId(localPlayerId);
 
         log.debug("Started new fight: {} ({})", bossName, bossNpcId);
+        loadSavedBossStats(bossNpcId);
 
         // Initialize Overall if it doesn't exist
         if (overallFight == null || !overallFight.isActive())
@@ -66,9 +102,13 @@ public class FightTracker
             overallFight = new Fight(currentTick);
             overallFight.setBossName("Overall");
             overallFight.setLocalPlayerName(localPlayerName);
+            overallFight.setLocalPlayerId(localPlayerId);
             log.debug("Initialized Overall tracking");
         }
 
+        // Overall reads this fight's stats live until it ends
+        currentFight.linkInto(overallFight);
+
         // Clear damaged NPC tracking for new fight
         if (plugin.getCombatEventListener() != null)
         {
@@ -90,11 +130,12 @@ public class FightTracker
 
         currentFight.endFight(currentTick);
 
-        // Lock current fight stats into Overall's base (so next fight adds to this)
+        // Lock current fight stats into Overall (so next fight adds to this)
         if (overallFight != null && overallFight.isActive())
         {
             lockCurrentIntoOverall();
         }
+        currentFight.linkInto(null);
 
         // Check minimum duration requirement (in ticks)
         int minDurationTicks = plugin.getConfig().minimumFightTime();
@@ -136,6 +177,13 @@ public class FightTracker
         overallFight = new Fight(currentTick);
         overallFight.setBossName("Overall");
         overallFight.setLocalPlayerName(localPlayerName);
+        overallFight.setLocalPlayerId(actors.playerId(localPlayerName));
+
+        // A fight in progress keeps counting towards the new Overall
+        if (currentFight != null && currentFight.isActive())
+        {
+            currentFight.linkInto(overallFight);
+        }
 
         clearHistory();
         log.debug("Reset overall tracking");
@@ -154,13 +202,11 @@ public class FightTracker
             currentFight.updateCurrentTick(currentTick);
 
             // Mark Overall as in combat and update its ticks
+            // Its player stats need no work here: they add the linked current fight's values on read
             if (overallFight != null && overallFight.isActive())
             {
                 overallFight.setInCombat(true);
                 overallFight.updateCurrentTick(currentTick);
-
-                // Update Overall = base Overall + current fight (every tick for real-time)
-                syncOverallWithCurrent();
             }
         }
         else
@@ -172,32 +218,83 @@ public class FightTracker
                 overallFight.updateCurrentTick(currentTick);
             }
         }
+
+        publishSnapshot();
     }
 
     /**
-     * Sync Overall stats to show base + current fight in real-time
-     * This creates the "Overall = Overall + CurrentFight" effect
+     * Latest published snapshot; safe to call from any thread
      */
-    private void syncOverallWithCurrent()
+    public TrackerSnapshot getSnapshot()
     {
-        if (currentFight == null || overallFight == null)
+        return snapshot.get();
+    }
+
+    /**
+     * Republish after fight stats changed outside the tracker, e.g. back-filled metrics
+     * @param historyChanged whether fights in history were affected
+     */
+    public void invalidateSnapshot(boolean historyChanged)
+    {
+        snapshotDirty = true;
+        if (historyChanged)
+        {
+            // Ended fights whose metrics were back-filled are saved again, so the log keeps the final numbers
+            fightHistory.refreshSnapshots(currentTick, this::saveFight);
+        }
+        publishSnapshot();
+    }
+
+    /**
+     * Build and publish a new snapshot if anything may have changed
+     * Active fights change every tick (at least their duration), so they're republished once per tick;
+     * otherwise only after a structural change.
+     */
+    private void publishSnapshot()
+    {
+        if (!snapshotDirty && (!hasActiveFight() || snapshotTick == currentTick))
         {
             return;
         }
 
-        // For each player in current fight, update Overall to show cumulative stats
-        for (String playerName : currentFight.getPlayerStats().keySet())
+        // The history view is only replaced when history changes, so unchanged history is shared between snapshots
+        snapshot.set(new TrackerSnapshot(
+                ++snapshotVersion,
+                currentTick,
+                currentFight != null ? currentFight.snapshot(currentTick) : null,
+                overallFight != null ? overallFight.snapshot(currentTick) : null,
+                fightHistory.snapshots(),
+                currentBossStats()));
+
+        snapshotTick = currentTick;
+        snapshotDirty = false;
+    }
+
+    /**
+     * The local player's stats at the current fight's boss, summarized again only after the index changed
+     */
+    private BossStatsSummary currentBossStats()
+    {
+        if (currentFight == null)
         {
-            PlayerStats currentStats = currentFight.getPlayerStats().get(playerName);
-            PlayerStats overallStats = overallFight.getOrCreatePlayerStats(playerName);
+            return null;
+        }
 
-            // Calculate what Overall should show: base + current
-            overallStats.syncWithCurrentFight(currentStats, currentTick);
+        int bossNpcId = currentFight.getBossNpcId();
+        String playerName = currentFight.getLocalPlayerName();
+        if (bossNpcId != summaryBossNpcId || !Objects.equals(playerName, summaryPlayerName)
+                || bossStats.getVersion() != summaryVersion)
+        {
+            bossStatsSummary = bossStats.summarize(bossNpcId, playerName);
+            summaryBossNpcId = bossNpcId;
+            summaryPlayerName = playerName;
+            summaryVersion = bossStats.getVersion();
         }
+        return bossStatsSummary;
     }
 
     /**
-     * Lock current fight stats into Overall's base values
+     * Lock current fight stats into Overall's locked-in values
      * Called when a fight ends
      */
     private void lockCurrentIntoOverall()
@@ -207,47 +304,63 @@ public class FightTracker
             return;
         }
 
-        // Lock current fight stats into Overall's permanent base
-        for (String playerName : currentFight.getPlayerStats().keySet())
+        // Permanently add the finished fight to Overall, replacing the live link
+        for (int i = 0; i < currentFight.getPlayerCount(); i++)
         {
-            PlayerStats currentStats = currentFight.getPlayerStats().get(playerName);
-            PlayerStats overallStats = overallFight.getOrCreatePlayerStats(playerName);
-
-            // Permanently add current fight to Overall's base
+            PlayerStats currentStats = currentFight.getPlayer(i);
+            PlayerStats overallStats = overallFight.getOrCreatePlayerStats(currentStats.getPlayerId(), currentStats.getPlayerName());
             overallStats.lockInFightStats(currentStats);
         }
 
-        log.debug("Locked current fight into Overall base");
+        log.debug("Locked current fight into Overall");
     }
 
     /**
      * Add damage dealt for a player
+     * @param playerId the player's id in getActors()
      */
-    public void addDamageDealt(String playerName, int damage, String target)
+    public void addDamageDealt(int playerId, int damage, int targetId)
     {
         // Add to current fight only
-        if (currentFight != null && currentFight.isActive())
+        if (currentFight != null && currentFight.isActive() && playerId != ActorRegistry.UNKNOWN)
         {
-            PlayerStats stats = currentFight.getOrCreatePlayerStats(playerName);
-            stats.addDamageDealt(damage, currentTick, target);
+            PlayerStats stats = currentFight.getOrCreatePlayerStats(playerId, actors.getName(playerId));
+            stats.addDamageDealt(damage, currentTick, targetId);
         }
 
-        // Overall gets updated via syncOverallWithCurrent() every tick
+        // Overall reads the current fight's stats through its live link
+    }
+
+    /**
+     * Add damage dealt for a player identified by name
+     */
+    public void addDamageDealt(String playerName, int damage, int targetId)
+    {
+        addDamageDealt(actors.playerId(playerName), damage, targetId);
     }
 
     /**
      * Record an attack for tick loss calculation
+     * @param playerId the player's id in getActors()
      */
-    public void recordAttack(String playerName, int weaponSpeed)
+    public void recordAttack(int playerId, int weaponSpeed)
     {
         // Add to current fight only
-        if (currentFight != null && currentFight.isActive())
+        if (currentFight != null && currentFight.isActive() && playerId != ActorRegistry.UNKNOWN)
         {
-            PlayerStats stats = currentFight.getOrCreatePlayerStats(playerName);
+            PlayerStats stats = currentFight.getOrCreatePlayerStats(playerId, actors.getName(playerId));
             stats.recordAttack(weaponSpeed, currentTick);
         }
 
-        // Overall gets updated via syncOverallWithCurrent() every tick
+        // Overall reads the current fight's stats through its live link
+    }
+
+    /**
+     * Record an attack for a player identified by name
+     */
+    public void recordAttack(String playerName, int weaponSpeed)
+    {
+        recordAttack(actors.playerId(playerName), weaponSpeed);
     }
 
     /**
@@ -263,16 +376,153 @@ public class FightTracker
      */
     private void addToHistory(Fight fight)
     {
-        fightHistory.add(0, fight); // Add to beginning
+        // Drops the oldest fight once the history is full
+        FightSnapshot fightSnapshot = fight.snapshot(currentTick);
+        fightHistory.add(fight, fightSnapshot);
+        bossStats.addFight(fight);
+
+        log.debug("Added fight to history. Total: {}", fightHistory.size());
+
+        saveFight(fightSnapshot);
+        enforceDetailBudget();
+    }
+
+    /**
+     * Queue an ended fight to be saved, if enabled
+     * Saved on the store's writer thread from the fight's immutable snapshot
+     */
+    private void saveFight(FightSnapshot fightSnapshot)
+    {
+        if (historyStore != null && plugin.getConfig().saveFightHistory())
+        {
+            historyStore.append(fightSnapshot);
+        }
+    }
 
-        // Limit history size
+    /**
+     * Add fights saved in earlier sessions, oldest first
+     * They go behind any fights already ended this session; they're not added to bossStats, which gets a boss's
+     * saved fights through loadSavedBossStats()
+     */
+    public void restoreHistory(List<Fight> savedFights)
+    {
+        if (savedFights == null || savedFights.isEmpty())
+        {
+            return;
+        }
+
+        List<Fight> sessionFights = fightHistory.asList();
+        fightHistory.clear();
+        for (Fight fight : savedFights)
+        {
+            fightHistory.add(fight, fight.snapshot(currentTick));
+        }
+        for (int i = sessionFights.size() - 1; i >= 0; i--)
+        {
+            Fight fight = sessionFights.get(i);
+            fightHistory.add(fight, fight.snapshot(currentTick));
+        }
+
+        log.debug("Restored {} saved fights", savedFights.size());
+        updatePanel();
+    }
+
+    /**
+     * Index a boss's fights saved in earlier sessions, once per session, the first time it is fought
+     * Only that boss's records are read, on the store's writer thread, then merged in on the client thread.
+     * Fights ended this session are already in bossStats and aren't read back, as they were saved after opening.
+     */
+    private void loadSavedBossStats(int bossNpcId)
+    {
+        if (historyStore == null || !plugin.getConfig().saveFightHistory() || !savedBossStatsLoaded.add(bossNpcId))
+        {
+            return;
+        }
+
+        BossStatsIndex savedStats = new BossStatsIndex();
+        historyStore.forEachSaved(bossNpcId, savedStats::addFight)
+                .thenRun(() -> plugin.getClientThread().invokeLater(() -> mergeSavedBossStats(savedStats)))
+                .exceptionally(ex ->
+                {
+                    log.warn("Failed to load saved fights for boss {}", bossNpcId, ex);
+                    return null;
+                });
+    }
+
+    private void mergeSavedBossStats(BossStatsIndex savedStats)
+    {
+        bossStats.merge(savedStats);
+        updatePanel();
+    }
+
+    /**
+     * Apply a changed maxSessionHistory; the oldest fights are dropped if it shrank
+     */
+    public void resizeHistory()
+    {
         int maxHistory = plugin.getConfig().maxSessionHistory();
-        while (fightHistory.size() > maxHistory)
+        if (maxHistory == fightHistory.capacity())
         {
-            fightHistory.remove(fightHistory.size() - 1);
+            return;
         }
 
-        log.debug("Added fight to history. Total: {}", fightHistory.size());
+        fightHistory.resize(maxHistory);
+        log.debug("Resized fight history to {}", maxHistory);
+        updatePanel();
+    }
+
+    /**
+     * Keep the per-hit damage detail held in memory within the configured budget
+     * Past fights are spilled to disk oldest first; the current fight always stays in memory
+     */
+    public void enforceDetailBudget()
+    {
+        int budget = plugin.getConfig().maxDetailEvents();
+
+        int resident = residentDetailEvents(currentFight);
+        for (int i = 0; i < fightHistory.size(); i++)
+        {
+            Fight fight = fightHistory.get(i);
+            if (fight != currentFight)
+            {
+                resident += residentDetailEvents(fight);
+            }
+        }
+
+        // History is newest first, so walk it from the end
+        for (int i = fightHistory.size() - 1; i >= 0 && resident > budget; i--)
+        {
+            Fight fight = fightHistory.get(i);
+            if (fight == currentFight)
+            {
+                continue;
+            }
+
+            for (int p = 0; p < fight.getPlayerCount(); p++)
+            {
+                resident -= fight.getPlayer(p).spillDetail(detailSpill);
+            }
+        }
+
+        if (resident > budget)
+        {
+            log.debug("Damage detail over budget after spilling: {} > {}", resident, budget);
+        }
+    }
+
+    private static int residentDetailEvents(Fight fight)
+    {
+        if (fight == null)
+        {
+            return 0;
+        }
+
+        int resident = 0;
+        for (int i = 0; i < fight.getPlayerCount(); i++)
+        {
+            resident += fight.getPlayer(i).getResidentDetailEvents();
+        }
+        return resident;
     }
 
     /**
@@ -286,18 +536,21 @@ public class FightTracker
     }
 
     /**
-     * Get fight history (immutable)
+     * Get fight history, newest first (immutable view, safe to read from any thread)
      */
     public List<Fight> getFightHistory()
     {
-        return Collections.unmodifiableList(fightHistory);
+        return fightHistory.asList();
     }
 
     /**
-     * Update UI panel
+     * Publish the change and update the UI panel
      */
     private void updatePanel()
     {
+        snapshotDirty = true;
+        publishSnapshot();
+
         if (plugin.getPanel() != null)
         {
             plugin.getPanel().updatePanel();
@@ -0,0 +1,133 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+/**
+ * Exact damage distribution of an NPC attack against the player
+ *
+ * A roll misses with probability (1 - hit chance) and deals 0; a successful roll deals 0..max hit uniformly, then
+ * any damage reduction (e.g. protection prayers) is applied per value. Sums of up to MAX_HITS attacks are built by
+ * convolution when the distribution is created, and stored as tail sums so death chances are a single array read.
+ *
+ * Totals are capped at MAX_DAMAGE: everything above is folded into the last bucket, which is exact for any
+ * question about HP up to MAX_DAMAGE.
+ */
+public final class HitDistribution
+{
+    // Above the highest reachable boosted hitpoints level
+    public static final int MAX_DAMAGE = 127;
+    public static final int MAX_HITS = 4;
+
+    private final int maxHit;
+    private final double[] pmf;
+
+    // tails[k - 1][h] = P(total damage of k hits >= h), for h in 0..MAX_DAMAGE
+    private final double[][] tails;
+
+    private HitDistribution(int maxHit, double[] pmf)
+    {
+        this.maxHit = maxHit;
+        this.pmf = pmf;
+        this.tails = new double[MAX_HITS][];
+
+        double[] total = pmf;
+        for (int k = 0; k < MAX_HITS; k++)
+        {
+            if (k > 0)
+            {
+                total = convolve(total, pmf);
+            }
+            tails[k] = tailSums(total);
+        }
+    }
+
+    /**
+     * Build the distribution of one attack
+     * @param maxHit           the attack's max hit before reductions
+     * @param hitChance        chance that the attack roll succeeds
+     * @param damageMultiplier multiplier applied to each damage value (rounded down), 1.0 for none
+     */
+    public static HitDistribution forAttack(int maxHit, double hitChance, double damageMultiplier)
+    {
+        maxHit = Math.max(0, maxHit);
+        hitChance = Math.min(1.0, Math.max(0.0, hitChance));
+
+        double[] pmf = new double[MAX_DAMAGE + 1];
+        double perValue = hitChance / (maxHit + 1);
+
+        pmf[0] = 1.0 - hitChance;
+        for (int roll = 0; roll <= maxHit; roll++)
+        {
+            int damage = damageMultiplier == 1.0 ? roll : (int) (roll * damageMultiplier);
+            pmf[Math.min(damage, MAX_DAMAGE)] += perValue;
+        }
+
+        return new HitDistribution(maxHit, pmf);
+    }
+
+    /**
+     * Distribution of the sum of two independent attacks, with totals above MAX_DAMAGE folded into the last bucket
+     */
+    public static double[] convolve(double[] a, double[] b)
+    {
+        double[] result = new double[MAX_DAMAGE + 1];
+        for (int i = 0; i < a.length; i++)
+        {
+            if (a[i] == 0.0)
+            {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++)
+            {
+                result[Math.min(i + j, MAX_DAMAGE)] += a[i] * b[j];
+            }
+        }
+        return result;
+    }
+
+    private static double[] tailSums(double[] distribution)
+    {
+        double[] tail = new double[MAX_DAMAGE + 1];
+        double sum = 0.0;
+        for (int h = MAX_DAMAGE; h >= 0; h--)
+        {
+            sum += distribution[h];
+            // Clamp rounding drift so P(total >= 0) is never reported above 1
+            tail[h] = Math.min(1.0, sum);
+        }
+        return tail;
+    }
+
+    /**
+     * Max hit before damage reductions
+     */
+    public int getMaxHit()
+    {
+        return maxHit;
+    }
+
+    /**
+     * Probability that one attack deals exactly the given damage
+     */
+    public double probability(int damage)
+    {
+        return damage < 0 || damage > MAX_DAMAGE ? 0.0 : pmf[damage];
+    }
+
+    /**
+     * Probability that the next hits attacks deal at least hp damage in total, i.e. kill a player on hp hitpoints
+     * @param hits number of attacks, 1..MAX_HITS
+     */
+    public double deathChance(int hits, int hp)
+    {
+        if (hits < 1 || hits > MAX_HITS)
+        {
+            throw new IllegalArgumentException("hits must be between 1 and " + MAX_HITS + ": " + hits);
+        }
+
+        if (hp <= 0)
+        {
+            return 1.0;
+        }
+        // HP above the cap isn't reachable in game; the capped bucket is an upper bound for it
+        return tails[hits - 1][Math.min(hp, MAX_DAMAGE)];
+    }
+}
@@ -0,0 +1,165 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int -> int hash map with linear probing
+ * Avoids the boxed keys, values and entry objects of a HashMap<Integer, Integer>
+ */
+public class IntIntMap
+{
+    // Marks an unused slot; Integer.MIN_VALUE is never a valid key
+    private static final int FREE_KEY = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int missingValue;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * @param expectedSize number of entries to size the table for
+     * @param missingValue value returned by get() for keys that are not present
+     */
+    public IntIntMap(int expectedSize, int missingValue)
+    {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int get(int key)
+    {
+        if (key == FREE_KEY)
+        {
+            return missingValue;
+        }
+
+        int slot = slot(key);
+        while (true)
+        {
+            int k = keys[slot];
+            if (k == key)
+            {
+                return values[slot];
+            }
+            if (k == FREE_KEY)
+            {
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(int key)
+    {
+        if (key == FREE_KEY)
+        {
+            return false;
+        }
+
+        int slot = slot(key);
+        while (true)
+        {
+            int k = keys[slot];
+            if (k == key)
+            {
+                return true;
+            }
+            if (k == FREE_KEY)
+            {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Insert or replace a mapping
+     * @return the previous value, or the missing value if the key was not present
+     */
+    public int put(int key, int value)
+    {
+        if (key == FREE_KEY)
+        {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+
+        int slot = slot(key);
+        while (true)
+        {
+            int k = keys[slot];
+            if (k == key)
+            {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            if (k == FREE_KEY)
+            {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > resizeThreshold)
+                {
+                    rehash(keys.length * 2);
+                }
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+    }
+
+    private int slot(int key)
+    {
+        // Fibonacci hashing so sequential ids spread over the table
+        int h = key * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private void rehash(int newCapacity)
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(newCapacity);
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != FREE_KEY)
+            {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize)
+    {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR) + 1;
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        return (int) Math.min(capacity, 1 << 30);
+    }
+}
@@ -0,0 +1,164 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Aho-Corasick matcher over a fixed set of patterns, each tagged with bit flags
+ *
+ * match() scans the text once and returns the union of the flags of every pattern that occurs in it, however many
+ * patterns there are. Matching is case-sensitive, like String.contains. Immutable once built.
+ */
+public class MultiPatternMatcher
+{
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+
+    // Trie edges: for each node, the labels and targets of its children (small, so scanned linearly)
+    private final char[][] edgeLabels;
+    private final int[][] edgeTargets;
+    private final int[] edgeCounts;
+
+    // Longest proper suffix of the node's string that is also a trie node
+    private final int[] failure;
+
+    // Flags of every pattern ending at the node, including through failure links
+    private final int[] output;
+
+    private int nodeCount;
+
+    /**
+     * @param patterns pattern -> flags it contributes when found
+     */
+    public MultiPatternMatcher(Map<String, Integer> patterns)
+    {
+        int capacity = 1;
+        for (String pattern : patterns.keySet())
+        {
+            capacity += pattern.length();
+        }
+
+        edgeLabels = new char[capacity][];
+        edgeTargets = new int[capacity][];
+        edgeCounts = new int[capacity];
+        failure = new int[capacity];
+        output = new int[capacity];
+        nodeCount = 1;
+
+        for (Map.Entry<String, Integer> pattern : patterns.entrySet())
+        {
+            insert(pattern.getKey(), pattern.getValue());
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * Union of the flags of all patterns contained in the text, 0 if none
+     */
+    public int match(String text)
+    {
+        int flags = output[ROOT];
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            int next = child(node, c);
+            while (next == NO_NODE && node != ROOT)
+            {
+                node = failure[node];
+                next = child(node, c);
+            }
+            node = next == NO_NODE ? ROOT : next;
+            flags |= output[node];
+        }
+        return flags;
+    }
+
+    private void insert(String pattern, int flags)
+    {
+        int node = ROOT;
+        for (int i = 0; i < pattern.length(); i++)
+        {
+            char c = pattern.charAt(i);
+            int next = child(node, c);
+            if (next == NO_NODE)
+            {
+                next = nodeCount++;
+                addChild(node, c, next);
+            }
+            node = next;
+        }
+        output[node] |= flags;
+    }
+
+    /**
+     * Breadth-first, so a node's failure target is always finished before the node itself
+     */
+    private void buildFailureLinks()
+    {
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+
+        for (int e = 0; e < edgeCounts[ROOT]; e++)
+        {
+            int child = edgeTargets[ROOT][e];
+            failure[child] = ROOT;
+            queue[tail++] = child;
+        }
+
+        while (head < tail)
+        {
+            int node = queue[head++];
+            for (int e = 0; e < edgeCounts[node]; e++)
+            {
+                char c = edgeLabels[node][e];
+                int child = edgeTargets[node][e];
+
+                int fallback = failure[node];
+                int target = child(fallback, c);
+                while (target == NO_NODE && fallback != ROOT)
+                {
+                    fallback = failure[fallback];
+                    target = child(fallback, c);
+                }
+
+                failure[child] = target == NO_NODE ? ROOT : target;
+                output[child] |= output[failure[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private int child(int node, char c)
+    {
+        char[] labels = edgeLabels[node];
+        for (int e = 0; e < edgeCounts[node]; e++)
+        {
+            if (labels[e] == c)
+            {
+                return edgeTargets[node][e];
+            }
+        }
+        return NO_NODE;
+    }
+
+    private void addChild(int node, char c, int child)
+    {
+        int count = edgeCounts[node];
+        if (edgeLabels[node] == null)
+        {
+            edgeLabels[node] = new char[2];
+            edgeTargets[node] = new int[2];
+        }
+        else if (count == edgeLabels[node].length)
+        {
+            edgeLabels[node] = Arrays.copyOf(edgeLabels[node], count * 2);
+            edgeTargets[node] = Arrays.copyOf(edgeTargets[node], count * 2);
+        }
+
+        edgeLabels[node][count] = c;
+        edgeTargets[node][count] = child;
+        edgeCounts[node] = count + 1;
+    }
+}
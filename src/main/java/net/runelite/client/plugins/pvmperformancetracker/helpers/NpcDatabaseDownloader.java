@@ -0,0 +1,441 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Downloads the monster database into the cache
+ *
+ * - Conditional requests (ETag / Last-Modified kept in a sidecar file), so unchanged data costs one 304
+ * - gzip transfer encoding for full downloads
+ * - Interrupted downloads are kept as a .part file and resumed with a Range request
+ * - The finished file is moved into place atomically, so a failed download never replaces a good cache
+ */
+@Slf4j
+public class NpcDatabaseDownloader
+{
+    public enum Result
+    {
+        DOWNLOADED,
+        NOT_MODIFIED,
+        FAILED
+    }
+
+    private static final String USER_AGENT = "RuneLite-PvMTracker/1.0";
+    private static final int CONNECT_TIMEOUT = 30000;
+    private static final int READ_TIMEOUT = 60000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 2000;
+
+    // Sidecar keys
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String LAST_CHECKED = "lastChecked";
+    private static final String PART_VALIDATOR = "partValidator";
+
+    private final String url;
+    private final Path targetFile;
+    private final Path partFile;
+    private final Path metadataFile;
+    private final long minimumSize;
+    private final long retryDelayMs;
+
+    public NpcDatabaseDownloader(String url, Path targetFile, long minimumSize)
+    {
+        this(url, targetFile, minimumSize, RETRY_DELAY_MS);
+    }
+
+    NpcDatabaseDownloader(String url, Path targetFile, long minimumSize, long retryDelayMs)
+    {
+        this.url = url;
+        this.targetFile = targetFile;
+        this.partFile = targetFile.resolveSibling(targetFile.getFileName() + ".part");
+        this.metadataFile = targetFile.resolveSibling(targetFile.getFileName() + ".meta");
+        this.minimumSize = minimumSize;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /**
+     * When the cached file was last confirmed to be current, either by downloading it or by a 304
+     * Falls back to the file's modification time if there is no sidecar yet
+     */
+    public long getLastChecked() throws IOException
+    {
+        String lastChecked = loadMetadata().getProperty(LAST_CHECKED);
+        if (lastChecked != null)
+        {
+            try
+            {
+                return Long.parseLong(lastChecked);
+            }
+            catch (NumberFormatException e)
+            {
+                log.debug("Invalid last checked time in download metadata: {}", lastChecked);
+            }
+        }
+        return Files.getLastModifiedTime(targetFile).toMillis();
+    }
+
+    /**
+     * Bring the cached file up to date, retrying a few times on connection problems
+     */
+    public Result download()
+    {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++)
+        {
+            try
+            {
+                return attemptDownload();
+            }
+            catch (IOException e)
+            {
+                log.warn("Download attempt {}/{} of OSRSBox database failed: {}", attempt, MAX_ATTEMPTS, e.getMessage());
+            }
+
+            if (attempt < MAX_ATTEMPTS)
+            {
+                try
+                {
+                    Thread.sleep(retryDelayMs * attempt);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return Result.FAILED;
+                }
+            }
+        }
+
+        log.error("Failed to download OSRSBox database after {} attempts", MAX_ATTEMPTS);
+        return Result.FAILED;
+    }
+
+    private Result attemptDownload() throws IOException
+    {
+        Properties metadata = loadMetadata();
+
+        long partSize = Files.exists(partFile) ? Files.size(partFile) : 0;
+        String partValidator = metadata.getProperty(PART_VALIDATOR);
+        boolean resuming = partSize > 0 && partValidator != null;
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try
+        {
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            connection.setRequestProperty("User-Agent", USER_AGENT);
+            connection.setRequestProperty("Accept", "application/json");
+
+            if (resuming)
+            {
+                // Byte ranges refer to the uncompressed file, so resumes are never gzipped
+                log.info("Resuming OSRSBox database download at {} bytes", partSize);
+                connection.setRequestProperty("Accept-Encoding", "identity");
+                connection.setRequestProperty("Range", "bytes=" + partSize + "-");
+                connection.setRequestProperty("If-Range", partValidator);
+            }
+            else
+            {
+                connection.setRequestProperty("Accept-Encoding", "gzip");
+                if (Files.exists(targetFile))
+                {
+                    String etag = metadata.getProperty(ETAG);
+                    String lastModified = metadata.getProperty(LAST_MODIFIED);
+                    if (etag != null)
+                    {
+                        connection.setRequestProperty("If-None-Match", etag);
+                    }
+                    if (lastModified != null)
+                    {
+                        connection.setRequestProperty("If-Modified-Since", lastModified);
+                    }
+                }
+            }
+
+            int responseCode = connection.getResponseCode();
+            switch (responseCode)
+            {
+                case HttpURLConnection.HTTP_NOT_MODIFIED:
+                    log.info("OSRSBox database is unchanged");
+                    metadata.setProperty(LAST_CHECKED, Long.toString(System.currentTimeMillis()));
+                    saveMetadata(metadata);
+                    return Result.NOT_MODIFIED;
+
+                case HttpURLConnection.HTTP_OK:
+                    // Either a fresh download, or the file changed since the partial download started
+                    startPart(metadata, connection);
+                    receive(connection, false);
+                    break;
+
+                case HttpURLConnection.HTTP_PARTIAL:
+                    if (!resuming || parseRangeStart(connection.getHeaderField("Content-Range")) != partSize)
+                    {
+                        discardPart(metadata);
+                        throw new IOException("Unexpected partial response: " + connection.getHeaderField("Content-Range"));
+                    }
+                    receive(connection, true);
+                    break;
+
+                case 416: // Range Not Satisfiable
+                    if (!resuming || parseCompleteLength(connection.getHeaderField("Content-Range")) != partSize)
+                    {
+                        discardPart(metadata);
+                        throw new IOException("Partial download is no longer valid");
+                    }
+                    // The partial file already holds everything
+                    break;
+
+                default:
+                    throw new IOException("HTTP " + responseCode);
+            }
+
+            return finish(metadata, connection);
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Start a new .part file for a full (200) response and remember how to resume it
+     */
+    private void startPart(Properties metadata, HttpURLConnection connection) throws IOException
+    {
+        Files.deleteIfExists(partFile);
+
+        String validator = resumeValidator(connection);
+        if (validator != null)
+        {
+            metadata.setProperty(PART_VALIDATOR, validator);
+        }
+        else
+        {
+            metadata.remove(PART_VALIDATOR);
+        }
+        // The new file's validators are only recorded once it is complete
+        metadata.remove(ETAG);
+        metadata.remove(LAST_MODIFIED);
+        saveMetadata(metadata);
+
+        long contentLength = connection.getContentLengthLong();
+        log.info("Downloading {} bytes{}...", contentLength > 0 ? contentLength : "unknown size",
+                isGzip(connection) ? " (gzip)" : "");
+    }
+
+    /**
+     * Stream the response body into the .part file
+     * The file is left in place on failure so the next attempt can resume it
+     */
+    private void receive(HttpURLConnection connection, boolean append) throws IOException
+    {
+        long expected = isGzip(connection) ? -1 : connection.getContentLengthLong();
+        long received = 0;
+        int lastLoggedMB = 0;
+
+        StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+
+        try (InputStream raw = new BufferedInputStream(connection.getInputStream(), 65536);
+             InputStream in = isGzip(connection) ? new GZIPInputStream(raw, 65536) : raw;
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(partFile,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode), 65536))
+        {
+            byte[] buffer = new byte[65536]; // 64KB buffer
+            int bytesRead;
+
+            while ((bytesRead = in.read(buffer)) != -1)
+            {
+                out.write(buffer, 0, bytesRead);
+                received += bytesRead;
+
+                // Log progress every MB
+                int currentMB = (int) (received / 1000000);
+                if (currentMB > lastLoggedMB)
+                {
+                    log.info("Downloaded {} MB...", currentMB);
+                    lastLoggedMB = currentMB;
+                }
+            }
+        }
+
+        if (expected >= 0 && received < expected)
+        {
+            throw new IOException("Connection closed after " + received + " of " + expected + " bytes");
+        }
+    }
+
+    /**
+     * Validate the completed .part file and move it over the cache
+     */
+    private Result finish(Properties metadata, HttpURLConnection connection) throws IOException
+    {
+        long size = Files.size(partFile);
+        if (size < minimumSize)
+        {
+            discardPart(metadata);
+            throw new IOException("Download too small: got " + size + " bytes, expected at least " + minimumSize);
+        }
+
+        try
+        {
+            Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        String etag = connection.getHeaderField("ETag");
+        String partValidator = (String) metadata.remove(PART_VALIDATOR);
+        if (etag == null && partValidator != null && partValidator.startsWith("\""))
+        {
+            // A 416 for an already complete file may not repeat the ETag
+            etag = partValidator;
+        }
+        setOrRemove(metadata, ETAG, etag);
+        setOrRemove(metadata, LAST_MODIFIED, connection.getHeaderField("Last-Modified"));
+        metadata.setProperty(LAST_CHECKED, Long.toString(System.currentTimeMillis()));
+        saveMetadata(metadata);
+
+        log.info("Successfully downloaded OSRSBox database ({} bytes, {} MB)", size, size / 1000000);
+        return Result.DOWNLOADED;
+    }
+
+    private void discardPart(Properties metadata) throws IOException
+    {
+        Files.deleteIfExists(partFile);
+        metadata.remove(PART_VALIDATOR);
+        saveMetadata(metadata);
+    }
+
+    private Properties loadMetadata() throws IOException
+    {
+        Properties metadata = new Properties();
+        if (Files.exists(metadataFile))
+        {
+            try (Reader reader = Files.newBufferedReader(metadataFile, StandardCharsets.UTF_8))
+            {
+                metadata.load(reader);
+            }
+            catch (IllegalArgumentException e)
+            {
+                log.warn("Ignoring malformed download metadata", e);
+                metadata.clear();
+            }
+        }
+        return metadata;
+    }
+
+    private void saveMetadata(Properties metadata) throws IOException
+    {
+        try (Writer writer = Files.newBufferedWriter(metadataFile, StandardCharsets.UTF_8))
+        {
+            metadata.store(writer, "OSRSBox database download state");
+        }
+    }
+
+    /**
+     * A strong ETag, or failing that the Last-Modified date, usable in If-Range
+     */
+    private static String resumeValidator(HttpURLConnection connection)
+    {
+        if (isGzip(connection))
+        {
+            return null; // Offsets in the .part file don't match the encoded response
+        }
+
+        String etag = connection.getHeaderField("ETag");
+        if (etag != null && !etag.startsWith("W/"))
+        {
+            return etag;
+        }
+        return connection.getHeaderField("Last-Modified");
+    }
+
+    private static boolean isGzip(HttpURLConnection connection)
+    {
+        return "gzip".equalsIgnoreCase(connection.getContentEncoding());
+    }
+
+    /**
+     * First byte position of "bytes start-end/total", or -1
+     */
+    private static long parseRangeStart(String contentRange)
+    {
+        if (contentRange == null || !contentRange.startsWith("bytes "))
+        {
+            return -1;
+        }
+
+        int dash = contentRange.indexOf('-');
+        if (dash < 0)
+        {
+            return -1;
+        }
+
+        try
+        {
+            return Long.parseLong(contentRange.substring(6, dash).trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * Complete length at the end of a Content-Range header, or -1
+     */
+    private static long parseCompleteLength(String contentRange)
+    {
+        if (contentRange == null)
+        {
+            return -1;
+        }
+
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0)
+        {
+            return -1;
+        }
+
+        try
+        {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    private static void setOrRemove(Properties properties, String key, String value)
+    {
+        if (value != null)
+        {
+            properties.setProperty(key, value);
+        }
+        else
+        {
+            properties.remove(key);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.plugins.pvmperformancetracker.PvMPerformanceTrackerPlugin;
+import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Holds expected damage and death chance calculations that arrived before the NPC's stats were loaded
+ * Everything is queued and drained on the client thread, so no synchronization is needed.
+ * Prayers and levels are the ones captured when the entry was queued; back-filled expected damage uses the player's
+ * gear at drain time, which is normally a few seconds later.
+ */
+@Slf4j
+public class NpcMetricsBackfill
+{
+    // Enough for several minutes of combat; the oldest entries are dropped beyond this
+    private static final int MAX_PENDING = 4096;
+
+    private final PvMPerformanceTrackerPlugin plugin;
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private int dropped;
+
+    public NpcMetricsBackfill(PvMPerformanceTrackerPlugin plugin)
+    {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queue an expected damage calculation for an attack
+     * Consecutive attacks with the same style are coalesced into one entry
+     */
+    public void queueExpectedDamage(Fight fight, PlayerStats stats, String attackStyle, CombatStateSnapshot state)
+    {
+        Pending last = pending.peekLast();
+        if (last instanceof PendingExpectedDamage)
+        {
+            PendingExpectedDamage expected = (PendingExpectedDamage) last;
+            if (expected.stats == stats && expected.fight == fight && expected.state == state
+                    && expected.attackStyle.equals(attackStyle))
+            {
+                expected.count++;
+                return;
+            }
+        }
+
+        add(new PendingExpectedDamage(fight, overallFight(), stats, attackStyle, state));
+    }
+
+    /**
+     * Queue a death chance calculation for a hit the local player took
+     */
+    public void queueDeathChance(Fight fight, PlayerStats stats, int currentHp, CombatStateSnapshot state, int damage)
+    {
+        add(new PendingDeathChance(fight, overallFight(), stats, currentHp, state, damage));
+    }
+
+    /**
+     * Apply every queued calculation whose NPC stats are now available
+     */
+    public void drain()
+    {
+        if (pending.isEmpty())
+        {
+            return;
+        }
+
+        NpcStatsProvider provider = plugin.getNpcStatsProvider();
+        CombatFormulas formulas = plugin.getCombatFormulas();
+        if (provider == null || formulas == null)
+        {
+            clear();
+            return;
+        }
+
+        int applied = 0;
+        int waiting = pending.size();
+        for (int i = 0; i < waiting; i++)
+        {
+            Pending entry = pending.pollFirst();
+
+            // Another NPC's entry may still be on its way; keep its calculations for the next drain
+            int npcId = entry.fight.getBossNpcId();
+            if (provider.isPending(npcId))
+            {
+                pending.addLast(entry);
+                continue;
+            }
+
+            NpcCombatStats npcStats = provider.getNpcStats(npcId);
+            entry.apply(npcStats, formulas, plugin.getFightTracker());
+            entry.fight.invalidateSnapshot();
+            applied++;
+        }
+
+        log.debug("Back-filled {} NPC metric calculations ({} dropped, {} still waiting)", applied, dropped, pending.size());
+        dropped = 0;
+    }
+
+    /**
+     * Discard queued calculations, e.g. when the NPC database failed to load
+     */
+    public void clear()
+    {
+        pending.clear();
+        dropped = 0;
+    }
+
+    public int getPendingCount()
+    {
+        return pending.size();
+    }
+
+    private void add(Pending entry)
+    {
+        if (pending.size() >= MAX_PENDING)
+        {
+            pending.pollFirst();
+            dropped++;
+        }
+        pending.addLast(entry);
+    }
+
+    private Fight overallFight()
+    {
+        FightTracker fightTracker = plugin.getFightTracker();
+        return fightTracker != null ? fightTracker.getOverallFight() : null;
+    }
+
+    private abstract static class Pending
+    {
+        final Fight fight;
+        // Overall at queue time; used to tell whether it has been reset since
+        final Fight overall;
+        final PlayerStats stats;
+
+        Pending(Fight fight, Fight overall, PlayerStats stats)
+        {
+            this.fight = fight;
+            this.overall = overall;
+            this.stats = stats;
+        }
+
+        abstract void apply(NpcCombatStats npcStats, CombatFormulas formulas, FightTracker fightTracker);
+
+        /**
+         * Overall stats for the player if this fight has already been locked into the same Overall
+         * Active fights reach Overall through its live link instead
+         */
+        PlayerStats lockedOverallStats(FightTracker fightTracker)
+        {
+            if (fight.isActive() || overall == null || fightTracker == null
+                    || fightTracker.getOverallFight() != overall || !overall.isActive())
+            {
+                return null;
+            }
+            return overall.getOrCreatePlayerStats(stats.getPlayerId(), stats.getPlayerName());
+        }
+    }
+
+    private static class PendingExpectedDamage extends Pending
+    {
+        final String attackStyle;
+        final CombatStateSnapshot state;
+        int count = 1;
+
+        PendingExpectedDamage(Fight fight, Fight overall, PlayerStats stats, String attackStyle, CombatStateSnapshot state)
+        {
+            super(fight, overall, stats);
+            this.attackStyle = attackStyle;
+            this.state = state;
+        }
+
+        @Override
+        void apply(NpcCombatStats npcStats, CombatFormulas formulas, FightTracker fightTracker)
+        {
+            if (npcStats == null)
+            {
+                return; // No stats available for this NPC
+            }
+
+            double expectedDamage = formulas.calculateExpectedDamage(npcStats, attackStyle, state);
+            PlayerStats overallStats = lockedOverallStats(fightTracker);
+
+            for (int i = 0; i < count; i++)
+            {
+                stats.addExpectedDamage(expectedDamage);
+                if (overallStats != null)
+                {
+                    overallStats.addExpectedDamage(expectedDamage);
+                }
+            }
+        }
+    }
+
+    private static class PendingDeathChance extends Pending
+    {
+        final int currentHp;
+        final CombatStateSnapshot state;
+        final int damage;
+
+        PendingDeathChance(Fight fight, Fight overall, PlayerStats stats, int currentHp, CombatStateSnapshot state, int damage)
+        {
+            super(fight, overall, stats);
+            this.currentHp = currentHp;
+            this.state = state;
+            this.damage = damage;
+        }
+
+        @Override
+        void apply(NpcCombatStats npcStats, CombatFormulas formulas, FightTracker fightTracker)
+        {
+            double deathProbability;
+            if (npcStats == null)
+            {
+                // Same rough estimate HitsplatListener uses for NPCs without stats
+                deathProbability = damage >= currentHp ? 0.3 : 0.0;
+            }
+            else
+            {
+                boolean isPrayerActive = CombatFormulas.isProtectedFrom(npcStats, state.getProtectionPrayers());
+                deathProbability = formulas.calculateDeathProbability(currentHp, npcStats, isPrayerActive, state);
+            }
+
+            if (deathProbability > 0.0)
+            {
+                stats.addDeathChance(deathProbability);
+
+                PlayerStats overallStats = lockedOverallStats(fightTracker);
+                if (overallStats != null)
+                {
+                    overallStats.addDeathChance(deathProbability);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import com.google.gson.stream.JsonReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Byte-offset index over the top-level entries of the OSRSBox monster database
+ *
+ * Building the index only scans the bytes for structure (strings, nesting and top-level keys) without
+ * creating any objects, so individual NPCs can then be parsed on demand straight from their offset.
+ */
+@Slf4j
+public class NpcStatsJsonIndex
+{
+    private static final int BUFFER_SIZE = 65536;
+
+    private final Path file;
+    private final IntIntMap offsets;
+
+    private NpcStatsJsonIndex(Path file, IntIntMap offsets)
+    {
+        this.file = file;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Scan the file and record where each NPC entry's value starts
+     * Throws IOException if the file isn't a complete JSON object
+     */
+    public static NpcStatsJsonIndex build(Path file) throws IOException
+    {
+        IntIntMap offsets = new IntIntMap(16384, -1);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("OSRSBox database is too large to index");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] key = new byte[16];
+            int keyLength = 0;
+
+            int position = 0;
+            int depth = 0;
+            boolean started = false;
+            boolean finished = false;
+            boolean inString = false;
+            boolean escaped = false;
+            boolean readingKey = false;
+            boolean expectKey = false;
+            boolean expectValue = false;
+            int pendingId = -1;
+            boolean pendingValid = false;
+
+            while (channel.read(buffer) != -1)
+            {
+                buffer.flip();
+                while (buffer.hasRemaining())
+                {
+                    byte b = buffer.get();
+
+                    if (inString)
+                    {
+                        if (escaped)
+                        {
+                            escaped = false;
+                        }
+                        else if (b == '\\')
+                        {
+                            escaped = true;
+                        }
+                        else if (b == '"')
+                        {
+                            inString = false;
+                            if (readingKey)
+                            {
+                                readingKey = false;
+                                pendingValid = keyLength > 0 && keyLength <= 10;
+                                if (pendingValid)
+                                {
+                                    try
+                                    {
+                                        pendingId = Integer.parseInt(new String(key, 0, keyLength, StandardCharsets.US_ASCII));
+                                    }
+                                    catch (NumberFormatException e)
+                                    {
+                                        pendingValid = false;
+                                    }
+                                }
+                                if (!pendingValid)
+                                {
+                                    log.warn("Invalid NPC ID: {}", new String(key, 0, Math.min(keyLength, key.length), StandardCharsets.UTF_8));
+                                }
+                            }
+                        }
+                        else if (readingKey)
+                        {
+                            if (keyLength < key.length)
+                            {
+                                key[keyLength] = b;
+                            }
+                            keyLength++;
+                        }
+                        position++;
+                        continue;
+                    }
+
+                    if (b == ' ' || b == '\n' || b == '\r' || b == '\t')
+                    {
+                        position++;
+                        continue;
+                    }
+
+                    if (finished)
+                    {
+                        throw new IOException("Unexpected data after the end of the OSRSBox database");
+                    }
+
+                    if (!started)
+                    {
+                        // Skip a UTF-8 byte order mark
+                        if (position < 3 && (b & 0xFF) >= 0xBB)
+                        {
+                            position++;
+                            continue;
+                        }
+                        if (b != '{')
+                        {
+                            throw new IOException("Invalid JSON format - expected object");
+                        }
+                        started = true;
+                        depth = 1;
+                        expectKey = true;
+                        position++;
+                        continue;
+                    }
+
+                    if (expectValue)
+                    {
+                        // First byte of a top-level entry's value
+                        expectValue = false;
+                        if (pendingValid)
+                        {
+                            offsets.put(pendingId, position);
+                        }
+                    }
+
+                    switch (b)
+                    {
+                        case '"':
+                            inString = true;
+                            if (depth == 1 && expectKey)
+                            {
+                                readingKey = true;
+                                keyLength = 0;
+                                expectKey = false;
+                            }
+                            break;
+                        case ':':
+                            if (depth == 1)
+                            {
+                                expectValue = true;
+                            }
+                            break;
+                        case ',':
+                            if (depth == 1)
+                            {
+                                expectKey = true;
+                            }
+                            break;
+                        case '{':
+                        case '[':
+                            depth++;
+                            break;
+                        case '}':
+                        case ']':
+                            depth--;
+                            if (depth == 0)
+                            {
+                                finished = true;
+                            }
+                            else if (depth < 0)
+                            {
+                                throw new IOException("Unbalanced OSRSBox database");
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    position++;
+                }
+                buffer.clear();
+            }
+
+            if (!finished)
+            {
+                throw new IOException("OSRSBox database is truncated");
+            }
+        }
+
+        return new NpcStatsJsonIndex(file, offsets);
+    }
+
+    /**
+     * Number of indexed NPC entries
+     */
+    public int size()
+    {
+        return offsets.size();
+    }
+
+    public boolean contains(int npcId)
+    {
+        return offsets.containsKey(npcId);
+    }
+
+    /**
+     * Parse the given NPCs from their offsets into a standalone store
+     * Ids that aren't in the database, or whose entries fail to parse, are skipped
+     */
+    public NpcStatsStore readRows(Collection<Integer> npcIds) throws IOException
+    {
+        // Visit entries in file order so reads move forward through the file
+        long[] entries = new long[npcIds.size()];
+        int count = 0;
+        for (int npcId : npcIds)
+        {
+            int offset = offsets.get(npcId);
+            if (offset >= 0)
+            {
+                entries[count++] = ((long) offset << 32) | (npcId & 0xFFFFFFFFL);
+            }
+        }
+        entries = Arrays.copyOf(entries, count);
+        Arrays.sort(entries);
+
+        NpcStatsParser parser = new NpcStatsParser();
+        NpcStatsStore.Builder builder = new NpcStatsStore.Builder(count);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            for (long entry : entries)
+            {
+                channel.position(entry >>> 32);
+
+                // The reader buffers ahead, so each entry gets a fresh one positioned at its offset
+                InputStream in = Channels.newInputStream(channel);
+                JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                reader.setLenient(true);
+
+                try
+                {
+                    parser.readEntry(reader, (int) entry, builder);
+                }
+                catch (IllegalStateException | NumberFormatException e)
+                {
+                    log.debug("Failed to parse NPC {} at offset {}: {}", (int) entry, entry >>> 32, e.getMessage());
+                }
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,331 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming parser for the OSRSBox monster database
+ * Fills an NpcStatsStore straight from the token stream and skips every field the plugin never reads
+ */
+@Slf4j
+public class NpcStatsParser
+{
+    // Roughly the number of monsters in the OSRSBox database
+    private static final int EXPECTED_NPC_COUNT = 16384;
+
+    @Getter
+    private int successCount;
+
+    @Getter
+    private int failCount;
+
+    /**
+     * Parse the whole database (an object of NPC id -> NPC entry)
+     * Malformed JSON is reported as an IOException so the caller can discard the file
+     */
+    public NpcStatsStore parse(Reader in) throws IOException
+    {
+        successCount = 0;
+        failCount = 0;
+
+        NpcStatsStore.Builder builder = new NpcStatsStore.Builder(EXPECTED_NPC_COUNT);
+
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+
+        try
+        {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT)
+            {
+                throw new IOException("Invalid JSON format - expected object");
+            }
+
+            reader.beginObject();
+            while (reader.hasNext())
+            {
+                String key = reader.nextName();
+
+                int id;
+                try
+                {
+                    id = Integer.parseInt(key);
+                }
+                catch (NumberFormatException e)
+                {
+                    log.warn("Invalid NPC ID: {}", key);
+                    reader.skipValue();
+                    continue;
+                }
+
+                if (readEntry(reader, id, builder))
+                {
+                    successCount++;
+                }
+            }
+            reader.endObject();
+        }
+        catch (IllegalStateException | NumberFormatException e)
+        {
+            // JsonReader signals structural problems with unchecked exceptions
+            throw new IOException("Malformed OSRSBox database: " + e.getMessage(), e);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Read a single NPC entry positioned at its value into a new row of the builder
+     * Returns false (and counts a failure) if a field has an unexpected type
+     */
+    public boolean readEntry(JsonReader reader, int id, NpcStatsStore.Builder builder) throws IOException
+    {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return false;
+        }
+
+        if (token != JsonToken.BEGIN_OBJECT)
+        {
+            reader.skipValue();
+            recordFailure(id, "entry is not an object");
+            return false;
+        }
+
+        builder.beginRow(id);
+        FieldState state = new FieldState();
+
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            String field = reader.nextName();
+            switch (field)
+            {
+                case "name":
+                    builder.setName(readString(reader, state));
+                    break;
+                case "hitpoints":
+                    builder.set(NpcStatsStore.HITPOINTS, readInt(reader, state));
+                    break;
+                case "attack_level":
+                    builder.set(NpcStatsStore.ATTACK_LEVEL, readInt(reader, state));
+                    break;
+                case "strength_level":
+                    builder.set(NpcStatsStore.STRENGTH_LEVEL, readInt(reader, state));
+                    break;
+                case "defence_level":
+                    builder.set(NpcStatsStore.DEFENCE_LEVEL, readInt(reader, state));
+                    break;
+                case "magic_level":
+                    builder.set(NpcStatsStore.MAGIC_LEVEL, readInt(reader, state));
+                    break;
+                case "ranged_level":
+                    builder.set(NpcStatsStore.RANGED_LEVEL, readInt(reader, state));
+                    break;
+                case "attack_stab":
+                    builder.set(NpcStatsStore.ATTACK_STAB, readInt(reader, state));
+                    break;
+                case "attack_slash":
+                    builder.set(NpcStatsStore.ATTACK_SLASH, readInt(reader, state));
+                    break;
+                case "attack_crush":
+                    builder.set(NpcStatsStore.ATTACK_CRUSH, readInt(reader, state));
+                    break;
+                case "attack_magic":
+                    builder.set(NpcStatsStore.ATTACK_MAGIC, readInt(reader, state));
+                    break;
+                case "attack_ranged":
+                    builder.set(NpcStatsStore.ATTACK_RANGED, readInt(reader, state));
+                    break;
+                case "defence_stab":
+                    builder.set(NpcStatsStore.DEFENCE_STAB, readInt(reader, state));
+                    break;
+                case "defence_slash":
+                    builder.set(NpcStatsStore.DEFENCE_SLASH, readInt(reader, state));
+                    break;
+                case "defence_crush":
+                    builder.set(NpcStatsStore.DEFENCE_CRUSH, readInt(reader, state));
+                    break;
+                case "defence_magic":
+                    builder.set(NpcStatsStore.DEFENCE_MAGIC, readInt(reader, state));
+                    break;
+                case "defence_ranged":
+                    builder.set(NpcStatsStore.DEFENCE_RANGED, readInt(reader, state));
+                    break;
+                case "attack_accuracy":
+                    builder.set(NpcStatsStore.ATTACK_ACCURACY, readInt(reader, state));
+                    break;
+                case "melee_strength":
+                    builder.set(NpcStatsStore.MELEE_STRENGTH, readInt(reader, state));
+                    break;
+                case "ranged_strength":
+                    builder.set(NpcStatsStore.RANGED_STRENGTH, readInt(reader, state));
+                    break;
+                case "magic_damage":
+                    builder.set(NpcStatsStore.MAGIC_DAMAGE, readInt(reader, state));
+                    break;
+                case "max_hit":
+                    builder.set(NpcStatsStore.MAX_HIT, readInt(reader, state));
+                    break;
+                case "attack_type":
+                    readAttackTypes(reader, builder, state);
+                    break;
+                case "aggressive":
+                    builder.setAggressive(readBoolean(reader, state));
+                    break;
+                case "slayer_level":
+                    builder.set(NpcStatsStore.SLAYER_LEVEL, readInt(reader, state));
+                    break;
+                case "slayer_xp":
+                    builder.set(NpcStatsStore.SLAYER_XP, readInt(reader, state));
+                    break;
+                default:
+                    // Drops, descriptions, wiki metadata etc. are never used
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (state.failed)
+        {
+            builder.discardRow();
+            recordFailure(id, state.reason);
+            return false;
+        }
+
+        builder.commitRow();
+        return true;
+    }
+
+    private void recordFailure(int id, String reason)
+    {
+        failCount++;
+        if (failCount <= 10) // Log first 10 failures for debugging
+        {
+            log.debug("Failed to parse NPC {}: {}", id, reason);
+        }
+    }
+
+    private static int readInt(JsonReader reader, FieldState state) throws IOException
+    {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return NpcStatsStore.ABSENT;
+        }
+
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING)
+        {
+            try
+            {
+                return reader.nextInt();
+            }
+            catch (NumberFormatException e)
+            {
+                // The value is left buffered on failure, so it can still be consumed here
+                if (token == JsonToken.NUMBER)
+                {
+                    // Fractional numbers are truncated, as the tree-based Gson binding did
+                    return (int) reader.nextDouble();
+                }
+
+                reader.skipValue();
+                state.fail(e.getMessage());
+                return NpcStatsStore.ABSENT;
+            }
+        }
+
+        reader.skipValue();
+        state.fail("expected an int but was " + token);
+        return NpcStatsStore.ABSENT;
+    }
+
+    private static Boolean readBoolean(JsonReader reader, FieldState state) throws IOException
+    {
+        JsonToken token = reader.peek();
+        switch (token)
+        {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case STRING:
+                return Boolean.parseBoolean(reader.nextString());
+            default:
+                reader.skipValue();
+                state.fail("expected a boolean but was " + token);
+                return null;
+        }
+    }
+
+    private static String readString(JsonReader reader, FieldState state) throws IOException
+    {
+        JsonToken token = reader.peek();
+        switch (token)
+        {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            default:
+                reader.skipValue();
+                state.fail("expected a string but was " + token);
+                return null;
+        }
+    }
+
+    private static void readAttackTypes(JsonReader reader, NpcStatsStore.Builder builder, FieldState state) throws IOException
+    {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return;
+        }
+
+        if (token != JsonToken.BEGIN_ARRAY)
+        {
+            reader.skipValue();
+            state.fail("expected an array but was " + token);
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext())
+        {
+            builder.addAttackType(readString(reader, state));
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Tracks whether any field of the current entry had an unexpected type
+     */
+    private static class FieldState
+    {
+        private boolean failed;
+        private String reason;
+
+        private void fail(String reason)
+        {
+            if (!failed)
+            {
+                this.failed = true;
+                this.reason = reason;
+            }
+        }
+    }
+}
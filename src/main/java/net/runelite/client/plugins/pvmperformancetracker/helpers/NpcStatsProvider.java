@@ -1,44 +1,82 @@
 package net.runelite.client.plugins.pvmperformancetracker.helpers;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.plugins.pvmperformancetracker.enums.BossIds;
 import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Loads and caches NPC combat stats from OSRSBox database
+ * Loading runs on the provider's own executor; callers wait on load() instead of polling isLoaded()
+ *
+ * Stats are kept in two tiers:
+ *   hot  - every boss id, loaded first and held in memory
+ *   tail - everything else, read from the snapshot the first time it is looked up and kept in a small LRU cache
+ *          until the snapshot exists, entries are parsed from the JSON byte-offset index on the loader thread,
+ *          and lookups return null until the entry is ready
  */
 @Slf4j
 public class NpcStatsProvider
 {
     private static final String OSRSBOX_MONSTERS_URL = "https://raw.githubusercontent.com/osrsbox/osrsbox-db/master/docs/monsters-complete.json";
     private static final String CACHE_FILE_NAME = "osrsbox-monsters.json";
+    private static final String SNAPSHOT_FILE_NAME = "npc-stats.bin";
+    private static final long MINIMUM_DATABASE_SIZE = 5000000;
+    private static final int TAIL_CACHE_SIZE = 256;
+
+    // Tail cache value for ids the database doesn't have, so repeated misses don't go back to the file
+    private static final NpcCombatStats NOT_IN_DATABASE = new NpcCombatStats(null, NpcStatsStore.NO_ROW);
 
-    private final Gson gson;
     private final Path cacheDirectory;
-    private final Map<Integer, NpcCombatStats> npcStatsCache;
-    private boolean isLoaded = false;
+    private final ExecutorService executor;
+    private final CompletableFuture<NpcStatsStore> ready = new CompletableFuture<>();
+
+    // Written by the loader thread, read from the client thread
+    private volatile NpcStatsStore hotStore;
+    private volatile NpcStatsSnapshot snapshot;
+    private volatile NpcStatsJsonIndex jsonIndex;
+
+    // JSON file whose snapshot still has to be written once the hot tier is available
+    private Path pendingSnapshotSource;
+
+    // Recently used non-boss NPCs, least recently used first
+    private final Map<Integer, NpcCombatStats> tailCache = new LinkedHashMap<Integer, NpcCombatStats>(TAIL_CACHE_SIZE, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, NpcCombatStats> eldest)
+        {
+            return size() > TAIL_CACHE_SIZE;
+        }
+    };
+
+    // Tail ids queued for a read on the loader thread, guarded by tailCache
+    private final Set<Integer> pendingTailReads = new HashSet<>();
+
+    // Run on the loader thread after a queued tail read has been cached
+    private volatile Runnable tailReadListener;
 
     public NpcStatsProvider(File runeLiteDirectory)
     {
-        // Use lenient Gson to handle missing/null fields
-        this.gson = new GsonBuilder()
-                .setLenient()
-                .create();
-        this.npcStatsCache = new HashMap<>();
+        this.executor = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread thread = new Thread(r, "NPC-Stats-Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         // Cache in RuneLite's config directory
         this.cacheDirectory = Paths.get(runeLiteDirectory.getAbsolutePath(), "pvmperformancetracker");
@@ -53,10 +91,73 @@ public class NpcStatsProvider
         }
     }
 
+    /**
+     * Start loading the database in the background
+     * The returned future completes with the hot tier as soon as it is ready, or exceptionally if it couldn't be loaded
+     * On a first run the snapshot for the tail is built afterwards on the same thread
+     */
+    public CompletableFuture<NpcStatsStore> load()
+    {
+        executor.execute(() ->
+        {
+            try
+            {
+                initialize();
+            }
+            catch (Exception e)
+            {
+                log.error("Failed to initialize NPC stats provider", e);
+            }
+
+            NpcStatsStore loaded = hotStore;
+            if (loaded == null)
+            {
+                ready.completeExceptionally(new IOException("NPC stats database is unavailable"));
+                return;
+            }
+
+            ready.complete(loaded);
+
+            if (pendingSnapshotSource != null)
+            {
+                buildSnapshot(pendingSnapshotSource);
+                pendingSnapshotSource = null;
+            }
+        });
+
+        return ready;
+    }
+
+    /**
+     * Future for the hot tier, completed by load()
+     */
+    public CompletableFuture<NpcStatsStore> whenReady()
+    {
+        return ready;
+    }
+
+    /**
+     * Set the callback run (on the loader thread) when a tail entry queued by a lookup becomes available
+     */
+    public void setTailReadListener(Runnable listener)
+    {
+        this.tailReadListener = listener;
+    }
+
+    /**
+     * Stop the loader thread
+     * A load still in progress is abandoned and its future cancelled
+     */
+    public void shutdown()
+    {
+        ready.cancel(false);
+        executor.shutdownNow();
+    }
+
     /**
      * Initialize the provider - download or load cached database
      */
-    public void initialize()
+    private void initialize()
     {
         Path cacheFile = cacheDirectory.resolve(CACHE_FILE_NAME);
 
@@ -65,18 +166,22 @@ public class NpcStatsProvider
         {
             try
             {
-                long lastModified = Files.getLastModifiedTime(cacheFile).toMillis();
-                long daysSinceUpdate = (System.currentTimeMillis() - lastModified) / (1000 * 60 * 60 * 24);
+                // Last download or 304 revalidation, not the file time, so a revalidated cache keeps its snapshot
+                long lastChecked = downloader(cacheFile).getLastChecked();
+                long daysSinceUpdate = (System.currentTimeMillis() - lastChecked) / (1000 * 60 * 60 * 24);
 
                 if (daysSinceUpdate < 7)
                 {
                     log.info("Loading NPC stats from cache (age: {} days)", daysSinceUpdate);
-                    loadFromCache(cacheFile);
+                    if (!loadFromSnapshot(cacheFile))
+                    {
+                        loadFromCache(cacheFile);
+                    }
                     return;
                 }
                 else
                 {
-                    log.info("Cache is {} days old, downloading fresh data", daysSinceUpdate);
+                    log.info("Cache is {} days old, checking for fresh data", daysSinceUpdate);
                 }
             }
             catch (IOException e)
@@ -85,218 +190,341 @@ public class NpcStatsProvider
             }
         }
 
-        // Download fresh data
+        // Download fresh data (a conditional request if the cache exists)
         log.info("Downloading OSRSBox monster database...");
         downloadDatabase(cacheFile);
     }
 
     /**
      * Download the database from OSRSBox
+     * Falls back to the existing cache, however old, if the download fails
      */
     private void downloadDatabase(Path cacheFile)
     {
-        try
-        {
-            log.info("Downloading OSRSBox database from: {}", OSRSBOX_MONSTERS_URL);
-
-            URL url = new URL(OSRSBOX_MONSTERS_URL);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(30000);
-            connection.setReadTimeout(120000); // 2 minute timeout for large file
-            connection.setRequestProperty("User-Agent", "RuneLite-PvMTracker/1.0");
-            connection.setRequestProperty("Accept", "application/json");
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode != 200)
-            {
-                log.error("Failed to download database: HTTP {}", responseCode);
-                return;
-            }
-
-            // Get content length (may be -1 if unknown)
-            long contentLength = connection.getContentLengthLong();
-            log.info("Downloading {} bytes...", contentLength > 0 ? contentLength : "unknown size");
+        log.info("Downloading OSRSBox database from: {}", OSRSBOX_MONSTERS_URL);
 
-            // Download with larger buffer and explicit flushing
-            try (InputStream in = connection.getInputStream();
-                 BufferedInputStream bufferedIn = new BufferedInputStream(in, 65536);
-                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(cacheFile), 65536))
-            {
-                byte[] buffer = new byte[65536]; // 64KB buffer
-                int bytesRead;
-                long totalBytesRead = 0;
-                int lastLoggedMB = 0;
-
-                while ((bytesRead = bufferedIn.read(buffer)) != -1)
+        NpcDatabaseDownloader.Result result = downloader(cacheFile).download();
+        switch (result)
+        {
+            case NOT_MODIFIED:
+                if (!loadFromSnapshot(cacheFile))
                 {
-                    out.write(buffer, 0, bytesRead);
-                    totalBytesRead += bytesRead;
-
-                    // Log progress every MB
-                    int currentMB = (int)(totalBytesRead / 1000000);
-                    if (currentMB > lastLoggedMB)
+                    loadFromCache(cacheFile);
+                }
+                break;
+            case DOWNLOADED:
+                loadFromCache(cacheFile);
+                break;
+            default:
+                if (Files.exists(cacheFile))
+                {
+                    log.warn("Using outdated OSRSBox database cache");
+                    if (!loadFromSnapshot(cacheFile))
                     {
-                        log.info("Downloaded {} MB...", currentMB);
-                        lastLoggedMB = currentMB;
+                        loadFromCache(cacheFile);
                     }
                 }
+                break;
+        }
+    }
 
-                // Ensure everything is written
-                out.flush();
+    private NpcDatabaseDownloader downloader(Path cacheFile)
+    {
+        // OSRSBox DB should be at least 5MB
+        return new NpcDatabaseDownloader(OSRSBOX_MONSTERS_URL, cacheFile, MINIMUM_DATABASE_SIZE);
+    }
 
-                log.info("Successfully downloaded OSRSBox database ({} bytes, {} MB)",
-                        totalBytesRead, totalBytesRead / 1000000);
+    /**
+     * Map the binary snapshot built from the cached JSON file, if it is still current
+     * Only boss rows are copied into memory; the rest stay in the mapped file
+     */
+    private boolean loadFromSnapshot(Path cacheFile)
+    {
+        long start = System.nanoTime();
 
-                // Verify minimum size (OSRSBox DB should be at least 5MB)
-                if (totalBytesRead < 5000000)
-                {
-                    log.error("Download too small: got {} bytes, expected at least 5MB", totalBytesRead);
-                    Files.delete(cacheFile);
-                    return;
-                }
+        try
+        {
+            NpcStatsSnapshot mapped = NpcStatsSnapshot.open(cacheDirectory.resolve(SNAPSHOT_FILE_NAME),
+                    Files.getLastModifiedTime(cacheFile).toMillis(), Files.size(cacheFile));
+            if (mapped == null)
+            {
+                return false;
             }
 
-            // Load the downloaded data
-            loadFromCache(cacheFile);
+            NpcStatsStore hot = mapped.readRows(BossIds.BOSS_IDS);
+
+            snapshot = mapped;
+            jsonIndex = null;
+            hotStore = hot;
+
+            log.info("Loaded {} boss NPC entries ({} total) from snapshot in {} ms",
+                    hot.size(), mapped.size(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to read NPC stats snapshot", e);
+            return false;
+        }
+    }
+
+    /**
+     * Load the hot tier straight from the cached JSON file
+     * The file is indexed by byte offset so boss entries (and later, tail lookups) can be parsed on their own
+     */
+    private void loadFromCache(Path cacheFile)
+    {
+        long start = System.nanoTime();
+        NpcStatsJsonIndex index;
+        NpcStatsStore hot;
+
+        try
+        {
+            index = NpcStatsJsonIndex.build(cacheFile);
+            hot = index.readRows(BossIds.BOSS_IDS);
         }
-        catch (Exception e)
+        catch (IOException parseException)
         {
-            log.error("Failed to download OSRSBox database", e);
+            log.error("Cache file is corrupted, deleting and re-downloading: {}", parseException.getMessage());
 
-            // Delete partial download
+            // Delete corrupted cache
             try
             {
-                if (Files.exists(cacheFile))
-                {
-                    Files.delete(cacheFile);
-                }
+                Files.delete(cacheFile);
+                log.info("Deleted corrupted cache file");
             }
             catch (IOException deleteEx)
             {
-                log.warn("Failed to delete partial download", deleteEx);
+                log.warn("Failed to delete corrupted cache", deleteEx);
             }
+
+            // Try to download fresh data
+            downloadDatabase(cacheFile);
+            return;
         }
+
+        snapshot = null;
+        jsonIndex = index;
+        hotStore = hot;
+        log.info("Loaded {} boss NPC entries ({} indexed) from OSRSBox database in {} ms",
+                hot.size(), index.size(), (System.nanoTime() - start) / 1_000_000);
+
+        // Next start maps the snapshot instead of scanning JSON again
+        pendingSnapshotSource = cacheFile;
     }
 
     /**
-     * Load database from cached file
+     * Parse the whole JSON file once and write the binary snapshot, then serve the tail from it
      */
-    private void loadFromCache(Path cacheFile)
+    private void buildSnapshot(Path cacheFile)
     {
+        long start = System.nanoTime();
+        NpcStatsParser parser = new NpcStatsParser();
+        Path snapshotFile = cacheDirectory.resolve(SNAPSHOT_FILE_NAME);
+
         try
         {
-            // Read entire file as string first
-            String jsonContent = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
-
-            // Parse JSON manually to handle errors gracefully
-            JsonElement jsonElement;
-            try
+            NpcStatsStore all;
+            try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8))
             {
-                jsonElement = new JsonParser().parse(jsonContent);
+                all = parser.parse(reader);
             }
-            catch (Exception parseException)
-            {
-                log.error("Cache file is corrupted, deleting and re-downloading: {}", parseException.getMessage());
 
-                // Delete corrupted cache
-                try
-                {
-                    Files.delete(cacheFile);
-                    log.info("Deleted corrupted cache file");
-                }
-                catch (IOException deleteEx)
-                {
-                    log.warn("Failed to delete corrupted cache", deleteEx);
-                }
+            long lastModified = Files.getLastModifiedTime(cacheFile).toMillis();
+            long size = Files.size(cacheFile);
+            NpcStatsSnapshot.write(snapshotFile, all, lastModified, size);
 
-                // Try to download fresh data
-                downloadDatabase(cacheFile);
-                return;
+            NpcStatsSnapshot mapped = NpcStatsSnapshot.open(snapshotFile, lastModified, size);
+            if (mapped != null)
+            {
+                snapshot = mapped;
+                jsonIndex = null;
             }
 
-            if (!jsonElement.isJsonObject())
+            log.info("Wrote NPC stats snapshot ({} entries, {} failed to parse) in {} ms",
+                    parser.getSuccessCount(), parser.getFailCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+        catch (IOException e)
+        {
+            log.warn("Failed to write NPC stats snapshot", e);
+        }
+    }
+
+    /**
+     * Get NPC combat stats by ID
+     * Boss ids are answered from memory; anything else is read on first use and cached. Until the snapshot
+     * exists, that read happens on the loader thread and this returns null until it's done (see isPending).
+     */
+    public NpcCombatStats getNpcStats(int npcId)
+    {
+        NpcStatsStore hot = hotStore;
+        if (hot == null)
+        {
+            log.debug("NPC stats provider not loaded yet");
+            return null;
+        }
+
+        NpcCombatStats stats = hot.get(npcId);
+        if (stats != null)
+        {
+            return stats;
+        }
+
+        return getTailStats(npcId);
+    }
+
+    private NpcCombatStats getTailStats(int npcId)
+    {
+        // The index is cleared only after the snapshot is published, so if it is gone the snapshot is there
+        NpcStatsJsonIndex index = jsonIndex;
+        NpcStatsSnapshot mapped = snapshot;
+
+        synchronized (tailCache)
+        {
+            NpcCombatStats cached = tailCache.get(npcId);
+            if (cached != null)
             {
-                log.error("Invalid JSON format - expected object");
-                return;
+                return cached == NOT_IN_DATABASE ? null : cached;
             }
 
-            JsonObject root = jsonElement.getAsJsonObject();
+            if (mapped != null)
+            {
+                // Rows of the mapped snapshot are memory reads, cheap enough for the calling thread
+                return cacheTailStats(npcId, readSnapshotRow(mapped, npcId));
+            }
 
-            npcStatsCache.clear();
-            int successCount = 0;
-            int failCount = 0;
+            if (index == null || !index.contains(npcId))
+            {
+                tailCache.put(npcId, NOT_IN_DATABASE);
+                return null;
+            }
 
-            // Iterate through each NPC entry
-            for (Map.Entry<String, JsonElement> entry : root.entrySet())
+            // Parsing from the JSON file is file I/O; do it on the loader thread and answer once it's cached
+            if (pendingTailReads.add(npcId))
             {
                 try
                 {
-                    int id = Integer.parseInt(entry.getKey());
-
-                    // Try to parse the NPC stats
-                    try
-                    {
-                        NpcCombatStats stats = gson.fromJson(entry.getValue(), NpcCombatStats.class);
-                        if (stats != null)
-                        {
-                            stats.setId(id);
-                            npcStatsCache.put(id, stats);
-                            successCount++;
-                        }
-                    }
-                    catch (Exception parseEx)
-                    {
-                        // Skip this NPC if it can't be parsed
-                        failCount++;
-                        if (failCount <= 10) // Log first 10 failures for debugging
-                        {
-                            log.debug("Failed to parse NPC {}: {}", id, parseEx.getMessage());
-                        }
-                    }
+                    executor.execute(() -> readTailStats(npcId, index));
                 }
-                catch (NumberFormatException e)
+                catch (RejectedExecutionException e)
                 {
-                    log.warn("Invalid NPC ID: {}", entry.getKey());
+                    // Shutting down
+                    pendingTailReads.remove(npcId);
                 }
             }
+            return null;
+        }
+    }
+
+    /**
+     * Read a tail entry on the loader thread, from the snapshot if it has been built since the lookup was queued
+     */
+    private void readTailStats(int npcId, NpcStatsJsonIndex index)
+    {
+        NpcStatsStore row = null;
+        NpcStatsSnapshot mapped = snapshot;
+
+        if (mapped != null)
+        {
+            row = readSnapshotRow(mapped, npcId);
+        }
+        else
+        {
+            try
+            {
+                row = index.readRows(Collections.singleton(npcId));
+            }
+            catch (IOException e)
+            {
+                log.warn("Failed to read NPC {} from OSRSBox database: {}", npcId, e.getMessage());
+            }
+        }
 
-            isLoaded = true;
-            log.info("Loaded {} NPC entries from OSRSBox database ({} failed to parse)", successCount, failCount);
+        synchronized (tailCache)
+        {
+            pendingTailReads.remove(npcId);
+            cacheTailStats(npcId, row);
         }
-        catch (Exception e)
+
+        Runnable listener = tailReadListener;
+        if (listener != null)
         {
-            log.error("Failed to load NPC stats from cache", e);
+            listener.run();
         }
     }
 
+    private static NpcStatsStore readSnapshotRow(NpcStatsSnapshot mapped, int npcId)
+    {
+        return mapped.findRow(npcId) != NpcStatsStore.NO_ROW ? mapped.readRows(Collections.singleton(npcId)) : null;
+    }
+
     /**
-     * Get NPC combat stats by ID
+     * Cache a tail lookup, including a miss; must hold the tailCache lock
      */
-    public NpcCombatStats getNpcStats(int npcId)
+    private NpcCombatStats cacheTailStats(int npcId, NpcStatsStore row)
+    {
+        NpcCombatStats stats = row != null ? row.get(npcId) : null;
+        tailCache.put(npcId, stats != null ? stats : NOT_IN_DATABASE);
+        return stats;
+    }
+
+    /**
+     * Check if provider is loaded and ready
+     */
+    public boolean isLoaded()
+    {
+        return hotStore != null;
+    }
+
+    /**
+     * Check whether an NPC's stats aren't available yet but may be later: the database is still loading, or the
+     * NPC's entry is being read on the loader thread. Queues that read if it hasn't been looked up before.
+     */
+    public boolean isPending(int npcId)
     {
-        if (!isLoaded)
+        NpcStatsStore hot = hotStore;
+        if (hot == null)
         {
-            log.warn("NPC stats provider not loaded yet");
-            return null;
+            return isLoading();
+        }
+
+        if (hot.get(npcId) != null || getTailStats(npcId) != null)
+        {
+            return false;
         }
 
-        return npcStatsCache.get(npcId);
+        synchronized (tailCache)
+        {
+            return pendingTailReads.contains(npcId);
+        }
     }
 
     /**
-     * Check if provider is loaded and ready
+     * Check if the database is still being loaded, i.e. lookups that miss now will succeed later
      */
-    public boolean isLoaded()
+    public boolean isLoading()
     {
-        return isLoaded;
+        return !ready.isDone();
     }
 
     /**
-     * Get number of cached NPCs
+     * Get number of NPCs available, in either tier
      */
     public int getCachedNpcCount()
     {
-        return npcStatsCache.size();
+        NpcStatsSnapshot mapped = snapshot;
+        if (mapped != null)
+        {
+            return mapped.size();
+        }
+
+        NpcStatsJsonIndex index = jsonIndex;
+        if (index != null)
+        {
+            return index.size();
+        }
+
+        NpcStatsStore hot = hotStore;
+        return hot != null ? hot.size() : 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,353 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compact, memory-mapped binary snapshot of an NpcStatsStore
+ *
+ * Layout (big endian):
+ *   header         - magic, version, source JSON last-modified + size, row count, name count, attack type count,
+ *                    string offsets offset
+ *   columns        - row count ints each: ids, every stat column, name ids, attack type masks, primary attack types
+ *   string offsets - (name count + attack type count + 1) ints, start of each string in the string data
+ *   string data    - UTF-8 names followed by the attack type vocabulary
+ *
+ * Rows are sorted by NPC id, so single rows can be found with a binary search over the mapped id column
+ * and copied out without reading the rest of the file.
+ */
+@Slf4j
+public class NpcStatsSnapshot
+{
+    private static final int MAGIC = 0x50564D4E; // "PVMN"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 40;
+
+    // ids + stats + name ids + attack type masks + primary attack types
+    private static final int COLUMNS = 1 + NpcStatsStore.COLUMN_COUNT + 3;
+    private static final int NAME_ID_COLUMN = 1 + NpcStatsStore.COLUMN_COUNT;
+    private static final int ATTACK_TYPE_MASK_COLUMN = NAME_ID_COLUMN + 1;
+    private static final int PRIMARY_ATTACK_TYPE_COLUMN = NAME_ID_COLUMN + 2;
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int nameCount;
+    private final String[] attackTypeNames;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+
+    private NpcStatsSnapshot(ByteBuffer buffer, int rowCount, int nameCount, int attackTypeCount, int stringOffsetsOffset)
+    {
+        this.buffer = buffer;
+        this.rowCount = rowCount;
+        this.nameCount = nameCount;
+        this.stringOffsetsOffset = stringOffsetsOffset;
+        this.stringDataOffset = stringOffsetsOffset + (nameCount + attackTypeCount + 1) * Integer.BYTES;
+
+        this.attackTypeNames = new String[attackTypeCount];
+        for (int i = 0; i < attackTypeCount; i++)
+        {
+            attackTypeNames[i] = readString(nameCount + i);
+        }
+    }
+
+    /**
+     * Map an existing snapshot
+     * Returns null if it is missing, from another format version, or was built from a different JSON file
+     */
+    public static NpcStatsSnapshot open(Path snapshotFile, long sourceLastModified, long sourceSize)
+    {
+        if (!Files.exists(snapshotFile))
+        {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+            {
+                log.warn("NPC stats snapshot has an invalid size ({} bytes)", size);
+                return null;
+            }
+
+            // Check the header before mapping, so a stale snapshot is never left mapped (and locked, on Windows)
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0)
+            {
+                // read until the header is complete
+            }
+            header.flip();
+
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+            {
+                log.info("NPC stats snapshot has an old format, ignoring it");
+                return null;
+            }
+
+            if (header.getLong(8) != sourceLastModified || header.getLong(16) != sourceSize)
+            {
+                log.info("NPC stats snapshot is stale, ignoring it");
+                return null;
+            }
+
+            int rowCount = header.getInt(24);
+            int nameCount = header.getInt(28);
+            int attackTypeCount = header.getInt(32);
+            int stringOffsetsOffset = header.getInt(36);
+
+            long expectedStringOffsetsOffset = HEADER_SIZE + (long) rowCount * COLUMNS * Integer.BYTES;
+            long stringDataOffset = stringOffsetsOffset + ((long) nameCount + attackTypeCount + 1) * Integer.BYTES;
+            if (rowCount < 0 || nameCount < 0 || attackTypeCount < 0 || attackTypeCount > NpcStatsStore.MAX_ATTACK_TYPES
+                    || stringOffsetsOffset != expectedStringOffsetsOffset || stringDataOffset > size)
+            {
+                log.warn("NPC stats snapshot header is inconsistent, ignoring it");
+                return null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (stringDataOffset + buffer.getInt((int) stringDataOffset - Integer.BYTES) != size)
+            {
+                log.warn("NPC stats snapshot string data is truncated, ignoring it");
+                return null;
+            }
+
+            return new NpcStatsSnapshot(buffer, rowCount, nameCount, attackTypeCount, stringOffsetsOffset);
+        }
+        catch (IOException | IndexOutOfBoundsException e)
+        {
+            log.warn("Failed to map NPC stats snapshot", e);
+            return null;
+        }
+    }
+
+    /**
+     * Number of NPCs in the snapshot
+     */
+    public int size()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Binary search the mapped id column
+     * @return the row, or NpcStatsStore.NO_ROW if the NPC isn't in the snapshot
+     */
+    public int findRow(int npcId)
+    {
+        int low = 0;
+        int high = rowCount - 1;
+
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int midId = column(0, mid);
+
+            if (midId < npcId)
+            {
+                low = mid + 1;
+            }
+            else if (midId > npcId)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+
+        return NpcStatsStore.NO_ROW;
+    }
+
+    /**
+     * Copy the given NPCs out of the snapshot into a standalone store
+     * Ids that aren't in the snapshot are skipped
+     */
+    public NpcStatsStore readRows(Collection<Integer> npcIds)
+    {
+        int[] rows = new int[npcIds.size()];
+        int count = 0;
+        for (int npcId : npcIds)
+        {
+            int row = findRow(npcId);
+            if (row != NpcStatsStore.NO_ROW)
+            {
+                rows[count++] = row;
+            }
+        }
+
+        // Keep the store in id order, like the builder does
+        rows = Arrays.copyOf(rows, count);
+        Arrays.sort(rows);
+
+        int[] ids = new int[count];
+        int[][] columns = new int[NpcStatsStore.COLUMN_COUNT][count];
+        int[] nameIds = new int[count];
+        int[] attackTypeMasks = new int[count];
+        byte[] primaryAttackTypes = new byte[count];
+
+        // Only the names these rows use are copied, renumbered in order of first use
+        IntIntMap nameRemap = new IntIntMap(count, -1);
+        String[] names = new String[count];
+        int nameTotal = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            int row = rows[i];
+            ids[i] = column(0, row);
+            for (int c = 0; c < NpcStatsStore.COLUMN_COUNT; c++)
+            {
+                columns[c][i] = column(1 + c, row);
+            }
+            int primary = column(PRIMARY_ATTACK_TYPE_COLUMN, row);
+            if (primary >= 0 && primary < attackTypeNames.length)
+            {
+                attackTypeMasks[i] = column(ATTACK_TYPE_MASK_COLUMN, row) & validAttackTypeBits();
+                primaryAttackTypes[i] = (byte) primary;
+            }
+            else
+            {
+                primaryAttackTypes[i] = NpcStatsStore.NO_ATTACK_TYPE;
+            }
+
+            int nameId = column(NAME_ID_COLUMN, row);
+            if (nameId < 0 || nameId >= nameCount)
+            {
+                nameIds[i] = -1;
+                continue;
+            }
+
+            int remapped = nameRemap.get(nameId);
+            if (remapped < 0)
+            {
+                remapped = nameTotal++;
+                nameRemap.put(nameId, remapped);
+                names[remapped] = readString(nameId);
+            }
+            nameIds[i] = remapped;
+        }
+
+        return new NpcStatsStore(count, ids, columns, nameIds, Arrays.copyOf(names, nameTotal),
+                attackTypeMasks, primaryAttackTypes, attackTypeNames);
+    }
+
+    /**
+     * Write a snapshot of the given store
+     * The file is written next to the target and moved into place so readers never see a partial snapshot
+     */
+    public static void write(Path snapshotFile, NpcStatsStore store, long sourceLastModified, long sourceSize) throws IOException
+    {
+        int rowCount = store.size;
+        int stringCount = store.names.length + store.attackTypeNames.length;
+
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        int[] stringOffsets = new int[stringCount + 1];
+        int s = 0;
+        for (String name : store.names)
+        {
+            stringOffsets[s++] = stringData.size();
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            stringData.write(bytes, 0, bytes.length);
+        }
+        for (String attackType : store.attackTypeNames)
+        {
+            stringOffsets[s++] = stringData.size();
+            byte[] bytes = attackType.getBytes(StandardCharsets.UTF_8);
+            stringData.write(bytes, 0, bytes.length);
+        }
+        stringOffsets[s] = stringData.size();
+
+        int stringOffsetsOffset = HEADER_SIZE + rowCount * COLUMNS * Integer.BYTES;
+
+        ByteBuffer data = ByteBuffer.allocate(stringOffsetsOffset + stringOffsets.length * Integer.BYTES);
+        data.putInt(MAGIC);
+        data.putInt(VERSION);
+        data.putLong(sourceLastModified);
+        data.putLong(sourceSize);
+        data.putInt(rowCount);
+        data.putInt(store.names.length);
+        data.putInt(store.attackTypeNames.length);
+        data.putInt(stringOffsetsOffset);
+
+        IntBuffer ints = data.asIntBuffer();
+        ints.put(store.ids, 0, rowCount);
+        for (int[] column : store.columns)
+        {
+            ints.put(column, 0, rowCount);
+        }
+        ints.put(store.nameIds, 0, rowCount);
+        ints.put(store.attackTypeMasks, 0, rowCount);
+        for (int row = 0; row < rowCount; row++)
+        {
+            ints.put(store.primaryAttackTypes[row]);
+        }
+        ints.put(stringOffsets);
+
+        data.position(0);
+        ByteBuffer stringBuffer = ByteBuffer.wrap(stringData.toByteArray());
+
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            while (data.hasRemaining())
+            {
+                channel.write(data);
+            }
+            while (stringBuffer.hasRemaining())
+            {
+                channel.write(stringBuffer);
+            }
+            channel.force(true);
+        }
+
+        try
+        {
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private int validAttackTypeBits()
+    {
+        return attackTypeNames.length == Integer.SIZE ? -1 : (1 << attackTypeNames.length) - 1;
+    }
+
+    private int column(int column, int row)
+    {
+        return buffer.getInt(HEADER_SIZE + (column * rowCount + row) * Integer.BYTES);
+    }
+
+    private String readString(int index)
+    {
+        int start = buffer.getInt(stringOffsetsOffset + index * Integer.BYTES);
+        int end = buffer.getInt(stringOffsetsOffset + (index + 1) * Integer.BYTES);
+
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringDataOffset + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,370 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, primitive-backed storage for NPC combat stats
+ *
+ * Every stat lives in its own int[] column indexed by row, absent values use the ABSENT sentinel,
+ * attack types are a bitmask over a small vocabulary and NPC ids map to rows through an IntIntMap.
+ * NpcCombatStats instances handed out by get() are thin views over a single row.
+ */
+@Slf4j
+public class NpcStatsStore
+{
+    // Value used for fields that are absent (null) in the source database
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    // Row lookup result for unknown NPC ids
+    public static final int NO_ROW = -1;
+
+    // Stat columns
+    public static final int HITPOINTS = 0;
+    public static final int ATTACK_LEVEL = 1;
+    public static final int STRENGTH_LEVEL = 2;
+    public static final int DEFENCE_LEVEL = 3;
+    public static final int MAGIC_LEVEL = 4;
+    public static final int RANGED_LEVEL = 5;
+    public static final int ATTACK_STAB = 6;
+    public static final int ATTACK_SLASH = 7;
+    public static final int ATTACK_CRUSH = 8;
+    public static final int ATTACK_MAGIC = 9;
+    public static final int ATTACK_RANGED = 10;
+    public static final int DEFENCE_STAB = 11;
+    public static final int DEFENCE_SLASH = 12;
+    public static final int DEFENCE_CRUSH = 13;
+    public static final int DEFENCE_MAGIC = 14;
+    public static final int DEFENCE_RANGED = 15;
+    public static final int ATTACK_ACCURACY = 16;
+    public static final int MELEE_STRENGTH = 17;
+    public static final int RANGED_STRENGTH = 18;
+    public static final int MAGIC_DAMAGE = 19;
+    public static final int MAX_HIT = 20;
+    public static final int AGGRESSIVE = 21; // ABSENT, 0 or 1
+    public static final int SLAYER_LEVEL = 22;
+    public static final int SLAYER_XP = 23;
+    public static final int COLUMN_COUNT = 24;
+
+    // Attack types are stored as bits of an int mask, so at most 32 distinct values
+    static final int MAX_ATTACK_TYPES = Integer.SIZE;
+    static final byte NO_ATTACK_TYPE = -1;
+
+    // Common values get fixed bits, anything else is appended as it is seen
+    private static final List<String> DEFAULT_ATTACK_TYPES = Arrays.asList(
+            "melee", "stab", "slash", "crush", "magic", "ranged", "dragonfire"
+    );
+
+    final int size;
+    final int[] ids;
+    final int[][] columns;
+    final int[] nameIds;
+    final String[] names;
+    final int[] attackTypeMasks;
+    final byte[] primaryAttackTypes;
+    final String[] attackTypeNames;
+
+    private final IntIntMap rowsById;
+
+    NpcStatsStore(int size, int[] ids, int[][] columns, int[] nameIds, String[] names,
+                  int[] attackTypeMasks, byte[] primaryAttackTypes, String[] attackTypeNames)
+    {
+        this.size = size;
+        this.ids = ids;
+        this.columns = columns;
+        this.nameIds = nameIds;
+        this.names = names;
+        this.attackTypeMasks = attackTypeMasks;
+        this.primaryAttackTypes = primaryAttackTypes;
+        this.attackTypeNames = attackTypeNames;
+
+        this.rowsById = new IntIntMap(size, NO_ROW);
+        for (int row = 0; row < size; row++)
+        {
+            rowsById.put(ids[row], row);
+        }
+    }
+
+    /**
+     * Get a view of an NPC's stats, or null if the NPC is unknown
+     */
+    public NpcCombatStats get(int npcId)
+    {
+        int row = findRow(npcId);
+        return row == NO_ROW ? null : new NpcCombatStats(this, row);
+    }
+
+    /**
+     * Get the row holding an NPC's stats, or NO_ROW if the NPC is unknown
+     */
+    public int findRow(int npcId)
+    {
+        return rowsById.get(npcId);
+    }
+
+    /**
+     * Number of NPCs in the store
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public int getId(int row)
+    {
+        return ids[row];
+    }
+
+    /**
+     * Raw column value, ABSENT if the source database had no value
+     */
+    public int getStat(int row, int column)
+    {
+        return columns[column][row];
+    }
+
+    public String getName(int row)
+    {
+        int nameId = nameIds[row];
+        return nameId < 0 ? null : names[nameId];
+    }
+
+    public int getAttackTypeCount(int row)
+    {
+        return Integer.bitCount(attackTypeMasks[row]);
+    }
+
+    /**
+     * First attack type listed for the NPC, or null if it has none
+     */
+    public String getPrimaryAttackType(int row)
+    {
+        int primary = primaryAttackTypes[row];
+        return primary == NO_ATTACK_TYPE ? null : attackTypeNames[primary];
+    }
+
+    /**
+     * Attack types of the NPC, primary first, or null if it has none
+     */
+    public List<String> getAttackTypes(int row)
+    {
+        int mask = attackTypeMasks[row];
+        if (mask == 0)
+        {
+            return null;
+        }
+
+        int primary = primaryAttackTypes[row];
+        List<String> types = new ArrayList<>(Integer.bitCount(mask));
+        types.add(attackTypeNames[primary]);
+
+        int rest = mask & ~(1 << primary);
+        while (rest != 0)
+        {
+            int bit = Integer.numberOfTrailingZeros(rest);
+            types.add(attackTypeNames[bit]);
+            rest &= rest - 1;
+        }
+
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Incrementally builds a store one row at a time
+     * A row is started with beginRow(), filled, then either committed or discarded.
+     * Committing an id that already exists replaces the earlier row.
+     */
+    public static class Builder
+    {
+        private int size;
+        private int[] ids;
+        private int[][] columns;
+        private int[] nameIds;
+        private int[] attackTypeMasks;
+        private byte[] primaryAttackTypes;
+
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> nameLookup = new HashMap<>();
+        private final List<String> attackTypeNames = new ArrayList<>(DEFAULT_ATTACK_TYPES);
+        private final IntIntMap rowsById;
+
+        public Builder(int expectedSize)
+        {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new int[capacity];
+            columns = new int[COLUMN_COUNT][capacity];
+            nameIds = new int[capacity];
+            attackTypeMasks = new int[capacity];
+            primaryAttackTypes = new byte[capacity];
+            rowsById = new IntIntMap(capacity, NO_ROW);
+        }
+
+        /**
+         * Start a new row; all stats begin absent
+         */
+        public void beginRow(int id)
+        {
+            ensureCapacity(size + 1);
+
+            ids[size] = id;
+            for (int[] column : columns)
+            {
+                column[size] = ABSENT;
+            }
+            nameIds[size] = -1;
+            attackTypeMasks[size] = 0;
+            primaryAttackTypes[size] = NO_ATTACK_TYPE;
+        }
+
+        public void set(int column, int value)
+        {
+            columns[column][size] = value;
+        }
+
+        public void setAggressive(Boolean aggressive)
+        {
+            columns[AGGRESSIVE][size] = aggressive == null ? ABSENT : (aggressive ? 1 : 0);
+        }
+
+        /**
+         * Set the row's name; identical names share one String instance
+         */
+        public void setName(String name)
+        {
+            if (name == null)
+            {
+                nameIds[size] = -1;
+                return;
+            }
+
+            Integer nameId = nameLookup.get(name);
+            if (nameId == null)
+            {
+                nameId = names.size();
+                names.add(name);
+                nameLookup.put(name, nameId);
+            }
+            nameIds[size] = nameId;
+        }
+
+        public void addAttackType(String type)
+        {
+            if (type == null)
+            {
+                return;
+            }
+
+            int bit = attackTypeNames.indexOf(type);
+            if (bit < 0)
+            {
+                if (attackTypeNames.size() == MAX_ATTACK_TYPES)
+                {
+                    log.debug("Too many distinct NPC attack types, ignoring {}", type);
+                    return;
+                }
+                bit = attackTypeNames.size();
+                attackTypeNames.add(type);
+            }
+
+            attackTypeMasks[size] |= 1 << bit;
+            if (primaryAttackTypes[size] == NO_ATTACK_TYPE)
+            {
+                primaryAttackTypes[size] = (byte) bit;
+            }
+        }
+
+        public void commitRow()
+        {
+            int existing = rowsById.get(ids[size]);
+            if (existing != NO_ROW)
+            {
+                copyRow(size, existing);
+                return;
+            }
+
+            rowsById.put(ids[size], size);
+            size++;
+        }
+
+        public void discardRow()
+        {
+            // The pending row is simply overwritten by the next beginRow()
+        }
+
+        public int size()
+        {
+            return size;
+        }
+
+        /**
+         * Build the store with rows ordered by NPC id
+         */
+        public NpcStatsStore build()
+        {
+            long[] order = new long[size];
+            for (int row = 0; row < size; row++)
+            {
+                order[row] = ((long) ids[row] << 32) | row;
+            }
+            Arrays.sort(order);
+
+            int[] sortedIds = new int[size];
+            int[][] sortedColumns = new int[COLUMN_COUNT][size];
+            int[] sortedNameIds = new int[size];
+            int[] sortedMasks = new int[size];
+            byte[] sortedPrimaries = new byte[size];
+
+            for (int i = 0; i < size; i++)
+            {
+                int row = (int) order[i];
+                sortedIds[i] = ids[row];
+                for (int c = 0; c < COLUMN_COUNT; c++)
+                {
+                    sortedColumns[c][i] = columns[c][row];
+                }
+                sortedNameIds[i] = nameIds[row];
+                sortedMasks[i] = attackTypeMasks[row];
+                sortedPrimaries[i] = primaryAttackTypes[row];
+            }
+
+            return new NpcStatsStore(size, sortedIds, sortedColumns, sortedNameIds, names.toArray(new String[0]),
+                    sortedMasks, sortedPrimaries, attackTypeNames.toArray(new String[0]));
+        }
+
+        private void copyRow(int from, int to)
+        {
+            for (int[] column : columns)
+            {
+                column[to] = column[from];
+            }
+            nameIds[to] = nameIds[from];
+            attackTypeMasks[to] = attackTypeMasks[from];
+            primaryAttackTypes[to] = primaryAttackTypes[from];
+        }
+
+        private void ensureCapacity(int needed)
+        {
+            if (needed <= ids.length)
+            {
+                return;
+            }
+
+            int capacity = Math.max(needed, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            for (int c = 0; c < COLUMN_COUNT; c++)
+            {
+                columns[c] = Arrays.copyOf(columns[c], capacity);
+            }
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            attackTypeMasks = Arrays.copyOf(attackTypeMasks, capacity);
+            primaryAttackTypes = Arrays.copyOf(primaryAttackTypes, capacity);
+        }
+    }
+}
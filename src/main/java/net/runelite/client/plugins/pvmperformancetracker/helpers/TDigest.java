@@ -0,0 +1,287 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest: a fixed-size quantile sketch
+ *
+ * Values are buffered and periodically merged into at most about compression centroids, kept small at the tails
+ * (asin scale function) so extreme percentiles stay accurate. Memory and query cost depend only on the compression,
+ * not on how many values were added. Digests can be merged, e.g. one built in the background into a live one.
+ *
+ * Not thread-safe.
+ */
+public class TDigest
+{
+    private static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    // Centroids sorted by mean
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+
+    // Values (or centroids of a merged digest) not yet merged in
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int bufferCount;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest()
+    {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression)
+    {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferMeans = new double[capacity * 5];
+        this.bufferWeights = new double[capacity * 5];
+    }
+
+    public void add(double value)
+    {
+        add(value, 1);
+    }
+
+    private void add(double value, double weight)
+    {
+        if (Double.isNaN(value))
+        {
+            return;
+        }
+
+        bufferMeans[bufferCount] = value;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (bufferCount == bufferMeans.length)
+        {
+            compress();
+        }
+    }
+
+    /**
+     * Add every value of another digest
+     */
+    public void merge(TDigest other)
+    {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++)
+        {
+            add(other.means[i], other.weights[i]);
+        }
+
+        // Keep the exact extremes rather than the other digest's outermost centroids
+        if (other.centroidCount > 0)
+        {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /**
+     * Number of values added
+     */
+    public long size()
+    {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * Estimated value at the given quantile (0 to 1), or NaN if nothing was added
+     */
+    public double quantile(double q)
+    {
+        compress();
+        if (centroidCount == 0)
+        {
+            return Double.NaN;
+        }
+        if (q <= 0)
+        {
+            return min;
+        }
+        if (q >= 1)
+        {
+            return max;
+        }
+        if (centroidCount == 1)
+        {
+            return means[0];
+        }
+
+        double target = q * totalWeight;
+
+        // Before the first centroid's center, interpolate from the minimum
+        double cumulative = weights[0] / 2;
+        if (target < cumulative)
+        {
+            return min + (means[0] - min) * (target / cumulative);
+        }
+
+        // Between centroid centers, interpolate linearly
+        for (int i = 0; i < centroidCount - 1; i++)
+        {
+            double next = cumulative + (weights[i] + weights[i + 1]) / 2;
+            if (target <= next)
+            {
+                double fraction = next == cumulative ? 0 : (target - cumulative) / (next - cumulative);
+                return means[i] + fraction * (means[i + 1] - means[i]);
+            }
+            cumulative = next;
+        }
+
+        // After the last centroid's center, interpolate to the maximum
+        int last = centroidCount - 1;
+        double fraction = Math.min(1, (target - cumulative) / (weights[last] / 2));
+        return means[last] + fraction * (max - means[last]);
+    }
+
+    /**
+     * Merge buffered values into the centroids
+     */
+    private void compress()
+    {
+        if (bufferCount == 0)
+        {
+            return;
+        }
+
+        // Centroids are already sorted, so sort the buffer and merge the two runs
+        sort(bufferMeans, bufferWeights, 0, bufferCount - 1);
+
+        double[] mergedMeans = new double[means.length];
+        double[] mergedWeights = new double[weights.length];
+        int count = 0;
+
+        double currentMean = 0;
+        double currentWeight = 0;
+        double weightSoFar = 0;
+        double kLeft = scale(0);
+
+        int c = 0;
+        int b = 0;
+        while (c < centroidCount || b < bufferCount)
+        {
+            double mean;
+            double weight;
+            if (b >= bufferCount || (c < centroidCount && means[c] <= bufferMeans[b]))
+            {
+                mean = means[c];
+                weight = weights[c++];
+            }
+            else
+            {
+                mean = bufferMeans[b];
+                weight = bufferWeights[b++];
+            }
+
+            if (currentWeight == 0)
+            {
+                currentMean = mean;
+                currentWeight = weight;
+            }
+            else if (scale((weightSoFar + currentWeight + weight) / totalWeight) - kLeft <= 1)
+            {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            }
+            else
+            {
+                if (count == mergedMeans.length)
+                {
+                    mergedMeans = Arrays.copyOf(mergedMeans, count * 2);
+                    mergedWeights = Arrays.copyOf(mergedWeights, count * 2);
+                }
+                mergedMeans[count] = currentMean;
+                mergedWeights[count] = currentWeight;
+                count++;
+
+                weightSoFar += currentWeight;
+                kLeft = scale(weightSoFar / totalWeight);
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+
+        if (count == mergedMeans.length)
+        {
+            mergedMeans = Arrays.copyOf(mergedMeans, count + 1);
+            mergedWeights = Arrays.copyOf(mergedWeights, count + 1);
+        }
+        mergedMeans[count] = currentMean;
+        mergedWeights[count] = currentWeight;
+        count++;
+
+        means = mergedMeans;
+        weights = mergedWeights;
+        centroidCount = count;
+        bufferCount = 0;
+    }
+
+    /**
+     * k1 scale function: one unit of k is the most a centroid may span
+     */
+    private double scale(double q)
+    {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+    }
+
+    /**
+     * Sort parallel arrays by the first one, without boxing
+     */
+    private static void sort(double[] keys, double[] values, int low, int high)
+    {
+        while (low < high)
+        {
+            double pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j)
+            {
+                while (keys[i] < pivot)
+                {
+                    i++;
+                }
+                while (keys[j] > pivot)
+                {
+                    j--;
+                }
+                if (i <= j)
+                {
+                    double key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                    double value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                    i++;
+                    j--;
+                }
+            }
+
+            // Recurse into the smaller half, loop on the larger
+            if (j - low < high - i)
+            {
+                sort(keys, values, low, j);
+                low = i;
+            }
+            else
+            {
+                sort(keys, values, i, high);
+                high = j;
+            }
+        }
+    }
+}
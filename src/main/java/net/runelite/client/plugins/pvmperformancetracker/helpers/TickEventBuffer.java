@@ -0,0 +1,118 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.api.Actor;
+
+import java.util.Arrays;
+
+/**
+ * Hitsplats and attack animations staged during a tick, processed together at the next GameTick
+ *
+ * Events are appended as primitive records in parallel arrays (kind, value, detail) plus the actor they happened to,
+ * which is needed to work out who was attacking whom. Hitsplats are classified when staged, so only the ones that are
+ * used are added and their type isn't kept. The arrays are allocated once and only grow if a
+ * tick brings more events than ever before, so staging an event never allocates. The buffer is drained in arrival
+ * order by a Handler, which is also the seam for replaying recorded events. Only used on the client thread.
+ */
+public class TickEventBuffer
+{
+    public static final byte HITSPLAT = 0;
+    public static final byte ATTACK_ANIMATION = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Processes drained events
+     */
+    public interface Handler
+    {
+        /**
+         * @param hitpoints the local player's hitpoints before the hit, for hits on the local player
+         */
+        void onHitsplat(Actor target, int amount, int hitpoints);
+
+        /**
+         * @param animation the AnimationRegistry entry for the animation
+         */
+        void onAttackAnimation(Actor actor, int animationId, int animation);
+    }
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    // Hitsplat amount, or animation id
+    private int[] values = new int[INITIAL_CAPACITY];
+    // Hitpoints when a hitsplat landed (captured then, as the stat changes before the tick is processed),
+    // or AnimationRegistry entry
+    private int[] details = new int[INITIAL_CAPACITY];
+    private Actor[] actors = new Actor[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @param hitpoints the local player's hitpoints before the hit, for hits on the local player; otherwise 0
+     */
+    public void addHitsplat(Actor target, int amount, int hitpoints)
+    {
+        add(HITSPLAT, target, amount, hitpoints);
+    }
+
+    public void addAttackAnimation(Actor actor, int animationId, int animation)
+    {
+        add(ATTACK_ANIMATION, actor, animationId, animation);
+    }
+
+    /**
+     * Hand every staged event to the handler in arrival order, then empty the buffer
+     */
+    public void drain(Handler handler)
+    {
+        // Events staged while draining are processed in the same pass
+        for (int i = 0; i < size; i++)
+        {
+            if (kinds[i] == HITSPLAT)
+            {
+                handler.onHitsplat(actors[i], values[i], details[i]);
+            }
+            else
+            {
+                handler.onAttackAnimation(actors[i], values[i], details[i]);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Drop every staged event without processing it
+     */
+    public void clear()
+    {
+        // Don't keep actors from earlier ticks reachable
+        Arrays.fill(actors, 0, size, null);
+        size = 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private void add(byte kind, Actor actor, int value, int detail)
+    {
+        if (size == kinds.length)
+        {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            values = Arrays.copyOf(values, capacity);
+            details = Arrays.copyOf(details, capacity);
+            actors = Arrays.copyOf(actors, capacity);
+        }
+
+        kinds[size] = kind;
+        values[size] = value;
+        details[size] = detail;
+        actors[size] = actor;
+        size++;
+    }
+}
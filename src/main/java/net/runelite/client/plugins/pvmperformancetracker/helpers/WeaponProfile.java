@@ -0,0 +1,102 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.client.game.ItemEquipmentStats;
+
+/**
+ * What attack recording needs to know about a weapon, packed into an int
+ *
+ * Built from the item's equipment stats: attack speed, the style it attacks with (one of the AnimationRegistry
+ * STYLE_ constants) and whether it is a ranged or magic weapon. Packing keeps the per-item cache in WeaponSpeedHelper
+ * a primitive table.
+ */
+public final class WeaponProfile
+{
+    // Layout: bits 0-3 speed in ticks, bits 4-6 style, bit 7 ranged, bit 8 magic
+    private static final int SPEED_MASK = 0xF;
+    private static final int STYLE_SHIFT = 4;
+    private static final int STYLE_MASK = 0x7;
+    private static final int RANGED_BIT = 1 << 7;
+    private static final int MAGIC_BIT = 1 << 8;
+
+    public static final int DEFAULT_SPEED = 4;
+
+    public static final int UNARMED = pack(DEFAULT_SPEED, AnimationRegistry.STYLE_CRUSH, false, false);
+
+    private WeaponProfile()
+    {
+    }
+
+    /**
+     * Profile of a weapon from its equipment stats; items without stats are treated as a default melee weapon
+     */
+    public static int fromStats(ItemEquipmentStats stats)
+    {
+        if (stats == null)
+        {
+            return pack(DEFAULT_SPEED, AnimationRegistry.STYLE_SLASH, false, false);
+        }
+
+        int speed = stats.getAspeed() > 0 ? stats.getAspeed() : DEFAULT_SPEED;
+        int melee = Math.max(stats.getAstab(), Math.max(stats.getAslash(), stats.getAcrush()));
+
+        // A ranged or magic weapon has that attack bonus and nothing better to hit with in melee,
+        // which leaves staves that also bash (and their autocasts) counted as melee
+        boolean ranged = stats.getArange() > 0 && stats.getArange() >= melee;
+        boolean magic = !ranged && stats.getAmagic() > 0 && melee <= 0;
+
+        int style;
+        if (ranged)
+        {
+            style = AnimationRegistry.STYLE_RANGED;
+        }
+        else if (magic)
+        {
+            style = AnimationRegistry.STYLE_MAGIC;
+        }
+        else if (stats.getAstab() == melee && stats.getAstab() > stats.getAslash())
+        {
+            style = AnimationRegistry.STYLE_STAB;
+        }
+        else if (stats.getAcrush() == melee && stats.getAcrush() > stats.getAslash())
+        {
+            style = AnimationRegistry.STYLE_CRUSH;
+        }
+        else
+        {
+            style = AnimationRegistry.STYLE_SLASH;
+        }
+
+        return pack(speed, style, ranged, magic);
+    }
+
+    public static int pack(int speed, int style, boolean ranged, boolean magic)
+    {
+        return Math.min(speed, SPEED_MASK)
+                | style << STYLE_SHIFT
+                | (ranged ? RANGED_BIT : 0)
+                | (magic ? MAGIC_BIT : 0);
+    }
+
+    public static int getSpeed(int profile)
+    {
+        return profile & SPEED_MASK;
+    }
+
+    /**
+     * One of the AnimationRegistry STYLE_ constants
+     */
+    public static int getStyle(int profile)
+    {
+        return (profile >> STYLE_SHIFT) & STYLE_MASK;
+    }
+
+    public static boolean isRanged(int profile)
+    {
+        return (profile & RANGED_BIT) != 0;
+    }
+
+    public static boolean isMagic(int profile)
+    {
+        return (profile & MAGIC_BIT) != 0;
+    }
+}
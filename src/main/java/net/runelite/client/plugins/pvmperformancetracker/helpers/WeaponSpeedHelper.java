@@ -2,204 +2,94 @@ package net.runelite.client.plugins.pvmperformancetracker.helpers;
 
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
-
-import java.util.HashMap;
-import java.util.Map;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.ItemStats;
 
 /**
  * Tracks weapon attack speeds for calculating attacking ticks lost
+ *
+ * Weapon profiles (see WeaponProfile) are built once per item id from the item's equipment stats. The equipped
+ * weapon's profile is pinned when the equipment changes, so recording an attack is a field read.
  */
 @Slf4j
 public class WeaponSpeedHelper
 {
+    private static final int NO_PROFILE = -1;
+
+    // Rapid stance on a ranged weapon attacks one tick faster
+    private static final int RAPID_STYLE = 1;
+    private static final int MIN_RAPID_SPEED = 2;
+
     private final Client client;
+    private final ItemManager itemManager;
 
-    // Cache of weapon ID -> attack speed (in ticks)
-    private final Map<Integer, Integer> weaponSpeedCache = new HashMap<>();
+    // Item id -> packed WeaponProfile
+    private final IntIntMap profiles = new IntIntMap(64, NO_PROFILE);
 
-    // Default attack speeds by weapon type
-    private static final int DEFAULT_MELEE_SPEED = 4;
-    private static final int DEFAULT_RANGED_SPEED = 5;
-    private static final int DEFAULT_MAGIC_SPEED = 5;
-    private static final int UNARMED_SPEED = 4;
+    // Profile of the equipped weapon, rebuilt on equipment changes only
+    private int currentProfile = WeaponProfile.UNARMED;
 
-    public WeaponSpeedHelper(Client client)
+    public WeaponSpeedHelper(Client client, ItemManager itemManager)
     {
         this.client = client;
-        initializeWeaponSpeeds();
+        this.itemManager = itemManager;
     }
 
     /**
-     * Get the attack speed of the currently equipped weapon
+     * Pin the profile of the weapon in the given equipment
+     * Called on the client thread when the equipment container changes, and once at startup
      */
-    public int getCurrentWeaponSpeed()
+    public void updateEquipment(ItemContainer equipment)
     {
-        Player localPlayer = client.getLocalPlayer();
-        if (localPlayer == null)
-        {
-            return DEFAULT_MELEE_SPEED;
-        }
-
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment == null)
-        {
-            return UNARMED_SPEED;
-        }
-
-        Item weapon = equipment.getItem(EquipmentInventorySlot.WEAPON.getSlotIdx());
-        if (weapon == null)
-        {
-            return UNARMED_SPEED;
-        }
-
-        return getWeaponSpeed(weapon.getId());
+        Item weapon = equipment != null ? equipment.getItem(EquipmentInventorySlot.WEAPON.getSlotIdx()) : null;
+        currentProfile = weapon != null && weapon.getId() > 0 ? getProfile(weapon.getId()) : WeaponProfile.UNARMED;
     }
 
     /**
-     * Get weapon speed by item ID
+     * Pin the profile of the client's currently equipped weapon
      */
-    public int getWeaponSpeed(int weaponId)
+    public void updateEquipment()
     {
-        // Check cache first
-        if (weaponSpeedCache.containsKey(weaponId))
-        {
-            return weaponSpeedCache.get(weaponId);
-        }
-
-        // Get weapon name to determine speed
-        ItemComposition itemComp = client.getItemDefinition(weaponId);
-        if (itemComp == null)
-        {
-            return DEFAULT_MELEE_SPEED;
-        }
-
-        String weaponName = itemComp.getName().toLowerCase();
-        int speed = determineWeaponSpeed(weaponName);
-
-        // Cache it
-        weaponSpeedCache.put(weaponId, speed);
-
-        return speed;
+        updateEquipment(client.getItemContainer(InventoryID.EQUIPMENT));
     }
 
     /**
-     * Determine weapon speed based on weapon name
+     * Profile of the currently equipped weapon
      */
-    private int determineWeaponSpeed(String weaponName)
+    public int getCurrentProfile()
     {
-        // Daggers - 4 ticks
-        if (weaponName.contains("dagger") || weaponName.contains("knife"))
-        {
-            return 4;
-        }
-
-        // Scimitars, whips - 4 ticks
-        if (weaponName.contains("scimitar") || weaponName.contains("whip"))
-        {
-            return 4;
-        }
-
-        // Rapiers, swords - 4 ticks
-        if (weaponName.contains("rapier") || weaponName.contains("sword"))
-        {
-            return 4;
-        }
-
-        // Maces, hammers - 5 ticks
-        if (weaponName.contains("mace") || weaponName.contains("hammer"))
-        {
-            return 5;
-        }
-
-        // Godswords, 2h - 6 ticks
-        if (weaponName.contains("godsword") || weaponName.contains("2h"))
-        {
-            return 6;
-        }
-
-        // Scythe - 5 ticks
-        if (weaponName.contains("scythe"))
-        {
-            return 5;
-        }
-
-        // Bows - 5 ticks (shortbow 4, longbow 6)
-        if (weaponName.contains("shortbow"))
-        {
-            return 4;
-        }
-        if (weaponName.contains("longbow"))
-        {
-            return 6;
-        }
-        if (weaponName.contains("bow"))
-        {
-            return 5;
-        }
-
-        // Crossbows - 6 ticks (rapid 5)
-        if (weaponName.contains("crossbow"))
-        {
-            return 6; // Assume accurate stance
-        }
-
-        // Blowpipe - 2 ticks
-        if (weaponName.contains("blowpipe"))
-        {
-            return 2;
-        }
-
-        // Ballista - 6 ticks
-        if (weaponName.contains("ballista"))
-        {
-            return 6;
-        }
-
-        // Darts, knives - 3 ticks
-        if (weaponName.contains("dart") || weaponName.contains("throwing"))
-        {
-            return 3;
-        }
-
-        // Chinchompas - 4 ticks
-        if (weaponName.contains("chinchompa"))
-        {
-            return 4;
-        }
-
-        // Magic - most spells are 5 ticks
-        if (weaponName.contains("staff") || weaponName.contains("wand"))
-        {
-            return 5;
-        }
-
-        // Trident - 4 ticks
-        if (weaponName.contains("trident") || weaponName.contains("sanguinesti"))
-        {
-            return 4;
-        }
-
-        // Harmonised nightmare staff - 4 ticks
-        if (weaponName.contains("harmonised"))
-        {
-            return 4;
-        }
+        return currentProfile;
+    }
 
-        // Default
-        return DEFAULT_MELEE_SPEED;
+    /**
+     * Get the attack speed of the currently equipped weapon
+     */
+    public int getCurrentWeaponSpeed()
+    {
+        return WeaponProfile.getSpeed(currentProfile);
     }
 
     /**
-     * Initialize known weapon speeds
+     * Get weapon speed by item ID
      */
-    private void initializeWeaponSpeeds()
+    public int getWeaponSpeed(int weaponId)
     {
-        // Specific weapons with known IDs can be added here
-        // For now, we rely on name-based detection
+        return WeaponProfile.getSpeed(getProfile(weaponId));
+    }
 
-        // Example:
-        // weaponSpeedCache.put(11785, 2); // Twisted bow
-        // weaponSpeedCache.put(12926, 2); // Blowpipe
+    /**
+     * Profile of a weapon by item ID, built from its stats on first use
+     */
+    public int getProfile(int weaponId)
+    {
+        int profile = profiles.get(weaponId);
+        if (profile == NO_PROFILE)
+        {
+            ItemStats itemStats = itemManager.getItemStats(weaponId);
+            profile = WeaponProfile.fromStats(itemStats != null ? itemStats.getEquipment() : null);
+            profiles.put(weaponId, profile);
+        }
+        return profile;
     }
 
     /**
@@ -208,44 +98,15 @@ public class WeaponSpeedHelper
      */
     public int getAdjustedWeaponSpeed()
     {
-        int baseSpeed = getCurrentWeaponSpeed();
-
-        // Check attack style varbit
-        int attackStyleVarbit = client.getVarpValue(VarPlayer.ATTACK_STYLE);
+        int profile = currentProfile;
+        int baseSpeed = WeaponProfile.getSpeed(profile);
 
         // For ranged weapons, rapid stance reduces speed by 1
-        ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
-        if (equipment != null)
+        if (WeaponProfile.isRanged(profile) && client.getVarpValue(VarPlayer.ATTACK_STYLE) == RAPID_STYLE)
         {
-            Item weapon = equipment.getItem(EquipmentInventorySlot.WEAPON.getSlotIdx());
-            if (weapon != null)
-            {
-                ItemComposition itemComp = client.getItemDefinition(weapon.getId());
-                String weaponName = itemComp.getName().toLowerCase();
-
-                // Check if it's a ranged weapon and rapid stance is active
-                if (isRangedWeapon(weaponName) && attackStyleVarbit == 1)
-                {
-                    return Math.max(2, baseSpeed - 1); // Rapid stance
-                }
-            }
+            return Math.max(MIN_RAPID_SPEED, baseSpeed - 1);
         }
 
         return baseSpeed;
     }
-
-    /**
-     * Check if weapon is a ranged weapon
-     */
-    private boolean isRangedWeapon(String weaponName)
-    {
-        return weaponName.contains("bow") ||
-                weaponName.contains("crossbow") ||
-                weaponName.contains("blowpipe") ||
-                weaponName.contains("chinchompa") ||
-                weaponName.contains("ballista") ||
-                weaponName.contains("dart") ||
-                weaponName.contains("knife") ||
-                weaponName.contains("javelin");
-    }
-}
\ No newline at end of file
+}
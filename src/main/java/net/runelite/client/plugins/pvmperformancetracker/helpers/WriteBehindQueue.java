@@ -0,0 +1,339 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects items on any thread and hands them to a writer in batches on a single consumer thread
+ *
+ * A batch is written once batchSize items are pending, or flushInterval after the first pending item, so a burst of
+ * items costs one write (and one fsync) instead of one each. offer() never blocks on the writer: an item with the
+ * same key as a pending one replaces it, and once capacity items are pending the oldest is dropped. A batch that
+ * fails to write goes back to the head of the queue and is retried after flushInterval, up to MAX_ATTEMPTS times.
+ *
+ * The counters below are there to check that producers never wait on I/O: offer time is only the time to queue,
+ * flush time is measured on the consumer thread.
+ */
+@Slf4j
+public class WriteBehindQueue<T>
+{
+    // Write attempts per batch before its items are given up on
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Writes a batch on the consumer thread
+     */
+    public interface BatchWriter<T>
+    {
+        void write(List<T> batch) throws IOException;
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Function<T, Object> keyFunction;
+    private final BatchWriter<T> writer;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int capacity;
+
+    // Guarded by itself; insertion order is kept, and replacing a pending item keeps its place
+    private final Map<Object, T> pending = new LinkedHashMap<>();
+    private boolean flushQueued;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    // Consecutive failed writes; only used on the consumer thread
+    private int failedAttempts;
+
+    // Metrics, written under the pending lock (offer) or on the consumer thread (flush)
+    private volatile int maxDepth;
+    private volatile long offered;
+    private volatile long coalesced;
+    private volatile long dropped;
+    private volatile long written;
+    private volatile long retried;
+    private volatile long failed;
+    private volatile long flushes;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile long maxOfferNanos;
+
+    public WriteBehindQueue(ScheduledExecutorService executor, Function<T, Object> keyFunction, BatchWriter<T> writer,
+                            int batchSize, long flushIntervalMillis, int capacity)
+    {
+        this.executor = executor;
+        this.keyFunction = keyFunction;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queue an item to be written; never blocks
+     */
+    public void offer(T item)
+    {
+        long start = System.nanoTime();
+        boolean flushNow;
+        boolean scheduleFlush;
+
+        synchronized (pending)
+        {
+            if (closed)
+            {
+                dropped++;
+                return;
+            }
+
+            offered++;
+            if (pending.put(keyFunction.apply(item), item) != null)
+            {
+                coalesced++;
+            }
+            else if (pending.size() > capacity)
+            {
+                Iterator<T> oldest = pending.values().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+            maxDepth = Math.max(maxDepth, pending.size());
+
+            flushNow = pending.size() >= batchSize && !flushQueued;
+            scheduleFlush = !flushNow && !flushQueued && !flushScheduled;
+            flushQueued |= flushNow;
+            flushScheduled |= scheduleFlush;
+        }
+
+        try
+        {
+            if (flushNow)
+            {
+                executor.execute(this::flush);
+            }
+            else if (scheduleFlush)
+            {
+                executor.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("Write-behind executor is shut down, items stay pending");
+        }
+
+        maxOfferNanos = Math.max(maxOfferNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Write everything pending now; must be called on the consumer thread
+     */
+    public void flush()
+    {
+        List<T> batch;
+        synchronized (pending)
+        {
+            flushQueued = false;
+            flushScheduled = false;
+            if (pending.isEmpty())
+            {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+
+        long start = System.nanoTime();
+        try
+        {
+            writer.write(batch);
+            written += batch.size();
+            failedAttempts = 0;
+        }
+        catch (IOException e)
+        {
+            requeue(batch, e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        lastFlushNanos = elapsed;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        flushes++;
+        log.debug("Flushed {} items in {} ms", batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Put a batch that failed to write back at the head of the queue and schedule a retry
+     * Items queued with the same key in the meantime are newer and replace the failed ones. After MAX_ATTEMPTS
+     * consecutive failures, or once the queue is closed, the batch is given up on.
+     */
+    private void requeue(List<T> batch, IOException e)
+    {
+        failedAttempts++;
+        boolean scheduleRetry;
+        synchronized (pending)
+        {
+            if (failedAttempts >= MAX_ATTEMPTS || closed)
+            {
+                failedAttempts = 0;
+                failed += batch.size();
+                log.warn("Failed to write {} queued items, giving up", batch.size(), e);
+                return;
+            }
+
+            Map<Object, T> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (T item : batch)
+            {
+                pending.put(keyFunction.apply(item), item);
+            }
+            pending.putAll(newer);
+
+            // Still bounded by capacity; the oldest items are the failed ones
+            Iterator<T> oldest = pending.values().iterator();
+            while (pending.size() > capacity)
+            {
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+
+            retried += batch.size();
+            scheduleRetry = !flushQueued && !flushScheduled;
+            flushScheduled |= scheduleRetry;
+        }
+
+        log.warn("Failed to write {} queued items, retrying (attempt {} of {})", batch.size(), failedAttempts,
+                MAX_ATTEMPTS, e);
+        if (scheduleRetry)
+        {
+            try
+            {
+                executor.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException rejected)
+            {
+                log.debug("Write-behind executor is shut down, items stay pending");
+            }
+        }
+    }
+
+    /**
+     * Stop accepting items and queue a final flush of what's pending
+     */
+    public void close()
+    {
+        synchronized (pending)
+        {
+            closed = true;
+        }
+
+        try
+        {
+            executor.execute(this::flush);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("Write-behind executor is shut down, {} items were not written", getDepth());
+        }
+    }
+
+    /**
+     * Items waiting to be written
+     */
+    public int getDepth()
+    {
+        synchronized (pending)
+        {
+            return pending.size();
+        }
+    }
+
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    public long getOffered()
+    {
+        return offered;
+    }
+
+    /**
+     * Items replaced by a newer item with the same key before they were written
+     */
+    public long getCoalesced()
+    {
+        return coalesced;
+    }
+
+    /**
+     * Items discarded because the queue was full or closed
+     */
+    public long getDropped()
+    {
+        return dropped;
+    }
+
+    public long getWritten()
+    {
+        return written;
+    }
+
+    /**
+     * Items put back in the queue after a failed write
+     */
+    public long getRetried()
+    {
+        return retried;
+    }
+
+    /**
+     * Items given up on after repeated failed writes
+     */
+    public long getFailed()
+    {
+        return failed;
+    }
+
+    public long getFlushes()
+    {
+        return flushes;
+    }
+
+    public long getLastFlushNanos()
+    {
+        return lastFlushNanos;
+    }
+
+    public long getMaxFlushNanos()
+    {
+        return maxFlushNanos;
+    }
+
+    /**
+     * Longest time a producer spent in offer()
+     */
+    public long getMaxOfferNanos()
+    {
+        return maxOfferNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("depth %d (max %d), offered %d, written %d in %d flushes, coalesced %d, dropped %d, "
+                        + "retried %d, failed %d, flush %.1f ms (max %.1f ms), max offer %.1f us",
+                getDepth(), maxDepth, offered, written, flushes, coalesced, dropped, retried, failed,
+                lastFlushNanos / 1e6, maxFlushNanos / 1e6, maxOfferNanos / 1e3);
+    }
+}
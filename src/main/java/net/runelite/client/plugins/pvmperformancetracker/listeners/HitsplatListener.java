@@ -5,8 +5,12 @@ import net.runelite.api.*;
 import net.runelite.api.events.HitsplatApplied;
 import net.runelite.client.plugins.pvmperformancetracker.PvMPerformanceTrackerPlugin;
 import net.runelite.client.plugins.pvmperformancetracker.enums.DamageType;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.ActorRegistry;
 import net.runelite.client.plugins.pvmperformancetracker.helpers.CombatFormulas;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.CombatStateSnapshot;
 import net.runelite.client.plugins.pvmperformancetracker.helpers.FightTracker;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.NpcMetricsBackfill;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.NpcStatsProvider;
 import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
 import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
 import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
@@ -27,33 +31,48 @@ public class HitsplatListener
         this.client = plugin.getClient();
     }
 
+    /**
+     * Stage the hitsplat for processing with the rest of the tick's events
+     */
     public void onHitsplatApplied(HitsplatApplied event)
     {
-        if (!plugin.getConfig().enableTracking())
-        {
-            return;
-        }
-
         Actor target = event.getActor();
         Hitsplat hitsplat = event.getHitsplat();
 
+        // Only player damage to NPCs and damage to the local player are ever used
+        if (target instanceof NPC && isPlayerDamageHitsplat(hitsplat.getHitsplatType()))
+        {
+            plugin.getTickEvents().addHitsplat(target, hitsplat.getAmount(), 0);
+        }
+        else if (target instanceof Player && target.equals(client.getLocalPlayer()))
+        {
+            // Current HP (before hit); by the time the tick is processed it may already include this hit
+            plugin.getTickEvents().addHitsplat(target, hitsplat.getAmount(), client.getBoostedSkillLevel(Skill.HITPOINTS));
+        }
+    }
+
+    /**
+     * Process a staged hitsplat; called at the game tick, once tracking is known to be enabled
+     */
+    public void processHitsplat(Actor target, int damage, int hitpoints)
+    {
         // Handle damage TO NPCs (offensive tracking)
         if (target instanceof NPC)
         {
-            handleDamageToNPC((NPC) target, hitsplat);
+            handleDamageToNPC((NPC) target, damage);
         }
 
         // Handle damage TO players (defensive tracking - local player only)
         if (target instanceof Player && target.equals(client.getLocalPlayer()))
         {
-            handleDamageToPlayer(hitsplat);
+            handleDamageToPlayer(damage, hitpoints);
         }
     }
 
     /**
      * Handle damage dealt to NPCs - this is where fights start
      */
-    private void handleDamageToNPC(NPC npc, Hitsplat hitsplat)
+    private void handleDamageToNPC(NPC npc, int damage)
     {
         // Check if we should track this NPC
         if (!shouldTrackNPC(npc))
@@ -62,34 +81,32 @@ public class HitsplatListener
             return;
         }
 
-        // Only track player damage hitsplats
-        if (!isPlayerDamageHitsplat(hitsplat))
-        {
-            log.debug("Skipping hitsplat: not player damage type");
-            return;
-        }
-
-        int damage = hitsplat.getAmount();
         String targetName = npc.getName();
         int targetId = npc.getId();
 
         // Try to determine which player dealt this damage (PARTY MEMBERS ONLY)
-        String playerName = determineHitsplatSource(npc);
+        Player source = determineHitsplatSource(npc);
 
-        if (playerName == null)
+        if (source == null)
         {
             log.debug("Skipping hitsplat to {}: could not determine source (not party member or local player)", targetName);
             return; // Not from party member or local player
         }
 
-        log.debug("Processing hitsplat: {} damage to {} from {}", damage, targetName, playerName);
-
         FightTracker fightTracker = plugin.getFightTracker();
         if (fightTracker == null)
         {
             return;
         }
 
+        int playerId = fightTracker.getActors().playerId(source);
+        if (playerId == ActorRegistry.UNKNOWN)
+        {
+            return;
+        }
+
+        log.debug("Processing hitsplat: {} damage to {} from {}", damage, targetName, source.getName());
+
         // START FIGHT ON FIRST HITSPLAT
         Fight currentFight = fightTracker.getCurrentFight();
 
@@ -118,7 +135,7 @@ public class HitsplatListener
         // Record the damage (even if 0)
         if (currentFight != null && currentFight.isActive())
         {
-            fightTracker.addDamageDealt(playerName, damage, targetName);
+            fightTracker.addDamageDealt(playerId, damage, targetId);
 
             // Track this NPC for death detection
             if (plugin.getCombatEventListener() != null)
@@ -127,7 +144,7 @@ public class HitsplatListener
             }
 
             log.debug("{} dealt {} damage to {} (fight: {})",
-                    playerName, damage, targetName, currentFight.getBossName());
+                    source.getName(), damage, targetName, currentFight.getBossName());
         }
         else
         {
@@ -138,7 +155,7 @@ public class HitsplatListener
     /**
      * Handle damage taken by the local player
      */
-    private void handleDamageToPlayer(Hitsplat hitsplat)
+    private void handleDamageToPlayer(int damage, int currentHp)
     {
         FightTracker fightTracker = plugin.getFightTracker();
         if (fightTracker == null || !fightTracker.hasActiveFight())
@@ -158,7 +175,6 @@ public class HitsplatListener
             return;
         }
 
-        int damage = hitsplat.getAmount();
         int currentTick = fightTracker.getCurrentTick();
 
         // Get local player stats
@@ -168,24 +184,39 @@ public class HitsplatListener
             return;
         }
 
-        // Get current HP (before hit)
-        int currentHp = client.getBoostedSkillLevel(Skill.HITPOINTS);
+        // Prayers and levels for this tick
+        CombatStateSnapshot state = plugin.getCombatState();
 
         // Calculate death probability BEFORE this hit (even if it's a 0)
         // This accounts for "what could have happened" not just "what did happen"
-        double deathProbability = calculateDeathProbability(currentHp, currentFight, hitsplat);
-        if (deathProbability > 0.0)
+        NpcStatsProvider npcStatsProvider = plugin.getNpcStatsProvider();
+        NpcMetricsBackfill backfill = plugin.getNpcMetricsBackfill();
+        CombatFormulas formulas = plugin.getCombatFormulas();
+        if (npcStatsProvider != null && npcStatsProvider.isPending(currentFight.getBossNpcId())
+                && backfill != null && formulas != null)
         {
-            playerStats.addDeathChance(deathProbability);
-            log.debug("Death probability: {}% at {} HP (rolled {})",
-                    String.format("%.1f", deathProbability * 100), currentHp, damage);
+            // NPC database or this NPC's entry still loading - work it out once the stats arrive
+            if (currentHp > 0)
+            {
+                backfill.queueDeathChance(currentFight, playerStats, currentHp, state, damage);
+            }
+        }
+        else
+        {
+            double deathProbability = calculateDeathProbability(currentHp, currentFight, damage, state);
+            if (deathProbability > 0.0)
+            {
+                playerStats.addDeathChance(deathProbability);
+                log.debug("Death probability: {}% at {} HP (rolled {})",
+                        String.format("%.1f", deathProbability * 100), currentHp, damage);
+            }
         }
 
         // Only record actual damage if > 0
         if (damage > 0)
         {
             // Classify the damage type
-            DamageType damageType = classifyDamage(currentFight, hitsplat);
+            DamageType damageType = classifyDamage(currentFight, damage, state);
 
             // Record the damage
             playerStats.addDamageTaken(damage, damageType, currentTick);
@@ -203,7 +234,7 @@ public class HitsplatListener
      * Calculate probability of death from this attack
      * Considers NPC's max hit, not just the damage that was rolled
      */
-    private double calculateDeathProbability(int currentHp, Fight fight, Hitsplat hitsplat)
+    private double calculateDeathProbability(int currentHp, Fight fight, int damage, CombatStateSnapshot state)
     {
         if (currentHp <= 0)
         {
@@ -220,7 +251,6 @@ public class HitsplatListener
         if (npcStats == null)
         {
             // Fallback: if we took damage >= current HP, there was death risk
-            int damage = hitsplat.getAmount();
             if (damage >= currentHp)
             {
                 // We survived but could have died - rough estimate
@@ -230,47 +260,22 @@ public class HitsplatListener
         }
 
         // Check if prayer is active
-        boolean isPrayerActive = isPrayerActive(npcStats);
+        boolean isPrayerActive = CombatFormulas.isProtectedFrom(npcStats, state.getProtectionPrayers());
 
         // Use combat formulas to calculate death probability based on NPC max hit
         CombatFormulas formulas = plugin.getCombatFormulas();
         if (formulas != null)
         {
-            return formulas.calculateDeathProbability(currentHp, npcStats, isPrayerActive);
+            return formulas.calculateDeathProbability(currentHp, npcStats, isPrayerActive, state);
         }
 
         return 0.0;
     }
 
-    /**
-     * Check if player has appropriate protection prayer active
-     */
-    private boolean isPrayerActive(NpcCombatStats npcStats)
-    {
-        String attackType = npcStats.getPrimaryAttackType();
-        if (attackType == null)
-        {
-            return false;
-        }
-
-        // Check if relevant protection prayer is active
-        switch (attackType.toLowerCase())
-        {
-            case "melee":
-                return client.isPrayerActive(Prayer.PROTECT_FROM_MELEE);
-            case "ranged":
-                return client.isPrayerActive(Prayer.PROTECT_FROM_MISSILES);
-            case "magic":
-                return client.isPrayerActive(Prayer.PROTECT_FROM_MAGIC);
-            default:
-                return false;
-        }
-    }
-
     /**
      * Classify damage as Avoidable, Prayable, or Unavoidable
      */
-    private DamageType classifyDamage(Fight fight, Hitsplat hitsplat)
+    private DamageType classifyDamage(Fight fight, int damage, CombatStateSnapshot state)
     {
         // Get NPC stats
         NpcCombatStats npcStats = null;
@@ -285,10 +290,10 @@ public class HitsplatListener
         }
 
         // Check if appropriate prayer was active
-        boolean hadCorrectPrayer = isPrayerActive(npcStats);
+        boolean hadCorrectPrayer = CombatFormulas.isProtectedFrom(npcStats, state.getProtectionPrayers());
 
         // If prayer was active and still took damage, it's UNAVOIDABLE
-        if (hadCorrectPrayer && hitsplat.getAmount() > 0)
+        if (hadCorrectPrayer && damage > 0)
         {
             return DamageType.UNAVOIDABLE;
         }
@@ -307,7 +312,7 @@ public class HitsplatListener
      * Determine which player caused the hitsplat
      * ONLY RETURNS: local player OR party members (NOT random nearby players)
      */
-    private String determineHitsplatSource(NPC target)
+    private Player determineHitsplatSource(NPC target)
     {
         Player localPlayer = client.getLocalPlayer();
 
@@ -315,13 +320,13 @@ public class HitsplatListener
         if (localPlayer != null && localPlayer.getInteracting() == target)
         {
             lastAttackedNPC = target; // Track for fallback
-            return localPlayer.getName();
+            return localPlayer;
         }
 
         // Fallback: if local player recently attacked this NPC (getInteracting can be null between attacks)
         if (localPlayer != null && target == lastAttackedNPC)
         {
-            return localPlayer.getName();
+            return localPlayer;
         }
 
         // Additional fallback: check if local player is in combat stance and this is the nearest hostile NPC
@@ -332,7 +337,7 @@ public class HitsplatListener
             if (localTarget == null || localTarget == target)
             {
                 lastAttackedNPC = target;
-                return localPlayer.getName();
+                return localPlayer;
             }
         }
 
@@ -340,13 +345,11 @@ public class HitsplatListener
         PartyStatsManager partyManager = plugin.getPartyStatsManager();
         if (partyManager != null && partyManager.isPartyTrackingEnabled())
         {
-            // Get party members who are nearby
-            for (Player player : partyManager.getNearbyPartyMembers())
+            // Party member interacting with this NPC, from the per-tick index
+            Player partyMember = partyManager.getPartyMemberAttacking(target);
+            if (partyMember != null)
             {
-                if (player.getInteracting() == target)
-                {
-                    return player.getName();
-                }
+                return partyMember;
             }
         }
 
@@ -357,10 +360,8 @@ public class HitsplatListener
     /**
      * Check if hitsplat is player damage
      */
-    private boolean isPlayerDamageHitsplat(Hitsplat hitsplat)
+    private boolean isPlayerDamageHitsplat(int type)
     {
-        int type = hitsplat.getHitsplatType();
-
         return type == HitsplatID.DAMAGE_ME ||
                 type == HitsplatID.DAMAGE_MAX_ME ||  // Max hit (bright red)
                 type == HitsplatID.BLOCK_ME ||
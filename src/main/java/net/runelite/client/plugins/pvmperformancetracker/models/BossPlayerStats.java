@@ -0,0 +1,138 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import lombok.Getter;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.TDigest;
+
+/**
+ * Streaming statistics for one player across every recorded fight against one boss
+ *
+ * Updated once per completed fight in constant time: count, running mean and variance of DPS (Welford), bests,
+ * ticks lost per fight tick, and t-digest sketches for DPS and duration percentiles. Nothing per fight is kept.
+ */
+public class BossPlayerStats
+{
+    public static final int NO_DURATION = Integer.MAX_VALUE;
+
+    @Getter
+    private final String playerName;
+
+    @Getter
+    private int count;
+
+    // Welford running mean and sum of squared differences from it
+    private double dpsMean;
+    private double dpsM2;
+
+    @Getter
+    private double bestDps;
+
+    @Getter
+    private int bestDurationTicks = NO_DURATION;
+
+    private long totalTicksLost;
+    private long totalDurationTicks;
+
+    private final TDigest dpsDigest = new TDigest();
+    private final TDigest durationDigest = new TDigest();
+
+    public BossPlayerStats(String playerName)
+    {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Add one completed fight
+     */
+    public void record(double dps, int durationTicks, int ticksLost)
+    {
+        count++;
+        double delta = dps - dpsMean;
+        dpsMean += delta / count;
+        dpsM2 += delta * (dps - dpsMean);
+
+        bestDps = Math.max(bestDps, dps);
+        bestDurationTicks = Math.min(bestDurationTicks, durationTicks);
+        totalTicksLost += ticksLost;
+        totalDurationTicks += durationTicks;
+
+        dpsDigest.add(dps);
+        durationDigest.add(durationTicks);
+    }
+
+    /**
+     * Add every fight recorded in another instance for the same player and boss
+     */
+    public void merge(BossPlayerStats other)
+    {
+        if (other.count == 0)
+        {
+            return;
+        }
+
+        // Chan et al. parallel combination of mean and M2
+        int combined = count + other.count;
+        double delta = other.dpsMean - dpsMean;
+        dpsMean += delta * other.count / combined;
+        dpsM2 += other.dpsM2 + delta * delta * ((double) count * other.count / combined);
+        count = combined;
+
+        bestDps = Math.max(bestDps, other.bestDps);
+        bestDurationTicks = Math.min(bestDurationTicks, other.bestDurationTicks);
+        totalTicksLost += other.totalTicksLost;
+        totalDurationTicks += other.totalDurationTicks;
+
+        dpsDigest.merge(other.dpsDigest);
+        durationDigest.merge(other.durationDigest);
+    }
+
+    public double getMeanDps()
+    {
+        return dpsMean;
+    }
+
+    /**
+     * Sample variance of DPS, 0 until there are two fights
+     */
+    public double getDpsVariance()
+    {
+        return count > 1 ? dpsM2 / (count - 1) : 0.0;
+    }
+
+    public double getDpsStandardDeviation()
+    {
+        return Math.sqrt(getDpsVariance());
+    }
+
+    /**
+     * Ticks lost per tick of fighting, 0 to 1
+     */
+    public double getTickLossRate()
+    {
+        return totalDurationTicks == 0 ? 0.0 : (double) totalTicksLost / totalDurationTicks;
+    }
+
+    /**
+     * Estimated DPS at a percentile, e.g. 90 for p90; NaN before the first fight
+     */
+    public double getDpsPercentile(double percentile)
+    {
+        return dpsDigest.quantile(percentile / 100.0);
+    }
+
+    /**
+     * Estimated fight duration in ticks at a percentile; NaN before the first fight
+     */
+    public double getDurationPercentile(double percentile)
+    {
+        return durationDigest.quantile(percentile / 100.0);
+    }
+
+    /**
+     * Immutable copy of the figures the panel shows
+     */
+    public BossStatsSummary summarize()
+    {
+        return new BossStatsSummary(playerName, count, dpsMean, getDpsPercentile(50), getDpsPercentile(90), bestDps,
+                bestDurationTicks, getDurationPercentile(50), getTickLossRate());
+    }
+}
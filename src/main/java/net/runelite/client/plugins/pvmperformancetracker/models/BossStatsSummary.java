@@ -0,0 +1,42 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import lombok.Getter;
+
+/**
+ * Immutable summary of one player's recorded fights against one boss, as shown in the panel
+ *
+ * Taken from BossPlayerStats on the client thread and published in TrackerSnapshot, so the panel never reads the
+ * live statistics.
+ */
+@Getter
+public final class BossStatsSummary
+{
+    private final String playerName;
+    private final int fights;
+
+    private final double meanDps;
+    private final double medianDps;
+    private final double p90Dps;
+    private final double bestDps;
+
+    // BossPlayerStats.NO_DURATION before the first fight
+    private final int bestDurationTicks;
+    private final double medianDurationTicks;
+
+    // Ticks lost per tick of fighting, 0 to 1
+    private final double tickLossRate;
+
+    public BossStatsSummary(String playerName, int fights, double meanDps, double medianDps, double p90Dps,
+                            double bestDps, int bestDurationTicks, double medianDurationTicks, double tickLossRate)
+    {
+        this.playerName = playerName;
+        this.fights = fights;
+        this.meanDps = meanDps;
+        this.medianDps = medianDps;
+        this.p90Dps = p90Dps;
+        this.bestDps = bestDps;
+        this.bestDurationTicks = bestDurationTicks;
+        this.medianDurationTicks = medianDurationTicks;
+        this.tickLossRate = tickLossRate;
+    }
+}
@@ -0,0 +1,353 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.plugins.pvmperformancetracker.enums.DamageType;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.DamageDetailSpill;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Append-only log of damage events stored as primitive columns
+ *
+ * Events live in fixed-size chunks of parallel arrays (tick, amount, target NPC id, damage type), so recording a hit
+ * never allocates once the current chunk has room and earlier chunks are never copied as the log grows.
+ *
+ * Chunks can be spilled to a DamageDetailSpill file to stay within the detail memory budget. A spilled chunk is read
+ * back the first time one of its events is accessed; size and total amount are always answered from memory.
+ * If it can't be read back (e.g. the spill file was closed on shutdown), its events read as zero-damage UNKNOWN
+ * entries so the panel and overlay keep working from the in-memory totals.
+ */
+@Slf4j
+public class DamageEventLog
+{
+    /**
+     * Target id used for damage taken by the player
+     */
+    public static final int SELF = -1;
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final DamageType[] DAMAGE_TYPES = DamageType.values();
+
+    // Spill read failures are logged once per session; every later read of a lost chunk fails the same way
+    private static final AtomicBoolean SPILL_READ_FAILURE_LOGGED = new AtomicBoolean();
+
+    private int[][] ticks = new int[0][];
+    private int[][] amounts = new int[0][];
+    private int[][] targetIds = new int[0][];
+    private byte[][] damageTypes = new byte[0][];
+    private int chunkCount;
+    private int size;
+    private long totalAmount;
+
+    // Spill file offset and length of each chunk that has been written out, and the events currently held in memory
+    private DamageDetailSpill spill;
+    private long[] spillOffsets = new long[0];
+    private int[] spillLengths = new int[0];
+    private int residentEvents;
+
+    /**
+     * Record a damage event
+     */
+    public void add(int tick, int amount, int targetId, DamageType damageType)
+    {
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == chunkCount)
+        {
+            addChunk();
+        }
+        else
+        {
+            ensureLoaded(chunk);
+        }
+
+        int index = size & CHUNK_MASK;
+        ticks[chunk][index] = tick;
+        amounts[chunk][index] = amount;
+        targetIds[chunk][index] = targetId;
+        damageTypes[chunk][index] = (byte) damageType.ordinal();
+        size++;
+        totalAmount += amount;
+        residentEvents++;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int getTick(int index)
+    {
+        checkIndex(index);
+        ensureLoaded(index >>> CHUNK_BITS);
+        return ticks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    public int getAmount(int index)
+    {
+        checkIndex(index);
+        ensureLoaded(index >>> CHUNK_BITS);
+        return amounts[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    public int getTargetId(int index)
+    {
+        checkIndex(index);
+        ensureLoaded(index >>> CHUNK_BITS);
+        return targetIds[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    public DamageType getDamageType(int index)
+    {
+        checkIndex(index);
+        ensureLoaded(index >>> CHUNK_BITS);
+        return DAMAGE_TYPES[damageTypes[index >>> CHUNK_BITS][index & CHUNK_MASK]];
+    }
+
+    /**
+     * Total damage of all events
+     */
+    public long getTotalAmount()
+    {
+        return totalAmount;
+    }
+
+    /**
+     * Number of events currently held in memory (the rest are in the spill file)
+     */
+    public int getResidentEvents()
+    {
+        return residentEvents;
+    }
+
+    /**
+     * Write every resident chunk to the spill file and release its arrays
+     * Chunks that fail to write stay in memory
+     * @return the number of events moved out of memory
+     */
+    public int spill(DamageDetailSpill spillFile)
+    {
+        if (spill != null && spill != spillFile)
+        {
+            // Offsets are only meaningful in the file they were written to
+            return 0;
+        }
+
+        int moved = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++)
+        {
+            if (ticks[chunk] == null)
+            {
+                continue;
+            }
+
+            int count = chunkLength(chunk);
+            if (spillLengths[chunk] == count)
+            {
+                // Read back earlier and unchanged since (the log is append-only), so the file copy is current
+                releaseChunk(chunk);
+                residentEvents -= count;
+                moved += count;
+                continue;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(count * (3 * Integer.BYTES + 1));
+            record.asIntBuffer()
+                    .put(ticks[chunk], 0, count)
+                    .put(amounts[chunk], 0, count)
+                    .put(targetIds[chunk], 0, count);
+            record.position(count * 3 * Integer.BYTES);
+            record.put(damageTypes[chunk], 0, count);
+            record.flip();
+
+            try
+            {
+                spillOffsets[chunk] = spillFile.append(record);
+            }
+            catch (IOException e)
+            {
+                log.warn("Failed to spill damage detail, keeping it in memory", e);
+                break;
+            }
+
+            spill = spillFile;
+            spillLengths[chunk] = count;
+            releaseChunk(chunk);
+            residentEvents -= count;
+            moved += count;
+        }
+        return moved;
+    }
+
+    /**
+     * Drop all events and their chunks
+     */
+    public void clear()
+    {
+        ticks = new int[0][];
+        amounts = new int[0][];
+        targetIds = new int[0][];
+        damageTypes = new byte[0][];
+        spillOffsets = new long[0];
+        spillLengths = new int[0];
+        spill = null;
+        chunkCount = 0;
+        size = 0;
+        totalAmount = 0;
+        residentEvents = 0;
+    }
+
+    /**
+     * Read-only list view for consumers that want objects
+     * Each get() creates a DamageInstance, so prefer the indexed getters on hot paths
+     */
+    public List<PlayerStats.DamageInstance> asList()
+    {
+        return new AbstractList<PlayerStats.DamageInstance>()
+        {
+            @Override
+            public PlayerStats.DamageInstance get(int index)
+            {
+                PlayerStats.DamageInstance instance = new PlayerStats.DamageInstance(getTick(index), getAmount(index), getTargetId(index));
+                instance.setDamageType(getDamageType(index));
+                return instance;
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    private void addChunk()
+    {
+        if (chunkCount == ticks.length)
+        {
+            // Grow the chunk tables; only the small outer arrays are copied
+            int capacity = Math.max(4, chunkCount * 2);
+            ticks = Arrays.copyOf(ticks, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            targetIds = Arrays.copyOf(targetIds, capacity);
+            damageTypes = Arrays.copyOf(damageTypes, capacity);
+            spillOffsets = Arrays.copyOf(spillOffsets, capacity);
+            spillLengths = Arrays.copyOf(spillLengths, capacity);
+        }
+
+        ticks[chunkCount] = new int[CHUNK_SIZE];
+        amounts[chunkCount] = new int[CHUNK_SIZE];
+        targetIds[chunkCount] = new int[CHUNK_SIZE];
+        damageTypes[chunkCount] = new byte[CHUNK_SIZE];
+        chunkCount++;
+    }
+
+    /**
+     * Read a spilled chunk back into memory
+     */
+    private void ensureLoaded(int chunk)
+    {
+        if (ticks[chunk] != null)
+        {
+            return;
+        }
+
+        int count = chunkLength(chunk);
+        int[] chunkTicks = new int[CHUNK_SIZE];
+        int[] chunkAmounts = new int[CHUNK_SIZE];
+        int[] chunkTargetIds = new int[CHUNK_SIZE];
+        byte[] chunkDamageTypes = new byte[CHUNK_SIZE];
+
+        ByteBuffer record = readSpilledChunk(chunk, count);
+        if (record != null)
+        {
+            record.asIntBuffer()
+                    .get(chunkTicks, 0, count)
+                    .get(chunkAmounts, 0, count)
+                    .get(chunkTargetIds, 0, count);
+            record.position(count * 3 * Integer.BYTES);
+            record.get(chunkDamageTypes, 0, count);
+        }
+        else
+        {
+            // Detail is lost; the chunk stays zero-damage so totals still come from totalAmount
+            Arrays.fill(chunkDamageTypes, 0, count, (byte) DamageType.UNKNOWN.ordinal());
+        }
+
+        ticks[chunk] = chunkTicks;
+        amounts[chunk] = chunkAmounts;
+        targetIds[chunk] = chunkTargetIds;
+        damageTypes[chunk] = chunkDamageTypes;
+        residentEvents += count;
+    }
+
+    /**
+     * Read a spilled chunk's record from the spill file
+     * @return the record ready to read, or null if the spill file is closed or the read failed
+     */
+    private ByteBuffer readSpilledChunk(int chunk, int count)
+    {
+        if (spill == null || spill.isClosed())
+        {
+            logSpillReadFailure("spill file is closed", null);
+            return null;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(count * (3 * Integer.BYTES + 1));
+        try
+        {
+            spill.read(spillOffsets[chunk], record);
+        }
+        catch (IOException e)
+        {
+            logSpillReadFailure(e.getMessage(), e);
+            return null;
+        }
+        record.flip();
+        return record;
+    }
+
+    private static void logSpillReadFailure(String reason, IOException e)
+    {
+        if (SPILL_READ_FAILURE_LOGGED.compareAndSet(false, true))
+        {
+            log.warn("Failed to read spilled damage detail ({}), showing totals only", reason, e);
+        }
+    }
+
+    private void releaseChunk(int chunk)
+    {
+        ticks[chunk] = null;
+        amounts[chunk] = null;
+        targetIds[chunk] = null;
+        damageTypes[chunk] = null;
+    }
+
+    /**
+     * Events stored in the chunk, i.e. CHUNK_SIZE for every chunk but the last
+     */
+    private int chunkLength(int chunk)
+    {
+        return Math.min(CHUNK_SIZE, size - (chunk << CHUNK_BITS));
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
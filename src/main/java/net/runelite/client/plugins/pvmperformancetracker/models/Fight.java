@@ -1,10 +1,16 @@
 package net.runelite.client.plugins.pvmperformancetracker.models;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.ActorRegistry;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Represents a single fight or overall tracking session
@@ -31,8 +37,29 @@ public class Fight
     // Map of player name -> their stats
     private final Map<String, PlayerStats> playerStats = new ConcurrentHashMap<>();
 
-    // Track the local player's name
+    // Read-only view handed out by getPlayerStats(), and the same players in insertion order for indexed access
+    @Getter(AccessLevel.NONE)
+    private final Map<String, PlayerStats> playerStatsView = Collections.unmodifiableMap(playerStats);
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile PlayerStats[] players = new PlayerStats[0];
+
+    // The same players indexed by ActorRegistry id, for the hit and attack paths
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile PlayerStats[] statsById = new PlayerStats[0];
+
+    // Snapshot of the fight once it has ended, reused until its stats change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile FightSnapshot endedSnapshot;
+
+    // Track the local player's name and id
     private String localPlayerName;
+    private int localPlayerId = ActorRegistry.UNKNOWN;
+
+    // Overall fight this fight's players are linked into while it's the current fight
+    private Fight overall;
 
     public Fight()
     {
@@ -51,12 +78,144 @@ public class Fight
         this.startTick = currentTick;
     }
 
+    /**
+     * Recreate a fight saved in an earlier session
+     */
+    public Fight(String fightId, LocalDateTime startTime)
+    {
+        this.fightId = fightId;
+        this.startTime = startTime;
+    }
+
     /**
      * Get or create player stats for a given player
+     * @param playerId   the player's ActorRegistry id
+     * @param playerName only used when the player joins the fight
+     */
+    public PlayerStats getOrCreatePlayerStats(int playerId, String playerName)
+    {
+        PlayerStats[] byId = statsById;
+        if (playerId >= 0 && playerId < byId.length && byId[playerId] != null)
+        {
+            return byId[playerId];
+        }
+        return addPlayer(playerId, playerName);
+    }
+
+    private PlayerStats addPlayer(int playerId, String playerName)
+    {
+        PlayerStats stats = playerStats.get(playerName);
+        if (stats == null)
+        {
+            stats = new PlayerStats(playerId, playerName);
+            if (overall != null)
+            {
+                overall.getOrCreatePlayerStats(playerId, playerName).setLiveStats(stats);
+            }
+
+            // Players are only ever added, so readers can keep using the array they already have
+            PlayerStats[] grown = Arrays.copyOf(players, players.length + 1);
+            grown[grown.length - 1] = stats;
+            players = grown;
+            playerStats.put(playerName, stats);
+            endedSnapshot = null;
+        }
+
+        if (playerId >= 0)
+        {
+            PlayerStats[] byId = statsById;
+            if (playerId >= byId.length)
+            {
+                byId = Arrays.copyOf(byId, Math.max(playerId + 1, byId.length * 2));
+            }
+            byId[playerId] = stats;
+            statsById = byId;
+        }
+        return stats;
+    }
+
+    /**
+     * Stats for a player by ActorRegistry id, or null if they haven't taken part
+     */
+    public PlayerStats getPlayerStats(int playerId)
+    {
+        PlayerStats[] byId = statsById;
+        return playerId >= 0 && playerId < byId.length ? byId[playerId] : null;
+    }
+
+    /**
+     * Stats for a player by name, or null if they haven't taken part
+     */
+    public PlayerStats getPlayerStats(String playerName)
+    {
+        return playerStats.get(playerName);
+    }
+
+    public int getPlayerCount()
+    {
+        return players.length;
+    }
+
+    /**
+     * Player at the given index, in the order players joined the fight
+     */
+    public PlayerStats getPlayer(int index)
+    {
+        return players[index];
+    }
+
+    /**
+     * Visit every player without copying the player map
+     */
+    public void forEachPlayer(Consumer<PlayerStats> action)
+    {
+        for (PlayerStats stats : players)
+        {
+            action.accept(stats);
+        }
+    }
+
+    /**
+     * Immutable copy of the fight for readers on other threads
+     * Must be called on the client thread; an ended fight returns the same copy until invalidateSnapshot()
+     */
+    public FightSnapshot snapshot(int currentTick)
+    {
+        FightSnapshot snapshot = endedSnapshot;
+        if (snapshot != null && !active)
+        {
+            return snapshot;
+        }
+
+        snapshot = FightSnapshot.of(this, currentTick);
+        endedSnapshot = active ? null : snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Drop the cached snapshot after an ended fight's stats changed, e.g. from back-filled metrics
      */
-    public PlayerStats getOrCreatePlayerStats(String playerName)
+    public void invalidateSnapshot()
     {
-        return playerStats.computeIfAbsent(playerName, k -> new PlayerStats(playerName));
+        endedSnapshot = null;
+    }
+
+    /**
+     * Link this fight's players into Overall, so Overall reads their stats live until the fight is locked in
+     * Players added later are linked as they are created
+     */
+    public void linkInto(Fight overallFight)
+    {
+        this.overall = overallFight;
+        if (overallFight == null)
+        {
+            return;
+        }
+
+        for (PlayerStats stats : players)
+        {
+            overallFight.getOrCreatePlayerStats(stats.getPlayerId(), stats.getPlayerName()).setLiveStats(stats);
+        }
     }
 
     /**
@@ -69,7 +228,7 @@ public class Fight
         this.endTime = LocalDateTime.now();
 
         // Finalize all player stats
-        for (PlayerStats stats : playerStats.values())
+        for (PlayerStats stats : players)
         {
             stats.finalizeFight(getDurationTicks());
         }
@@ -126,9 +285,12 @@ public class Fight
      */
     public int getTotalDamage()
     {
-        return playerStats.values().stream()
-                .mapToInt(PlayerStats::getDamageDealt)
-                .sum();
+        int total = 0;
+        for (PlayerStats stats : players)
+        {
+            total += stats.getDamageDealt();
+        }
+        return total;
     }
 
     /**
@@ -136,6 +298,10 @@ public class Fight
      */
     public PlayerStats getLocalPlayerStats()
     {
+        if (localPlayerId != ActorRegistry.UNKNOWN)
+        {
+            return getPlayerStats(localPlayerId);
+        }
         if (localPlayerName == null)
         {
             return null;
@@ -149,14 +315,15 @@ public class Fight
      */
     public boolean hasActivity()
     {
-        return !playerStats.isEmpty();
+        return players.length > 0;
     }
 
     /**
-     * Get a copy of all player stats (for thread safety)
+     * Read-only live view of all player stats
+     * Backed by a concurrent map, so it can be iterated while players are added; nothing is copied
      */
     public Map<String, PlayerStats> getPlayerStats()
     {
-        return new HashMap<>(playerStats);
+        return playerStatsView;
     }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity history of past fights and their snapshots, newest first
+ *
+ * Fights are appended to a window [start, end) of a backing array that is twice the capacity; evicting the oldest
+ * fight just moves start. Slots inside a window are never written again, so each change publishes an immutable view
+ * over the current window for readers on other threads without copying it. Once the window reaches the end of the
+ * array it is compacted into a new one, which keeps add() O(1) amortized. Only mutated on the client thread.
+ */
+public class FightHistoryBuffer
+{
+    private int capacity;
+
+    // Oldest first in [start, end); evicted entries before start are kept until compaction, as old views may read them
+    private Fight[] fights;
+    private FightSnapshot[] snapshots;
+    private int start;
+    private int end;
+
+    // Views handed to readers, replaced on every change
+    private volatile List<Fight> publishedFights = Collections.emptyList();
+    private volatile List<FightSnapshot> publishedSnapshots = Collections.emptyList();
+
+    public FightHistoryBuffer(int capacity)
+    {
+        this.capacity = Math.max(1, capacity);
+        fights = new Fight[2 * this.capacity];
+        snapshots = new FightSnapshot[2 * this.capacity];
+    }
+
+    /**
+     * Add a fight as the newest entry
+     * @param snapshot the fight's snapshot, published alongside it
+     * @return the oldest fight if it was evicted to make room, otherwise null
+     */
+    public Fight add(Fight fight, FightSnapshot snapshot)
+    {
+        Fight evicted = null;
+        if (size() == capacity)
+        {
+            evicted = fights[start];
+            start++;
+        }
+
+        if (end == fights.length)
+        {
+            compact(capacity);
+        }
+
+        fights[end] = fight;
+        snapshots[end] = snapshot;
+        end++;
+        publish();
+        return evicted;
+    }
+
+    /**
+     * Fight at the given position, 0 being the newest
+     */
+    public Fight get(int index)
+    {
+        if (index < 0 || index >= size())
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        return fights[end - 1 - index];
+    }
+
+    public int size()
+    {
+        return end - start;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Change the capacity, keeping the newest fights that still fit
+     */
+    public void resize(int capacity)
+    {
+        capacity = Math.max(1, capacity);
+        if (capacity == this.capacity)
+        {
+            return;
+        }
+
+        // Drop the oldest fights that no longer fit
+        start = Math.max(start, end - capacity);
+        this.capacity = capacity;
+        compact(capacity);
+        publish();
+    }
+
+    /**
+     * Take new snapshots of every fight, e.g. after back-filled metrics changed ended fights
+     * Fights whose cached snapshot is still valid return the same one, so this only copies references.
+     * @param changed called with each snapshot that replaced a different one
+     */
+    public void refreshSnapshots(int currentTick, Consumer<FightSnapshot> changed)
+    {
+        compact(capacity);
+        for (int i = start; i < end; i++)
+        {
+            FightSnapshot snapshot = fights[i].snapshot(currentTick);
+            if (snapshot != snapshots[i])
+            {
+                snapshots[i] = snapshot;
+                changed.accept(snapshot);
+            }
+        }
+        publish();
+    }
+
+    public void clear()
+    {
+        fights = new Fight[2 * capacity];
+        snapshots = new FightSnapshot[2 * capacity];
+        start = 0;
+        end = 0;
+        publish();
+    }
+
+    /**
+     * Immutable view of the history, newest first; safe to read from any thread
+     */
+    public List<Fight> asList()
+    {
+        return publishedFights;
+    }
+
+    /**
+     * Immutable view of the fights' snapshots, newest first; safe to read from any thread
+     */
+    public List<FightSnapshot> snapshots()
+    {
+        return publishedSnapshots;
+    }
+
+    /**
+     * Move the window to the start of new arrays with room for the given capacity
+     * Published views keep the old arrays, so they stay valid.
+     */
+    private void compact(int capacity)
+    {
+        int size = size();
+        Fight[] compactedFights = new Fight[2 * capacity];
+        FightSnapshot[] compactedSnapshots = new FightSnapshot[2 * capacity];
+        System.arraycopy(fights, start, compactedFights, 0, size);
+        System.arraycopy(snapshots, start, compactedSnapshots, 0, size);
+
+        fights = compactedFights;
+        snapshots = compactedSnapshots;
+        start = 0;
+        end = size;
+    }
+
+    private void publish()
+    {
+        publishedFights = new NewestFirst<>(fights, start, end);
+        publishedSnapshots = new NewestFirst<>(snapshots, start, end);
+    }
+
+    /**
+     * Read-only view over [start, end) of an array, last element first
+     */
+    private static final class NewestFirst<T> extends AbstractList<T> implements RandomAccess
+    {
+        private final T[] entries;
+        private final int start;
+        private final int end;
+
+        NewestFirst(T[] entries, int start, int end)
+        {
+            this.entries = entries;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public T get(int index)
+        {
+            if (index < 0 || index >= end - start)
+            {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + (end - start));
+            }
+            return entries[end - 1 - index];
+        }
+
+        @Override
+        public int size()
+        {
+            return end - start;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of a fight at a given tick, safe to read from any thread
+ * Players are ordered by damage dealt, highest first. Ended fights are snapshotted once and the copy is reused
+ * until their stats change again (see Fight.snapshot).
+ */
+@Getter
+public final class FightSnapshot
+{
+    private final String fightId;
+    private final String bossName;
+    private final int bossNpcId;
+    private final LocalDateTime startTime;
+    private final boolean active;
+    private final int durationTicks;
+    private final int totalDamage;
+    private final String localPlayerName;
+    private final List<PlayerSnapshot> players;
+
+    private FightSnapshot(Fight fight, List<PlayerSnapshot> players)
+    {
+        this.fightId = fight.getFightId();
+        this.bossName = fight.getBossName();
+        this.bossNpcId = fight.getBossNpcId();
+        this.startTime = fight.getStartTime();
+        this.active = fight.isActive();
+        this.durationTicks = fight.getDurationTicks();
+        this.localPlayerName = fight.getLocalPlayerName();
+        this.players = players;
+
+        int total = 0;
+        for (PlayerSnapshot player : players)
+        {
+            total += player.getDamageDealt();
+        }
+        this.totalDamage = total;
+    }
+
+    /**
+     * Copy the fight; must be called on the thread that updates it
+     */
+    static FightSnapshot of(Fight fight, int currentTick)
+    {
+        boolean active = fight.isActive();
+        List<PlayerSnapshot> players = new ArrayList<>(fight.getPlayerCount());
+        fight.forEachPlayer(stats -> players.add(PlayerSnapshot.of(stats, currentTick, active)));
+        players.sort((a, b) -> Integer.compare(b.getDamageDealt(), a.getDamageDealt()));
+
+        return new FightSnapshot(fight, Collections.unmodifiableList(players));
+    }
+
+    /**
+     * Local player's stats, or null if they haven't taken part
+     */
+    public PlayerSnapshot getLocalPlayer()
+    {
+        if (localPlayerName == null)
+        {
+            return null;
+        }
+
+        for (PlayerSnapshot player : players)
+        {
+            if (localPlayerName.equals(player.getPlayerName()))
+            {
+                return player;
+            }
+        }
+        return null;
+    }
+}
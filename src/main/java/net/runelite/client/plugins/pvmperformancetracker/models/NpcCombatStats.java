@@ -1,113 +1,181 @@
 package net.runelite.client.plugins.pvmperformancetracker.models;
 
-import com.google.gson.annotations.SerializedName;
-import lombok.Data;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.NpcStatsStore;
 
 import java.util.List;
 
 /**
  * NPC combat stats from OSRSBox database
  * Schema: https://www.osrsbox.com/projects/osrsbox-db/
+ *
+ * Lightweight view over one row of an NpcStatsStore; getters return null for stats the database doesn't have
  */
-@Data
 public class NpcCombatStats
 {
-    private int id;
-    private String name;
+    private final NpcStatsStore store;
+    private final int row;
+
+    public NpcCombatStats(NpcStatsStore store, int row)
+    {
+        this.store = store;
+        this.row = row;
+    }
+
+    public int getId()
+    {
+        return store.getId(row);
+    }
+
+    public String getName()
+    {
+        return store.getName(row);
+    }
 
     // Combat stats
-    @SerializedName("hitpoints")
-    private Integer hitpoints;
+    public Integer getHitpoints()
+    {
+        return stat(NpcStatsStore.HITPOINTS);
+    }
 
-    @SerializedName("attack_level")
-    private Integer attackLevel;
+    public Integer getAttackLevel()
+    {
+        return stat(NpcStatsStore.ATTACK_LEVEL);
+    }
 
-    @SerializedName("strength_level")
-    private Integer strengthLevel;
+    public Integer getStrengthLevel()
+    {
+        return stat(NpcStatsStore.STRENGTH_LEVEL);
+    }
 
-    @SerializedName("defence_level")
-    private Integer defenceLevel;
+    public Integer getDefenceLevel()
+    {
+        return stat(NpcStatsStore.DEFENCE_LEVEL);
+    }
 
-    @SerializedName("magic_level")
-    private Integer magicLevel;
+    public Integer getMagicLevel()
+    {
+        return stat(NpcStatsStore.MAGIC_LEVEL);
+    }
 
-    @SerializedName("ranged_level")
-    private Integer rangedLevel;
+    public Integer getRangedLevel()
+    {
+        return stat(NpcStatsStore.RANGED_LEVEL);
+    }
 
     // Attack bonuses
-    @SerializedName("attack_stab")
-    private Integer attackStab;
+    public Integer getAttackStab()
+    {
+        return stat(NpcStatsStore.ATTACK_STAB);
+    }
 
-    @SerializedName("attack_slash")
-    private Integer attackSlash;
+    public Integer getAttackSlash()
+    {
+        return stat(NpcStatsStore.ATTACK_SLASH);
+    }
 
-    @SerializedName("attack_crush")
-    private Integer attackCrush;
+    public Integer getAttackCrush()
+    {
+        return stat(NpcStatsStore.ATTACK_CRUSH);
+    }
 
-    @SerializedName("attack_magic")
-    private Integer attackMagic;
+    public Integer getAttackMagic()
+    {
+        return stat(NpcStatsStore.ATTACK_MAGIC);
+    }
 
-    @SerializedName("attack_ranged")
-    private Integer attackRanged;
+    public Integer getAttackRanged()
+    {
+        return stat(NpcStatsStore.ATTACK_RANGED);
+    }
 
     // Defence bonuses
-    @SerializedName("defence_stab")
-    private Integer defenceStab;
+    public Integer getDefenceStab()
+    {
+        return stat(NpcStatsStore.DEFENCE_STAB);
+    }
 
-    @SerializedName("defence_slash")
-    private Integer defenceSlash;
+    public Integer getDefenceSlash()
+    {
+        return stat(NpcStatsStore.DEFENCE_SLASH);
+    }
 
-    @SerializedName("defence_crush")
-    private Integer defenceCrush;
+    public Integer getDefenceCrush()
+    {
+        return stat(NpcStatsStore.DEFENCE_CRUSH);
+    }
 
-    @SerializedName("defence_magic")
-    private Integer defenceMagic;
+    public Integer getDefenceMagic()
+    {
+        return stat(NpcStatsStore.DEFENCE_MAGIC);
+    }
 
-    @SerializedName("defence_ranged")
-    private Integer defenceRanged;
+    public Integer getDefenceRanged()
+    {
+        return stat(NpcStatsStore.DEFENCE_RANGED);
+    }
 
     // Other bonuses
-    @SerializedName("attack_accuracy")
-    private Integer attackAccuracy;
+    public Integer getAttackAccuracy()
+    {
+        return stat(NpcStatsStore.ATTACK_ACCURACY);
+    }
 
-    @SerializedName("melee_strength")
-    private Integer meleeStrength;
+    public Integer getMeleeStrength()
+    {
+        return stat(NpcStatsStore.MELEE_STRENGTH);
+    }
 
-    @SerializedName("ranged_strength")
-    private Integer rangedStrength;
+    public Integer getRangedStrength()
+    {
+        return stat(NpcStatsStore.RANGED_STRENGTH);
+    }
 
-    @SerializedName("magic_damage")
-    private Integer magicDamage;
+    public Integer getMagicDamage()
+    {
+        return stat(NpcStatsStore.MAGIC_DAMAGE);
+    }
 
     // Max hit
-    @SerializedName("max_hit")
-    private Integer maxHit;
+    public Integer getMaxHit()
+    {
+        return stat(NpcStatsStore.MAX_HIT);
+    }
 
     // Attack type
-    @SerializedName("attack_type")
-    private List<String> attackType; // ["melee", "magic", "ranged"]
+    public List<String> getAttackType() // ["melee", "magic", "ranged"]
+    {
+        return store.getAttackTypes(row);
+    }
 
     // Aggressive status
-    @SerializedName("aggressive")
-    private Boolean aggressive;
+    public Boolean getAggressive()
+    {
+        Integer aggressive = stat(NpcStatsStore.AGGRESSIVE);
+        return aggressive == null ? null : aggressive == 1;
+    }
 
     // Slayer properties
-    @SerializedName("slayer_level")
-    private Integer slayerLevel;
+    public Integer getSlayerLevel()
+    {
+        return stat(NpcStatsStore.SLAYER_LEVEL);
+    }
 
-    @SerializedName("slayer_xp")
-    private Integer slayerXp;
+    public Integer getSlayerXp()
+    {
+        return stat(NpcStatsStore.SLAYER_XP);
+    }
 
     /**
      * Get primary attack type
      */
     public String getPrimaryAttackType()
     {
-        if (attackType == null || attackType.isEmpty())
+        String primary = store.getPrimaryAttackType(row);
+        if (primary == null)
         {
             return "melee"; // Default
         }
-        return attackType.get(0);
+        return primary;
     }
 
     /**
@@ -115,7 +183,7 @@ public class NpcCombatStats
      */
     public boolean hasMultipleAttackStyles()
     {
-        return attackType != null && attackType.size() > 1;
+        return store.getAttackTypeCount(row) > 1;
     }
 
     /**
@@ -131,15 +199,15 @@ public class NpcCombatStats
         switch (style.toLowerCase())
         {
             case "stab":
-                return defenceStab != null ? defenceStab : 0;
+                return statOr(NpcStatsStore.DEFENCE_STAB, 0);
             case "slash":
-                return defenceSlash != null ? defenceSlash : 0;
+                return statOr(NpcStatsStore.DEFENCE_SLASH, 0);
             case "crush":
-                return defenceCrush != null ? defenceCrush : 0;
+                return statOr(NpcStatsStore.DEFENCE_CRUSH, 0);
             case "magic":
-                return defenceMagic != null ? defenceMagic : 0;
+                return statOr(NpcStatsStore.DEFENCE_MAGIC, 0);
             case "ranged":
-                return defenceRanged != null ? defenceRanged : 0;
+                return statOr(NpcStatsStore.DEFENCE_RANGED, 0);
             default:
                 return 0;
         }
@@ -158,26 +226,34 @@ public class NpcCombatStats
         switch (style.toLowerCase())
         {
             case "stab":
-                return attackStab != null ? attackStab : 0;
+                return statOr(NpcStatsStore.ATTACK_STAB, 0);
             case "slash":
-                return attackSlash != null ? attackSlash : 0;
+                return statOr(NpcStatsStore.ATTACK_SLASH, 0);
             case "crush":
-                return attackCrush != null ? attackCrush : 0;
+                return statOr(NpcStatsStore.ATTACK_CRUSH, 0);
             case "magic":
-                return attackMagic != null ? attackMagic : 0;
+                return statOr(NpcStatsStore.ATTACK_MAGIC, 0);
             case "ranged":
-                return attackRanged != null ? attackRanged : 0;
+                return statOr(NpcStatsStore.ATTACK_RANGED, 0);
             default:
                 return 0;
         }
     }
 
+    /**
+     * Get max hit with default
+     */
+    public int getMaxHitOrDefault()
+    {
+        return statOr(NpcStatsStore.MAX_HIT, 0);
+    }
+
     /**
      * Get defence level with default
      */
     public int getDefenceLevelOrDefault()
     {
-        return defenceLevel != null ? defenceLevel : 1;
+        return statOr(NpcStatsStore.DEFENCE_LEVEL, 1);
     }
 
     /**
@@ -185,7 +261,7 @@ public class NpcCombatStats
      */
     public int getAttackLevelOrDefault()
     {
-        return attackLevel != null ? attackLevel : 1;
+        return statOr(NpcStatsStore.ATTACK_LEVEL, 1);
     }
 
     /**
@@ -193,6 +269,18 @@ public class NpcCombatStats
      */
     public int getStrengthLevelOrDefault()
     {
-        return strengthLevel != null ? strengthLevel : 1;
+        return statOr(NpcStatsStore.STRENGTH_LEVEL, 1);
+    }
+
+    private Integer stat(int column)
+    {
+        int value = store.getStat(row, column);
+        return value == NpcStatsStore.ABSENT ? null : value;
+    }
+
+    private int statOr(int column, int defaultValue)
+    {
+        int value = store.getStat(row, column);
+        return value == NpcStatsStore.ABSENT ? defaultValue : value;
     }
-}
\ No newline at end of file
+}
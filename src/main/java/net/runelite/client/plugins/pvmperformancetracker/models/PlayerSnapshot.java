@@ -0,0 +1,86 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import lombok.Getter;
+
+/**
+ * Immutable copy of one player's stats at a given tick
+ * Overall's locked-in plus live values and real-time ticks lost are resolved when the snapshot is taken
+ */
+@Getter
+public final class PlayerSnapshot
+{
+    private final String playerName;
+
+    // Offensive
+    private final int damageDealt;
+    private final int totalAttacks;
+    private final int successfulHits;
+    private final int ticksLost;
+    private final double expectedDamageDealt;
+    private final int expectedDamageCalculations;
+
+    // Defensive
+    private final int damageTaken;
+    private final int avoidableDamageTaken;
+    private final int prayableDamageTaken;
+    private final int unavoidableDamageTaken;
+    private final int chancesOfDeath;
+    private final double cumulativeDeathChance;
+
+    private PlayerSnapshot(PlayerStats stats, int currentTick, boolean fightActive)
+    {
+        this.playerName = stats.getPlayerName();
+        this.damageDealt = stats.getDamageDealt();
+        this.totalAttacks = stats.getTotalAttacks();
+        this.successfulHits = stats.getSuccessfulHits();
+        this.ticksLost = Math.max(0, stats.calculateTicksLost(currentTick, fightActive));
+        this.expectedDamageDealt = stats.getExpectedDamageDealt();
+        this.expectedDamageCalculations = stats.getExpectedDamageCalculations();
+        this.damageTaken = stats.getDamageTaken();
+        this.avoidableDamageTaken = stats.getAvoidableDamageTaken();
+        this.prayableDamageTaken = stats.getPrayableDamageTaken();
+        this.unavoidableDamageTaken = stats.getUnavoidableDamageTaken();
+        this.chancesOfDeath = stats.getChancesOfDeath();
+        this.cumulativeDeathChance = stats.getCumulativeDeathChance();
+    }
+
+    /**
+     * Copy the player's stats; must be called on the thread that updates them
+     */
+    public static PlayerSnapshot of(PlayerStats stats, int currentTick, boolean fightActive)
+    {
+        return new PlayerSnapshot(stats, currentTick, fightActive);
+    }
+
+    public double calculateDPS(int durationTicks)
+    {
+        if (durationTicks == 0)
+        {
+            return 0.0;
+        }
+        return damageDealt / (durationTicks * 0.6);
+    }
+
+    public double getAccuracyPercentage()
+    {
+        if (totalAttacks == 0)
+        {
+            return 0.0;
+        }
+        return (successfulHits / (double) totalAttacks) * 100.0;
+    }
+
+    public double getExpectedDps(int durationTicks)
+    {
+        if (durationTicks == 0)
+        {
+            return 0.0;
+        }
+        return expectedDamageDealt / (durationTicks * 0.6);
+    }
+
+    public double getDeathChancePercentage()
+    {
+        return cumulativeDeathChance * 100.0;
+    }
+}
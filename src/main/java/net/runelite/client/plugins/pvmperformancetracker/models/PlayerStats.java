@@ -2,8 +2,8 @@ package net.runelite.client.plugins.pvmperformancetracker.models;
 
 import lombok.Data;
 import net.runelite.client.plugins.pvmperformancetracker.enums.DamageType;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.DamageDetailSpill;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,6 +12,10 @@ import java.util.List;
 @Data
 public class PlayerStats
 {
+    public static final int NO_TICK = -1;
+
+    // ActorRegistry id, or -1 if unknown
+    private final int playerId;
     private final String playerName;
 
     // Offensive Metrics
@@ -30,14 +34,6 @@ public class PlayerStats
     private Integer lastAttackTick; // Tick of last attack
     private int currentWeaponSpeed; // Current weapon speed (updates each attack)
 
-    // Base stats for Overall mode (locked-in values from completed fights)
-    private int baseDamageDealt;
-    private int baseTotalAttacks;
-    private int baseSuccessfulHits;
-    private int baseAttackingTicksLost;
-    private double baseExpectedDamageDealt;
-    private int baseExpectedDamageCalculations;
-
     // Defensive Metrics
     private int damageTaken; // Total damage taken
     private int avoidableDamageTaken;
@@ -49,16 +45,20 @@ public class PlayerStats
     private double cumulativeDeathChance; // Compounding probability of death
 
     // Detailed damage entries for analysis
-    private final List<DamageInstance> damageDealtInstances = new ArrayList<>();
-    private final List<DamageInstance> damageTakenInstances = new ArrayList<>();
+    private final DamageEventLog damageDealtLog = new DamageEventLog();
+    private final DamageEventLog damageTakenLog = new DamageEventLog();
 
     // Tracking state
     private boolean isLocalPlayer;
-    private Integer firstDamageTick;
-    private Integer lastDamageTick;
+    private int firstDamageTick = NO_TICK; // Primitive so recording a hit doesn't box the tick
+    private int lastDamageTick = NO_TICK;
 
-    public PlayerStats(String playerName)
+    // Overall mode: the player's stats in the active fight, added to the locked-in values on read
+    private PlayerStats liveStats;
+
+    public PlayerStats(int playerId, String playerName)
     {
+        this.playerId = playerId;
         this.playerName = playerName;
         this.damageDealt = 0;
         this.totalAttacks = 0;
@@ -68,12 +68,6 @@ public class PlayerStats
         this.totalCombatTicks = 0;
         this.totalAttackingTicks = 0;
         this.attackingTicksLost = 0;
-        this.baseDamageDealt = 0;
-        this.baseTotalAttacks = 0;
-        this.baseSuccessfulHits = 0;
-        this.baseAttackingTicksLost = 0;
-        this.baseExpectedDamageDealt = 0.0;
-        this.baseExpectedDamageCalculations = 0;
         this.damageTaken = 0;
         this.avoidableDamageTaken = 0;
         this.prayableDamageTaken = 0;
@@ -87,7 +81,7 @@ public class PlayerStats
     /**
      * Add damage dealt by this player
      */
-    public void addDamageDealt(int damage, int tick, String target)
+    public void addDamageDealt(int damage, int tick, int targetId)
     {
         this.damageDealt += damage;
 
@@ -97,11 +91,11 @@ public class PlayerStats
         }
 
         // Track first and last damage tick for combat duration
-        if (firstDamageTick == null || tick < firstDamageTick)
+        if (firstDamageTick == NO_TICK || tick < firstDamageTick)
         {
             firstDamageTick = tick;
         }
-        if (lastDamageTick == null || tick > lastDamageTick)
+        if (lastDamageTick == NO_TICK || tick > lastDamageTick)
         {
             lastDamageTick = tick;
         }
@@ -114,9 +108,8 @@ public class PlayerStats
             currentWeaponSpeed = 4; // Default to 4-tick if unknown
         }
 
-        // Store detailed instance
-        DamageInstance instance = new DamageInstance(tick, damage, target);
-        damageDealtInstances.add(instance);
+        // Store detailed entry
+        damageDealtLog.add(tick, damage, targetId, DamageType.UNKNOWN);
     }
 
     /**
@@ -140,9 +133,7 @@ public class PlayerStats
                 break;
         }
 
-        DamageInstance instance = new DamageInstance(tick, damage, "Self");
-        instance.setDamageType(damageType);
-        damageTakenInstances.add(instance);
+        damageTakenLog.add(tick, damage, DamageEventLog.SELF, damageType);
     }
 
     /**
@@ -194,6 +185,12 @@ public class PlayerStats
      */
     public int calculateTicksLost(int currentTick, boolean fightActive)
     {
+        // Overall: locked-in ticks lost plus the active fight's real-time value
+        if (liveStats != null)
+        {
+            return attackingTicksLost + liveStats.calculateTicksLost(currentTick, true);
+        }
+
         // For ended fights, return the finalized value (don't keep accumulating)
         if (!fightActive)
         {
@@ -203,7 +200,7 @@ public class PlayerStats
         // For active fights, calculate real-time
         if (lastAttackTick == null)
         {
-            return 0; // No attacks yet, no ticks lost
+            return attackingTicksLost; // No attacks yet (or Overall between fights), nothing new lost
         }
 
         // Calculate how many ticks since last attack
@@ -234,7 +231,7 @@ public class PlayerStats
         }
 
         double durationSeconds = durationTicks * 0.6;
-        return damageDealt / durationSeconds;
+        return getDamageDealt() / durationSeconds;
     }
 
     /**
@@ -242,11 +239,12 @@ public class PlayerStats
      */
     public double getAccuracyPercentage()
     {
-        if (totalAttacks == 0)
+        int attacks = getTotalAttacks();
+        if (attacks == 0)
         {
             return 0.0;
         }
-        return (successfulHits / (double) totalAttacks) * 100.0;
+        return (getSuccessfulHits() / (double) attacks) * 100.0;
     }
 
     /**
@@ -254,7 +252,7 @@ public class PlayerStats
      */
     public int getTotalDamageTaken()
     {
-        return avoidableDamageTaken + prayableDamageTaken + unavoidableDamageTaken;
+        return getAvoidableDamageTaken() + getPrayableDamageTaken() + getUnavoidableDamageTaken();
     }
 
     /**
@@ -263,13 +261,13 @@ public class PlayerStats
     public void finalizeFight(int fightDurationTicks)
     {
         // Calculate combat ticks (first damage to last damage)
-        if (firstDamageTick != null && lastDamageTick != null)
+        if (firstDamageTick != NO_TICK && lastDamageTick != NO_TICK)
         {
             totalCombatTicks = lastDamageTick - firstDamageTick;
         }
 
         // Finalize ticks lost - lock in the final value
-        if (lastAttackTick != null && firstDamageTick != null)
+        if (lastAttackTick != null && firstDamageTick != NO_TICK)
         {
             // Calculate any remaining ticks lost since last attack
             int fightEndTick = firstDamageTick + fightDurationTicks;
@@ -285,86 +283,105 @@ public class PlayerStats
     }
 
     /**
-     * Merge stats from another PlayerStats (for Overall mode)
+     * Lock a finished fight's stats into Overall's own values and drop the live link
+     * Called when a fight ends, after its stats are finalized
      */
-    public void mergeStats(PlayerStats other)
-    {
-        this.damageDealt += other.damageDealt;
-        this.totalAttacks += other.totalAttacks;
-        this.successfulHits += other.successfulHits;
-        this.totalCombatTicks += other.totalCombatTicks;
-        this.totalAttackingTicks += other.totalAttackingTicks;
-        this.attackingTicksLost += other.attackingTicksLost;
-        this.expectedDamageDealt += other.expectedDamageDealt;
-        this.expectedDamageCalculations += other.expectedDamageCalculations;
-        this.damageTaken += other.damageTaken;
-        this.avoidableDamageTaken += other.avoidableDamageTaken;
-        this.prayableDamageTaken += other.prayableDamageTaken;
-        this.unavoidableDamageTaken += other.unavoidableDamageTaken;
-        this.chancesOfDeath += other.chancesOfDeath;
-
-        // Merge cumulative death chance probabilities
-        double survivalProb = (1.0 - this.cumulativeDeathChance) * (1.0 - other.cumulativeDeathChance);
-        this.cumulativeDeathChance = 1.0 - survivalProb;
-
-        this.damageDealtInstances.addAll(other.damageDealtInstances);
-        this.damageTakenInstances.addAll(other.damageTakenInstances);
+    public void lockInFightStats(PlayerStats currentStats)
+    {
+        damageDealt += currentStats.getDamageDealt();
+        totalAttacks += currentStats.getTotalAttacks();
+        successfulHits += currentStats.getSuccessfulHits();
+        attackingTicksLost += currentStats.getAttackingTicksLost();
+        expectedDamageDealt += currentStats.getExpectedDamageDealt();
+        expectedDamageCalculations += currentStats.getExpectedDamageCalculations();
+
+        damageTaken += currentStats.getDamageTaken();
+        avoidableDamageTaken += currentStats.getAvoidableDamageTaken();
+        prayableDamageTaken += currentStats.getPrayableDamageTaken();
+        unavoidableDamageTaken += currentStats.getUnavoidableDamageTaken();
+        chancesOfDeath += currentStats.getChancesOfDeath();
+        cumulativeDeathChance = combineDeathChance(cumulativeDeathChance, currentStats.getCumulativeDeathChance());
+
+        if (liveStats == currentStats)
+        {
+            liveStats = null;
+        }
     }
 
-    /**
-     * Sync Overall stats with current fight for real-time display
-     * Overall shows: base (from previous fights) + current (from active fight)
-     */
-    public void syncWithCurrentFight(PlayerStats currentStats, int currentTick)
+    // Overall values are derived on read: locked-in value plus the live fight's value, if any
+
+    public int getDamageDealt()
+    {
+        return liveStats == null ? damageDealt : damageDealt + liveStats.getDamageDealt();
+    }
+
+    public int getTotalAttacks()
     {
-        // Set displayed values to base + current
-        this.damageDealt = baseDamageDealt + currentStats.getDamageDealt();
-        this.totalAttacks = baseTotalAttacks + currentStats.getTotalAttacks();
-        this.successfulHits = baseSuccessfulHits + currentStats.getSuccessfulHits();
-        this.expectedDamageDealt = baseExpectedDamageDealt + currentStats.getExpectedDamageDealt();
-        this.expectedDamageCalculations = baseExpectedDamageCalculations + currentStats.getExpectedDamageCalculations();
+        return liveStats == null ? totalAttacks : totalAttacks + liveStats.getTotalAttacks();
+    }
 
-        // Tick loss: base (finalized) + current (real-time)
-        int currentTickLoss = currentStats.calculateTicksLost(currentTick, true);
-        this.attackingTicksLost = baseAttackingTicksLost + currentTickLoss;
+    public int getSuccessfulHits()
+    {
+        return liveStats == null ? successfulHits : successfulHits + liveStats.getSuccessfulHits();
+    }
 
-        // Copy weapon state for display
-        this.lastAttackTick = currentStats.getLastAttackTick();
-        this.currentWeaponSpeed = currentStats.getCurrentWeaponSpeed();
+    public double getExpectedDamageDealt()
+    {
+        return liveStats == null ? expectedDamageDealt : expectedDamageDealt + liveStats.getExpectedDamageDealt();
+    }
 
-        // Defensive stats - sync with current fight
-        this.damageTaken = currentStats.getDamageTaken();
-        this.avoidableDamageTaken = currentStats.getAvoidableDamageTaken();
-        this.prayableDamageTaken = currentStats.getPrayableDamageTaken();
-        this.unavoidableDamageTaken = currentStats.getUnavoidableDamageTaken();
-        this.chancesOfDeath = currentStats.getChancesOfDeath();
-        this.cumulativeDeathChance = currentStats.getCumulativeDeathChance();
+    public int getExpectedDamageCalculations()
+    {
+        return liveStats == null ? expectedDamageCalculations
+                : expectedDamageCalculations + liveStats.getExpectedDamageCalculations();
     }
 
     /**
-     * Lock current fight stats into Overall's base values
-     * Called when a fight ends
+     * Ticks lost locked in so far; use calculateTicksLost() for the real-time value
      */
-    public void lockInFightStats(PlayerStats currentStats)
+    public int getAttackingTicksLost()
+    {
+        return liveStats == null ? attackingTicksLost : attackingTicksLost + liveStats.getAttackingTicksLost();
+    }
+
+    public int getDamageTaken()
+    {
+        return liveStats == null ? damageTaken : damageTaken + liveStats.getDamageTaken();
+    }
+
+    public int getAvoidableDamageTaken()
+    {
+        return liveStats == null ? avoidableDamageTaken : avoidableDamageTaken + liveStats.getAvoidableDamageTaken();
+    }
+
+    public int getPrayableDamageTaken()
     {
-        // Add finalized current fight to base
-        baseDamageDealt += currentStats.getDamageDealt();
-        baseTotalAttacks += currentStats.getTotalAttacks();
-        baseSuccessfulHits += currentStats.getSuccessfulHits();
-        baseAttackingTicksLost += currentStats.getAttackingTicksLost();
-        baseExpectedDamageDealt += currentStats.getExpectedDamageDealt();
-        baseExpectedDamageCalculations += currentStats.getExpectedDamageCalculations();
+        return liveStats == null ? prayableDamageTaken : prayableDamageTaken + liveStats.getPrayableDamageTaken();
+    }
+
+    public int getUnavoidableDamageTaken()
+    {
+        return liveStats == null ? unavoidableDamageTaken
+                : unavoidableDamageTaken + liveStats.getUnavoidableDamageTaken();
+    }
 
-        // Update displayed values to match base (no current fight now)
-        this.damageDealt = baseDamageDealt;
-        this.totalAttacks = baseTotalAttacks;
-        this.successfulHits = baseSuccessfulHits;
-        this.attackingTicksLost = baseAttackingTicksLost;
-        this.expectedDamageDealt = baseExpectedDamageDealt;
-        this.expectedDamageCalculations = baseExpectedDamageCalculations;
+    public int getChancesOfDeath()
+    {
+        return liveStats == null ? chancesOfDeath : chancesOfDeath + liveStats.getChancesOfDeath();
+    }
+
+    public double getCumulativeDeathChance()
+    {
+        return liveStats == null ? cumulativeDeathChance
+                : combineDeathChance(cumulativeDeathChance, liveStats.getCumulativeDeathChance());
+    }
 
-        // Reset weapon state since no current fight
-        this.lastAttackTick = null;
+    /**
+     * Chance of dying in either of two independent stretches: 1 - (1 - a) * (1 - b)
+     */
+    private static double combineDeathChance(double a, double b)
+    {
+        return 1.0 - (1.0 - a) * (1.0 - b);
     }
 
     /**
@@ -381,11 +398,12 @@ public class PlayerStats
      */
     public double getAverageExpectedDamage()
     {
-        if (expectedDamageCalculations == 0)
+        int calculations = getExpectedDamageCalculations();
+        if (calculations == 0)
         {
             return 0.0;
         }
-        return expectedDamageDealt / expectedDamageCalculations;
+        return getExpectedDamageDealt() / calculations;
     }
 
     /**
@@ -398,7 +416,7 @@ public class PlayerStats
             return 0.0;
         }
         double seconds = fightDurationTicks * 0.6; // 0.6 seconds per tick
-        return expectedDamageDealt / seconds;
+        return getExpectedDamageDealt() / seconds;
     }
 
     /**
@@ -421,9 +439,7 @@ public class PlayerStats
                 break;
         }
 
-        DamageInstance instance = new DamageInstance(tick, damage, "Self");
-        instance.setDamageType(damageType);
-        damageTakenInstances.add(instance);
+        damageTakenLog.add(tick, damage, DamageEventLog.SELF, damageType);
     }
 
     /**
@@ -437,9 +453,7 @@ public class PlayerStats
             this.chancesOfDeath++;
 
             // Calculate cumulative probability: 1 - (1 - current) * (1 - new)
-            double survivalProbability = 1.0 - this.cumulativeDeathChance;
-            double newSurvivalProbability = survivalProbability * (1.0 - deathProbability);
-            this.cumulativeDeathChance = 1.0 - newSurvivalProbability;
+            this.cumulativeDeathChance = combineDeathChance(this.cumulativeDeathChance, deathProbability);
         }
     }
 
@@ -448,25 +462,59 @@ public class PlayerStats
      */
     public double getDeathChancePercentage()
     {
-        return cumulativeDeathChance * 100.0;
+        return getCumulativeDeathChance() * 100.0;
+    }
+
+    /**
+     * Damage events of both logs currently held in memory
+     */
+    public int getResidentDetailEvents()
+    {
+        return damageDealtLog.getResidentEvents() + damageTakenLog.getResidentEvents();
+    }
+
+    /**
+     * Move the per-hit damage detail to the spill file; totals and counters are unaffected
+     * @return the number of events moved out of memory
+     */
+    public int spillDetail(DamageDetailSpill spill)
+    {
+        return damageDealtLog.spill(spill) + damageTakenLog.spill(spill);
+    }
+
+    /**
+     * Damage dealt entries as objects, backed by the damage dealt log
+     */
+    public List<DamageInstance> getDamageDealtInstances()
+    {
+        return damageDealtLog.asList();
+    }
+
+    /**
+     * Damage taken entries as objects, backed by the damage taken log
+     */
+    public List<DamageInstance> getDamageTakenInstances()
+    {
+        return damageTakenLog.asList();
     }
 
     /**
      * Inner class to track individual damage instances
+     * Materialized on demand from a DamageEventLog
      */
     @Data
     public static class DamageInstance
     {
         private final int tick;
         private final int amount;
-        private final String target;
+        private final int targetId; // NPC id, or DamageEventLog.SELF for damage taken
         private DamageType damageType;
 
-        public DamageInstance(int tick, int amount, String target)
+        public DamageInstance(int tick, int amount, int targetId)
         {
             this.tick = tick;
             this.amount = amount;
-            this.target = target;
+            this.targetId = targetId;
             this.damageType = DamageType.UNKNOWN;
         }
     }
@@ -0,0 +1,43 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of everything the overlay and panel display, published by FightTracker at most once per game tick
+ *
+ * Consecutive snapshots share unchanged parts: the history list (and each ended fight's FightSnapshot) is reused
+ * until history changes. The version only increases when a new snapshot is published, so a consumer that remembers
+ * the last version it rendered can skip identical work.
+ */
+@Getter
+public final class TrackerSnapshot
+{
+    public static final TrackerSnapshot EMPTY = new TrackerSnapshot(0, 0, null, null, Collections.emptyList(), null);
+
+    private final long version;
+    private final int tick;
+
+    // Null when there is no such fight yet
+    private final FightSnapshot currentFight;
+    private final FightSnapshot overallFight;
+
+    // Newest first
+    private final List<FightSnapshot> history;
+
+    // The local player's record at the current fight's boss; null without a current fight or recorded fights there
+    private final BossStatsSummary currentBossStats;
+
+    public TrackerSnapshot(long version, int tick, FightSnapshot currentFight, FightSnapshot overallFight,
+                           List<FightSnapshot> history, BossStatsSummary currentBossStats)
+    {
+        this.version = version;
+        this.tick = tick;
+        this.currentFight = currentFight;
+        this.overallFight = overallFight;
+        this.history = history;
+        this.currentBossStats = currentBossStats;
+    }
+}
@@ -0,0 +1,132 @@
+package net.runelite.client.plugins.pvmperformancetracker.party;
+
+import net.runelite.api.Actor;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which party member is interacting with each NPC, by NPC index
+ *
+ * Built with one pass over the scene's players the first time it's needed after a game tick or an interaction
+ * change, then every hitsplat is attributed with an array read. Entries are stamped with the build they belong to,
+ * so invalidating never clears the arrays. Only used on the client thread.
+ */
+public class PartyInteractionIndex
+{
+    private final Client client;
+
+    // Names of the party's players, owned and kept current by PartyStatsManager
+    private final Set<String> partyPlayers;
+
+    // NPC index -> slot in players, valid only where npcStamps matches the current build
+    private int[] firstByNpc = new int[1024];
+    private int[] npcStamps = new int[1024];
+    private int stamp;
+
+    // First party member found interacting with each indexed NPC
+    private Player[] players = new Player[16];
+    private int playerCount;
+
+    private boolean dirty = true;
+
+    public PartyInteractionIndex(Client client, Set<String> partyPlayers)
+    {
+        this.client = client;
+        this.partyPlayers = partyPlayers;
+    }
+
+    /**
+     * Rebuild on next use; called on every game tick, interaction change and party change
+     */
+    public void invalidate()
+    {
+        dirty = true;
+    }
+
+    /**
+     * First party member interacting with the NPC, in scene order, or null if none
+     */
+    public Player getAttacker(NPC npc)
+    {
+        if (dirty)
+        {
+            rebuild();
+        }
+
+        int index = npc.getIndex();
+        if (index < 0 || index >= npcStamps.length || npcStamps[index] != stamp)
+        {
+            return null;
+        }
+        return players[firstByNpc[index]];
+    }
+
+    private void rebuild()
+    {
+        dirty = false;
+        stamp++;
+        Arrays.fill(players, 0, playerCount, null);
+        playerCount = 0;
+
+        List<Player> scenePlayers = client.getPlayers();
+        if (scenePlayers == null)
+        {
+            return;
+        }
+
+        // Players are visited in scene order, so the first one found for an NPC is the one attributed
+        for (Player player : scenePlayers)
+        {
+            if (player == null || player.getName() == null)
+            {
+                continue;
+            }
+
+            Actor interacting = player.getInteracting();
+            if (!(interacting instanceof NPC) || !partyPlayers.contains(player.getName()))
+            {
+                continue;
+            }
+
+            int npcIndex = ((NPC) interacting).getIndex();
+            if (npcIndex < 0)
+            {
+                continue;
+            }
+            ensureNpcCapacity(npcIndex);
+            if (npcStamps[npcIndex] != stamp)
+            {
+                npcStamps[npcIndex] = stamp;
+                firstByNpc[npcIndex] = addPlayer(player);
+            }
+        }
+    }
+
+    private int addPlayer(Player player)
+    {
+        if (playerCount == players.length)
+        {
+            players = Arrays.copyOf(players, playerCount * 2);
+        }
+
+        players[playerCount] = player;
+        return playerCount++;
+    }
+
+    private void ensureNpcCapacity(int npcIndex)
+    {
+        if (npcIndex < firstByNpc.length)
+        {
+            return;
+        }
+
+        int capacity = Integer.highestOneBit(npcIndex) << 1;
+        firstByNpc = Arrays.copyOf(firstByNpc, capacity);
+        npcStamps = Arrays.copyOf(npcStamps, capacity);
+    }
+}
@@ -2,6 +2,7 @@ package net.runelite.client.plugins.pvmperformancetracker.party;
 
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.NPC;
 import net.runelite.api.Player;
 import net.runelite.client.party.PartyMember;
 import net.runelite.client.party.PartyService;
@@ -26,11 +27,15 @@ public class PartyStatsManager
     // Track which players are in our party
     private final Set<String> partyPlayers = new HashSet<>();
 
+    // Party member attacking each NPC, for hitsplat attribution
+    private final PartyInteractionIndex interactionIndex;
+
     public PartyStatsManager(PvMPerformanceTrackerPlugin plugin, Client client, PartyService partyService)
     {
         this.plugin = plugin;
         this.client = client;
         this.partyService = partyService;
+        this.interactionIndex = new PartyInteractionIndex(client, partyPlayers);
     }
 
     /**
@@ -40,6 +45,7 @@ public class PartyStatsManager
     {
         partyPlayers.clear();
         partyMemberNames.clear();
+        interactionIndex.invalidate();
 
         if (partyService == null || partyService.getMembers().isEmpty())
         {
@@ -155,10 +161,27 @@ public class PartyStatsManager
         return nearbyParty;
     }
 
+    /**
+     * First party member interacting with the NPC, or null if none
+     * Resolved from an index built at most once per tick, so this is cheap to call for every hitsplat
+     */
+    public Player getPartyMemberAttacking(NPC npc)
+    {
+        return interactionIndex.getAttacker(npc);
+    }
+
+    /**
+     * Mark the interaction index stale; called on every game tick and whenever a player's target changes
+     */
+    public void invalidateInteractions()
+    {
+        interactionIndex.invalidate();
+    }
+
     /**
      * Track damage dealt by a party member (estimated from hitsplats)
      */
-    public void trackPartyMemberDamage(String playerName, int damage, String target)
+    public void trackPartyMemberDamage(String playerName, int damage, int targetId)
     {
         if (!isInParty(playerName))
         {
@@ -166,9 +189,9 @@ public class PartyStatsManager
         }
 
         // Add to fight tracker
-        plugin.getFightTracker().addDamageDealt(playerName, damage, target);
+        plugin.getFightTracker().addDamageDealt(playerName, damage, targetId);
 
-        log.debug("Tracked party member damage: {} dealt {} to {}", playerName, damage, target);
+        log.debug("Tracked party member damage: {} dealt {} to {}", playerName, damage, targetId);
     }
 
     /**
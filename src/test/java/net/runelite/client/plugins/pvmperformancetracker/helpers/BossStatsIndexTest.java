@@ -0,0 +1,92 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.client.plugins.pvmperformancetracker.models.BossStatsSummary;
+import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class BossStatsIndexTest
+{
+    private static final int ZULRAH = 2042;
+    private static final int VORKATH = 8061;
+    private static final String PLAYER = "Player";
+
+    private static final int DURATION_TICKS = 100;
+
+    @Test
+    public void summarizesFightsAtEachBoss()
+    {
+        BossStatsIndex index = new BossStatsIndex();
+        for (int dps = 1; dps <= 10; dps++)
+        {
+            index.addFight(fight(ZULRAH, dps, DURATION_TICKS + 5 * dps));
+        }
+        index.addFight(fight(VORKATH, 50, DURATION_TICKS));
+
+        BossStatsSummary zulrah = index.summarize(ZULRAH, PLAYER);
+        assertEquals(10, zulrah.getFights());
+        assertEquals(5.5, zulrah.getMeanDps(), 1e-9);
+        assertEquals(10.0, zulrah.getBestDps(), 1e-9);
+        assertEquals(5.5, zulrah.getMedianDps(), 1.0);
+        assertEquals(9.5, zulrah.getP90Dps(), 1.0);
+        assertEquals(DURATION_TICKS + 5, zulrah.getBestDurationTicks());
+        assertEquals(DURATION_TICKS + 27.5, zulrah.getMedianDurationTicks(), 5.0);
+
+        assertEquals(1, index.summarize(VORKATH, PLAYER).getFights());
+        assertNull(index.summarize(ZULRAH, "Someone else"));
+        assertNull(index.summarize(1, PLAYER));
+    }
+
+    @Test
+    public void mergedSavedStatsMatchAddingEveryFight()
+    {
+        BossStatsIndex live = new BossStatsIndex();
+        BossStatsIndex saved = new BossStatsIndex();
+        BossStatsIndex all = new BossStatsIndex();
+        for (int dps = 1; dps <= 20; dps++)
+        {
+            Fight fight = fight(ZULRAH, dps, DURATION_TICKS);
+            (dps % 2 == 0 ? live : saved).addFight(fight);
+            all.addFight(fight);
+        }
+
+        long version = live.getVersion();
+        live.merge(saved);
+        assertNotEquals(version, live.getVersion());
+
+        BossStatsSummary merged = live.summarize(ZULRAH, PLAYER);
+        BossStatsSummary expected = all.summarize(ZULRAH, PLAYER);
+        assertEquals(expected.getFights(), merged.getFights());
+        assertEquals(expected.getMeanDps(), merged.getMeanDps(), 1e-9);
+        assertEquals(expected.getBestDps(), merged.getBestDps(), 1e-9);
+        assertEquals(expected.getMedianDps(), merged.getMedianDps(), 1.0);
+        assertEquals(all.get(ZULRAH, PLAYER).getDpsVariance(), live.get(ZULRAH, PLAYER).getDpsVariance(), 1e-9);
+    }
+
+    @Test
+    public void fightsWithoutDurationAreSkipped()
+    {
+        BossStatsIndex index = new BossStatsIndex();
+        index.addFight(fight(ZULRAH, 10, 0));
+
+        assertNull(index.summarize(ZULRAH, PLAYER));
+        assertEquals(0, index.getVersion());
+    }
+
+    /**
+     * A fight whose only player dealt the given DPS; durations are multiples of 5 ticks (3 seconds) to keep it exact
+     */
+    private static Fight fight(int bossNpcId, int dps, int durationTicks)
+    {
+        Fight fight = new Fight(0);
+        fight.setBossNpcId(bossNpcId);
+        PlayerStats stats = fight.getOrCreatePlayerStats(1, PLAYER);
+        stats.addDamageDealt(dps * durationTicks * 3 / 5, 1, bossNpcId);
+        fight.endFight(durationTicks);
+        return fight;
+    }
+}
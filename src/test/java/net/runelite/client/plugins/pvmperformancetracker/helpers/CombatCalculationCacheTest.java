@@ -0,0 +1,131 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.Prayer;
+import net.runelite.api.Skill;
+import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class CombatCalculationCacheTest
+{
+    private static final int NPC_ID = 8061;
+
+    private final Map<Skill, Integer> boostedLevels = new EnumMap<>(Skill.class);
+    private final Set<Prayer> activePrayers = EnumSet.noneOf(Prayer.class);
+
+    private Client client;
+    private CombatFormulas formulas;
+    private NpcCombatStats npc;
+
+    @Before
+    public void setUp()
+    {
+        for (Skill skill : Skill.values())
+        {
+            boostedLevels.put(skill, 99);
+        }
+
+        Player localPlayer = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+                new Class<?>[]{Player.class}, (proxy, method, args) -> null);
+
+        client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                        case "getLocalPlayer":
+                            return localPlayer;
+                        case "getBoostedSkillLevel":
+                            return boostedLevels.get((Skill) args[0]);
+                        case "isPrayerActive":
+                            return activePrayers.contains((Prayer) args[0]);
+                        case "getVarpValue":
+                        case "getVarbitValue":
+                            return 0;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        formulas = new CombatFormulas(client, null);
+
+        NpcStatsStore.Builder builder = new NpcStatsStore.Builder(1);
+        builder.beginRow(NPC_ID);
+        builder.set(NpcStatsStore.DEFENCE_LEVEL, 200);
+        builder.set(NpcStatsStore.DEFENCE_SLASH, 50);
+        builder.commitRow();
+        npc = builder.build().get(NPC_ID);
+    }
+
+    @Test
+    public void attacksTicksApartShareCachedResults()
+    {
+        CombatStateSnapshot state = CombatStateSnapshot.capture(client, CombatStateSnapshot.EMPTY);
+        double first = formulas.calculateExpectedDamage(npc, "slash", state);
+
+        // Five ticks pass before the next attack; the player takes damage, which recaptures the state every tick
+        for (int tick = 0; tick < 5; tick++)
+        {
+            boostedLevels.put(Skill.HITPOINTS, 99 - 10 * (tick + 1));
+            state = CombatStateSnapshot.capture(client, state);
+        }
+
+        double second = formulas.calculateExpectedDamage(npc, "slash", state);
+
+        assertEquals(first, second, 0.0);
+        assertEquals(1, formulas.getCalculationCache().getMisses());
+        assertEquals(1, formulas.getCalculationCache().getHits());
+    }
+
+    @Test
+    public void recaptureWithoutChangesKeepsTheSnapshot()
+    {
+        CombatStateSnapshot state = CombatStateSnapshot.capture(client, CombatStateSnapshot.EMPTY);
+
+        assertSame(state, CombatStateSnapshot.capture(client, state));
+    }
+
+    @Test
+    public void hitpointsChangeKeepsTheVersion()
+    {
+        CombatStateSnapshot state = CombatStateSnapshot.capture(client, CombatStateSnapshot.EMPTY);
+        boostedLevels.put(Skill.HITPOINTS, 42);
+        CombatStateSnapshot next = CombatStateSnapshot.capture(client, state);
+
+        assertEquals(42, next.getHitpoints());
+        assertEquals(state.getVersion(), next.getVersion());
+    }
+
+    @Test
+    public void formulaInputChangeMissesTheCache()
+    {
+        CombatStateSnapshot state = CombatStateSnapshot.capture(client, CombatStateSnapshot.EMPTY);
+        double unboosted = formulas.calculateExpectedDamage(npc, "slash", state);
+
+        activePrayers.add(Prayer.PIETY);
+        CombatStateSnapshot praying = CombatStateSnapshot.capture(client, state);
+        assertNotEquals(state.getVersion(), praying.getVersion());
+        double boosted = formulas.calculateExpectedDamage(npc, "slash", praying);
+
+        boostedLevels.put(Skill.STRENGTH, 118);
+        CombatStateSnapshot potted = CombatStateSnapshot.capture(client, praying);
+        assertNotEquals(praying.getVersion(), potted.getVersion());
+        formulas.calculateExpectedDamage(npc, "slash", potted);
+
+        assertEquals(0, formulas.getCalculationCache().getHits());
+        assertEquals(3, formulas.getCalculationCache().getMisses());
+        assertNotEquals(Double.doubleToLongBits(unboosted), Double.doubleToLongBits(boosted));
+    }
+}
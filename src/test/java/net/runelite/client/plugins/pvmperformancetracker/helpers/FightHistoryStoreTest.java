@@ -0,0 +1,148 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.client.plugins.pvmperformancetracker.models.Fight;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FightHistoryStoreTest
+{
+    private static final int ZULRAH = 2042;
+
+    private Path directory;
+    private FightHistoryStore store;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("fight-history-test");
+        store = new FightHistoryStore(directory.toFile());
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void resavedFightReplacesItsRecord() throws Exception
+    {
+        Fight first = fight(0, 100.0);
+        Fight second = fight(200, 50.0);
+        store.append(first.snapshot(100));
+        store.append(second.snapshot(300));
+        assertEquals(2, store.loadRecent(10).get().size());
+
+        // Back-filled metrics land after the fight was written
+        first.getPlayer(0).addExpectedDamage(25.0);
+        first.invalidateSnapshot();
+        store.append(first.snapshot(400));
+
+        assertSaved(store, first.getFightId(), 125.0, second.getFightId());
+
+        // The superseded record is still in the log; reopening must skip it the same way
+        store.close();
+        store = new FightHistoryStore(directory.toFile());
+        assertSaved(store, first.getFightId(), 125.0, second.getFightId());
+
+        List<Fight> saved = new ArrayList<>();
+        store.forEachSaved(ZULRAH, saved::add).get();
+        assertEquals(1, saved.size());
+        assertEquals(125.0, saved.get(0).getPlayer(0).getExpectedDamageDealt(), 0.0);
+        assertEquals(1, store.findByBoss(ZULRAH, 10).get().size());
+    }
+
+    @Test
+    public void recentFightsSkipSupersededRecords() throws Exception
+    {
+        Fight resaved = fight(0, 10.0);
+        store.append(resaved.snapshot(100));
+        Fight other = fight(200, 20.0);
+        store.append(other.snapshot(300));
+        store.loadRecent(10).get();
+
+        resaved.invalidateSnapshot();
+        store.append(resaved.snapshot(400));
+
+        // The two latest records belong to two different fights
+        List<Fight> recent = store.loadRecent(2).get();
+        assertEquals(2, recent.size());
+        assertEquals(other.getFightId(), recent.get(0).getFightId());
+        assertEquals(resaved.getFightId(), recent.get(1).getFightId());
+    }
+
+    @Test
+    public void queriesFailWhenStoreCantBeOpened() throws Exception
+    {
+        // A file where the store's directory should be, so it can't be created
+        store.close();
+        Files.write(directory.resolve("pvmperformancetracker"), new byte[0]);
+        store = new FightHistoryStore(directory.toFile());
+        store.append(fight(0, 10.0).snapshot(100));
+
+        assertUnavailable(store.loadRecent(10));
+        assertUnavailable(store.findByBoss(ZULRAH, 10));
+        assertUnavailable(store.findBetween(LocalDate.of(2000, 1, 1), LocalDate.now()));
+        assertUnavailable(store.findById(UUID.randomUUID().toString()));
+        assertUnavailable(store.forEachSaved(ZULRAH, fight -> fail("no fights can be read")));
+    }
+
+    private static Fight fight(int startTick, double expectedDamage)
+    {
+        Fight fight = new Fight(startTick);
+        fight.setBossNpcId(startTick == 0 ? ZULRAH : 8061);
+        fight.setBossName(startTick == 0 ? "Zulrah" : "Vorkath");
+        PlayerStats stats = fight.getOrCreatePlayerStats(1, "Player");
+        stats.addDamageDealt(40, startTick + 10, fight.getBossNpcId());
+        stats.addExpectedDamage(expectedDamage);
+        fight.endFight(startTick + 100);
+        return fight;
+    }
+
+    private static void assertUnavailable(CompletableFuture<?> query) throws InterruptedException
+    {
+        try
+        {
+            query.get();
+            fail("query should fail");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static void assertSaved(FightHistoryStore store, String resavedId, double expectedDamage, String otherId)
+            throws InterruptedException, ExecutionException
+    {
+        List<Fight> recent = store.loadRecent(10).get();
+        assertEquals(2, recent.size());
+        assertEquals(otherId, recent.get(0).getFightId());
+        assertEquals(resavedId, recent.get(1).getFightId());
+
+        Fight resaved = store.findById(resavedId).get();
+        assertEquals(expectedDamage, resaved.getPlayer(0).getExpectedDamageDealt(), 0.0);
+    }
+}
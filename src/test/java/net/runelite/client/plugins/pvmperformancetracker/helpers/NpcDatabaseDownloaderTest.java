@@ -0,0 +1,294 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the downloader against a local HTTP server that answers with 200, 206 and 304 like the database host
+ */
+public class NpcDatabaseDownloaderTest
+{
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+    private static final int BODY_SIZE = 200_000;
+    private static final long MINIMUM_SIZE = 1000;
+
+    private final byte[] body = new byte[BODY_SIZE];
+    private final List<Request> requests = new ArrayList<>();
+
+    // Server behaviour for the next requests
+    private volatile boolean gzip;
+    private volatile int truncateNextResponses;
+
+    private HttpServer server;
+    private Path directory;
+    private Path target;
+    private Path part;
+    private Path metadata;
+    private NpcDatabaseDownloader downloader;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        new Random(1).nextBytes(body);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/monsters-complete.json", this::handle);
+        server.start();
+
+        directory = Files.createTempDirectory("npc-downloader-test");
+        target = directory.resolve("osrsbox-monsters.json");
+        part = directory.resolve("osrsbox-monsters.json.part");
+        metadata = directory.resolve("osrsbox-monsters.json.meta");
+
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/monsters-complete.json";
+        downloader = new NpcDatabaseDownloader(url, target, MINIMUM_SIZE, 1);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        server.stop(0);
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void fullDownloadPersistsValidators() throws IOException
+    {
+        assertEquals(NpcDatabaseDownloader.Result.DOWNLOADED, downloader.download());
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertFalse(Files.exists(part));
+
+        Properties saved = loadMetadata();
+        assertEquals(ETAG, saved.getProperty("etag"));
+        assertEquals(LAST_MODIFIED, saved.getProperty("lastModified"));
+        assertNull(saved.getProperty("partValidator"));
+        assertTrue(downloader.getLastChecked() > 0);
+
+        assertEquals(1, requests.size());
+        assertNull(requests.get(0).ifNoneMatch);
+    }
+
+    @Test
+    public void gzipDownloadIsDecoded() throws IOException
+    {
+        gzip = true;
+
+        assertEquals(NpcDatabaseDownloader.Result.DOWNLOADED, downloader.download());
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertEquals(ETAG, loadMetadata().getProperty("etag"));
+    }
+
+    @Test
+    public void notModifiedLeavesCacheUntouched() throws IOException
+    {
+        assertEquals(NpcDatabaseDownloader.Result.DOWNLOADED, downloader.download());
+
+        FileTime modified = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(target, modified);
+
+        assertEquals(NpcDatabaseDownloader.Result.NOT_MODIFIED, downloader.download());
+
+        Request revalidation = requests.get(1);
+        assertEquals(ETAG, revalidation.ifNoneMatch);
+        assertEquals(LAST_MODIFIED, revalidation.ifModifiedSince);
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertEquals(modified, Files.getLastModifiedTime(target));
+        assertFalse(Files.exists(part));
+        assertTrue(downloader.getLastChecked() > modified.toMillis());
+    }
+
+    @Test
+    public void truncatedPartIsResumed() throws IOException
+    {
+        int half = BODY_SIZE / 2;
+        Files.write(part, Arrays.copyOf(body, half));
+        Properties state = new Properties();
+        state.setProperty("partValidator", ETAG);
+        saveMetadata(state);
+
+        assertEquals(NpcDatabaseDownloader.Result.DOWNLOADED, downloader.download());
+
+        Request resume = requests.get(0);
+        assertEquals("bytes=" + half + "-", resume.range);
+        assertEquals(ETAG, resume.ifRange);
+        assertEquals(206, resume.status);
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertFalse(Files.exists(part));
+        assertEquals(ETAG, loadMetadata().getProperty("etag"));
+        assertNull(loadMetadata().getProperty("partValidator"));
+    }
+
+    @Test
+    public void interruptedDownloadResumesAndReplacesCacheOnlyWhenComplete() throws IOException
+    {
+        byte[] previous = "previous database".getBytes(StandardCharsets.UTF_8);
+        Files.write(target, previous);
+
+        // The first response is cut off halfway; the retry resumes from the .part file
+        truncateNextResponses = 1;
+        assertEquals(NpcDatabaseDownloader.Result.DOWNLOADED, downloader.download());
+
+        assertEquals(2, requests.size());
+        assertEquals(200, requests.get(0).status);
+        assertEquals(206, requests.get(1).status);
+        assertTrue(requests.get(1).range.startsWith("bytes="));
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertFalse(Files.exists(part));
+    }
+
+    @Test
+    public void failedDownloadKeepsCache() throws IOException
+    {
+        byte[] previous = "previous database".getBytes(StandardCharsets.UTF_8);
+        Files.write(target, previous);
+
+        // Every attempt is cut off; the partial data must never be moved over the cache
+        truncateNextResponses = Integer.MAX_VALUE;
+        assertEquals(NpcDatabaseDownloader.Result.FAILED, downloader.download());
+
+        assertArrayEquals(previous, Files.readAllBytes(target));
+        assertTrue(Files.exists(part));
+        assertTrue(Files.size(part) < BODY_SIZE);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        Request request = new Request();
+        request.ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        request.ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        request.range = exchange.getRequestHeaders().getFirst("Range");
+        request.ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+
+        synchronized (requests)
+        {
+            requests.add(request);
+        }
+
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+
+        try
+        {
+            if (ETAG.equals(request.ifNoneMatch))
+            {
+                request.status = 304;
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] content = body;
+            int start = 0;
+            if (request.range != null && ETAG.equals(request.ifRange))
+            {
+                start = Integer.parseInt(request.range.substring("bytes=".length(), request.range.length() - 1));
+                request.status = 206;
+                exchange.getResponseHeaders().set("Content-Range",
+                        "bytes " + start + "-" + (BODY_SIZE - 1) + "/" + BODY_SIZE);
+            }
+            else
+            {
+                request.status = 200;
+                if (gzip && acceptEncoding != null && acceptEncoding.contains("gzip"))
+                {
+                    content = gzip(body);
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                }
+            }
+
+            int length = content.length - start;
+            exchange.sendResponseHeaders(request.status, length);
+
+            OutputStream out = exchange.getResponseBody();
+            if (truncateNextResponses > 0)
+            {
+                truncateNextResponses--;
+                // Send half of the body; closing the exchange short of its length drops the connection
+                out.write(content, start, length / 2);
+                out.flush();
+                return;
+            }
+            out.write(content, start, length);
+            out.close();
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes))
+        {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Properties loadMetadata() throws IOException
+    {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(metadata, StandardCharsets.UTF_8))
+        {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private void saveMetadata(Properties properties) throws IOException
+    {
+        try (Writer writer = Files.newBufferedWriter(metadata, StandardCharsets.UTF_8))
+        {
+            properties.store(writer, null);
+        }
+    }
+
+    private static class Request
+    {
+        private String ifNoneMatch;
+        private String ifModifiedSince;
+        private String range;
+        private String ifRange;
+        private int status;
+    }
+}
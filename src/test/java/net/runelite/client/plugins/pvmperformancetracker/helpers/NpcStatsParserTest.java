@@ -0,0 +1,323 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.annotations.SerializedName;
+import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the streaming parser against the tree-based Gson binding it replaced
+ */
+public class NpcStatsParserTest
+{
+    private static final String FIXTURE = "monsters-fixture.json";
+
+    @Test
+    public void fixtureMatchesTreeBinding() throws IOException
+    {
+        String json = readFixture();
+
+        LegacyResult legacy = parseLegacy(json);
+        NpcStatsParser parser = new NpcStatsParser();
+        NpcStatsStore store = parser.parse(new StringReader(json));
+
+        assertEquals(legacy.npcs.size(), store.size());
+        assertEquals(legacy.successCount, parser.getSuccessCount());
+        assertEquals(legacy.failCount, parser.getFailCount());
+
+        for (Map.Entry<Integer, LegacyNpc> entry : legacy.npcs.entrySet())
+        {
+            NpcCombatStats stats = store.get(entry.getKey());
+            assertNotNull("missing NPC " + entry.getKey(), stats);
+            assertSameStats(entry.getKey(), entry.getValue(), stats);
+        }
+    }
+
+    @Test
+    public void fixtureValues() throws IOException
+    {
+        NpcStatsStore store = new NpcStatsParser().parse(new StringReader(readFixture()));
+
+        // Drops and other unused fields are skipped
+        NpcCombatStats zulrah = store.get(2042);
+        assertEquals("Zulrah", zulrah.getName());
+        assertEquals(Integer.valueOf(500), zulrah.getHitpoints());
+        assertEquals("ranged", zulrah.getPrimaryAttackType());
+        assertEquals(Boolean.TRUE, zulrah.getAggressive());
+        assertNull(zulrah.getSlayerLevel());
+        assertEquals(Integer.valueOf(0), zulrah.getSlayerXp());
+
+        // Missing fields are absent, not zero
+        NpcCombatStats caveHorror = store.get(415);
+        assertNull(caveHorror.getMaxHit());
+        assertNull(caveHorror.getAggressive());
+        assertEquals(0, caveHorror.getAttackBonus("crush"));
+        assertEquals(1, caveHorror.getStrengthLevelOrDefault());
+
+        // Fractions are truncated, numeric strings are parsed
+        NpcCombatStats vorkath = store.get(7706);
+        assertEquals(Integer.valueOf(12), vorkath.getMeleeStrength());
+        assertEquals(Integer.valueOf(8), vorkath.getRangedStrength());
+        assertEquals(Integer.valueOf(30), vorkath.getMagicDamage());
+        assertNull(vorkath.getAttackSlash());
+
+        // No attack types falls back to melee
+        assertEquals("melee", store.get(1).getPrimaryAttackType());
+        assertNull(store.get(1).getAttackType());
+
+        // Entries with a badly typed field are dropped
+        assertNull(store.get(3));
+        assertNull(store.get(4));
+        assertNull(store.get(5));
+        assertNull(store.get(6));
+        assertNull(store.get(7));
+        assertNull(store.get(8));
+    }
+
+    @Test
+    public void lenientSyntaxMatchesTreeBinding() throws IOException
+    {
+        String json = "{'9': {name: 'Lenient', hitpoints: 9, attack_type: ['melee', stab]}, 10: {max_hit: 4}}";
+
+        LegacyResult legacy = parseLegacy(json);
+        NpcStatsStore store = new NpcStatsParser().parse(new StringReader(json));
+
+        assertEquals(2, store.size());
+        assertSameStats(9, legacy.npcs.get(9), store.get(9));
+        assertSameStats(10, legacy.npcs.get(10), store.get(10));
+    }
+
+    @Test
+    public void duplicateIdKeepsLastEntry() throws IOException
+    {
+        String json = "{\"415\": {\"hitpoints\": 55}, \"415\": {\"hitpoints\": 56, \"slayer_level\": 58}}";
+
+        LegacyResult legacy = parseLegacy(json);
+        NpcStatsStore store = new NpcStatsParser().parse(new StringReader(json));
+
+        assertEquals(1, store.size());
+        assertSameStats(415, legacy.npcs.get(415), store.get(415));
+    }
+
+    @Test
+    public void truncatedFileFails()
+    {
+        String json = readFixture();
+        assertParseFails(json.substring(0, json.length() / 2));
+    }
+
+    @Test
+    public void nonObjectRootFails()
+    {
+        assertParseFails("[{\"name\": \"Zulrah\"}]");
+    }
+
+    @Test
+    public void structuralErrorFails()
+    {
+        assertParseFails("{\"1\": {\"name\": \"A\"]}");
+    }
+
+    private static void assertParseFails(String json)
+    {
+        try
+        {
+            new NpcStatsParser().parse(new StringReader(json));
+            fail("expected an IOException");
+        }
+        catch (IOException e)
+        {
+            // Expected: the caller discards the file
+        }
+    }
+
+    private static void assertSameStats(int id, LegacyNpc expected, NpcCombatStats actual)
+    {
+        String npc = "NPC " + id + " ";
+        assertEquals(npc + "id", id, actual.getId());
+        assertEquals(npc + "name", expected.name, actual.getName());
+        assertEquals(npc + "hitpoints", expected.hitpoints, actual.getHitpoints());
+        assertEquals(npc + "attack_level", expected.attackLevel, actual.getAttackLevel());
+        assertEquals(npc + "strength_level", expected.strengthLevel, actual.getStrengthLevel());
+        assertEquals(npc + "defence_level", expected.defenceLevel, actual.getDefenceLevel());
+        assertEquals(npc + "magic_level", expected.magicLevel, actual.getMagicLevel());
+        assertEquals(npc + "ranged_level", expected.rangedLevel, actual.getRangedLevel());
+        assertEquals(npc + "attack_stab", expected.attackStab, actual.getAttackStab());
+        assertEquals(npc + "attack_slash", expected.attackSlash, actual.getAttackSlash());
+        assertEquals(npc + "attack_crush", expected.attackCrush, actual.getAttackCrush());
+        assertEquals(npc + "attack_magic", expected.attackMagic, actual.getAttackMagic());
+        assertEquals(npc + "attack_ranged", expected.attackRanged, actual.getAttackRanged());
+        assertEquals(npc + "defence_stab", expected.defenceStab, actual.getDefenceStab());
+        assertEquals(npc + "defence_slash", expected.defenceSlash, actual.getDefenceSlash());
+        assertEquals(npc + "defence_crush", expected.defenceCrush, actual.getDefenceCrush());
+        assertEquals(npc + "defence_magic", expected.defenceMagic, actual.getDefenceMagic());
+        assertEquals(npc + "defence_ranged", expected.defenceRanged, actual.getDefenceRanged());
+        assertEquals(npc + "attack_accuracy", expected.attackAccuracy, actual.getAttackAccuracy());
+        assertEquals(npc + "melee_strength", expected.meleeStrength, actual.getMeleeStrength());
+        assertEquals(npc + "ranged_strength", expected.rangedStrength, actual.getRangedStrength());
+        assertEquals(npc + "magic_damage", expected.magicDamage, actual.getMagicDamage());
+        assertEquals(npc + "max_hit", expected.maxHit, actual.getMaxHit());
+        assertEquals(npc + "aggressive", expected.aggressive, actual.getAggressive());
+        assertEquals(npc + "slayer_level", expected.slayerLevel, actual.getSlayerLevel());
+        assertEquals(npc + "slayer_xp", expected.slayerXp, actual.getSlayerXp());
+
+        // The store keeps attack types as a set with the primary first; the order of the rest isn't kept
+        String expectedPrimary = expected.attackType == null || expected.attackType.isEmpty()
+                ? "melee" : expected.attackType.get(0);
+        assertEquals(npc + "primary attack type", expectedPrimary, actual.getPrimaryAttackType());
+        assertEquals(npc + "attack types", asSet(expected.attackType), asSet(actual.getAttackType()));
+    }
+
+    private static Set<String> asSet(List<String> values)
+    {
+        return values == null ? Collections.emptySet() : new HashSet<>(values);
+    }
+
+    private static String readFixture()
+    {
+        try (InputStream in = NpcStatsParserTest.class.getResourceAsStream(FIXTURE))
+        {
+            assertNotNull(FIXTURE, in);
+            StringBuilder json = new StringBuilder();
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8))
+            {
+                char[] buffer = new char[4096];
+                int read;
+                while ((read = reader.read(buffer)) != -1)
+                {
+                    json.append(buffer, 0, read);
+                }
+            }
+            return json.toString();
+        }
+        catch (IOException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * The loader the streaming parser replaced: parse the whole tree, then bind each entry with a lenient Gson
+     */
+    @SuppressWarnings("deprecation")
+    private static LegacyResult parseLegacy(String json)
+    {
+        Gson gson = new GsonBuilder().setLenient().create();
+        LegacyResult result = new LegacyResult();
+
+        JsonElement root = new JsonParser().parse(json);
+        for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet())
+        {
+            int id;
+            try
+            {
+                id = Integer.parseInt(entry.getKey());
+            }
+            catch (NumberFormatException e)
+            {
+                continue;
+            }
+
+            try
+            {
+                LegacyNpc npc = gson.fromJson(entry.getValue(), LegacyNpc.class);
+                if (npc != null)
+                {
+                    result.npcs.put(id, npc);
+                    result.successCount++;
+                }
+            }
+            catch (Exception e)
+            {
+                result.failCount++;
+            }
+        }
+        return result;
+    }
+
+    private static class LegacyResult
+    {
+        private final Map<Integer, LegacyNpc> npcs = new LinkedHashMap<>();
+        private int successCount;
+        private int failCount;
+    }
+
+    /**
+     * Field layout of the Gson-bound model the store replaced
+     */
+    private static class LegacyNpc
+    {
+        private String name;
+        @SerializedName("hitpoints")
+        private Integer hitpoints;
+        @SerializedName("attack_level")
+        private Integer attackLevel;
+        @SerializedName("strength_level")
+        private Integer strengthLevel;
+        @SerializedName("defence_level")
+        private Integer defenceLevel;
+        @SerializedName("magic_level")
+        private Integer magicLevel;
+        @SerializedName("ranged_level")
+        private Integer rangedLevel;
+        @SerializedName("attack_stab")
+        private Integer attackStab;
+        @SerializedName("attack_slash")
+        private Integer attackSlash;
+        @SerializedName("attack_crush")
+        private Integer attackCrush;
+        @SerializedName("attack_magic")
+        private Integer attackMagic;
+        @SerializedName("attack_ranged")
+        private Integer attackRanged;
+        @SerializedName("defence_stab")
+        private Integer defenceStab;
+        @SerializedName("defence_slash")
+        private Integer defenceSlash;
+        @SerializedName("defence_crush")
+        private Integer defenceCrush;
+        @SerializedName("defence_magic")
+        private Integer defenceMagic;
+        @SerializedName("defence_ranged")
+        private Integer defenceRanged;
+        @SerializedName("attack_accuracy")
+        private Integer attackAccuracy;
+        @SerializedName("melee_strength")
+        private Integer meleeStrength;
+        @SerializedName("ranged_strength")
+        private Integer rangedStrength;
+        @SerializedName("magic_damage")
+        private Integer magicDamage;
+        @SerializedName("max_hit")
+        private Integer maxHit;
+        @SerializedName("attack_type")
+        private List<String> attackType;
+        @SerializedName("aggressive")
+        private Boolean aggressive;
+        @SerializedName("slayer_level")
+        private Integer slayerLevel;
+        @SerializedName("slayer_xp")
+        private Integer slayerXp;
+    }
+}
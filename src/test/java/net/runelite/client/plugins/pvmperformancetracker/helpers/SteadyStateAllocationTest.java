@@ -0,0 +1,143 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.api.Client;
+import net.runelite.api.Player;
+import net.runelite.api.Prayer;
+import net.runelite.client.plugins.pvmperformancetracker.enums.DamageType;
+import net.runelite.client.plugins.pvmperformancetracker.models.NpcCombatStats;
+import net.runelite.client.plugins.pvmperformancetracker.models.PlayerStats;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Per-hit paths that run on every hitsplat must not allocate once warmed up
+ */
+public class SteadyStateAllocationTest
+{
+    private static final int NPC_ID = 8061;
+    private static final int WARM_UP_CALLS = 50_000;
+    private static final int MEASURED_CALLS = 200;
+
+    private com.sun.management.ThreadMXBean threads;
+    // Bytes the allocation counter itself allocates per read, on JDKs that box the thread id into an array
+    private long counterOverhead;
+    private CombatFormulas formulas;
+    private CombatStateSnapshot state;
+    private NpcCombatStats npc;
+
+    @Before
+    public void setUp()
+    {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < WARM_UP_CALLS; i++)
+        {
+            allocatedBytes();
+        }
+        counterOverhead = -allocatedBytes() + allocatedBytes();
+
+        Player localPlayer = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+                new Class<?>[]{Player.class}, (proxy, method, args) -> null);
+
+        Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                        case "getLocalPlayer":
+                            return localPlayer;
+                        case "getBoostedSkillLevel":
+                            return 99;
+                        case "isPrayerActive":
+                            return args[0] == Prayer.PROTECT_FROM_MAGIC;
+                        case "getVarpValue":
+                        case "getVarbitValue":
+                            return 0;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        formulas = new CombatFormulas(client, null);
+        state = CombatStateSnapshot.capture(client, CombatStateSnapshot.EMPTY);
+
+        // A max hit above the Integer cache, so boxing on the lookup path would show up
+        NpcStatsStore.Builder builder = new NpcStatsStore.Builder(1);
+        builder.beginRow(NPC_ID);
+        builder.set(NpcStatsStore.MAGIC_LEVEL, 400);
+        builder.set(NpcStatsStore.MAX_HIT, 150);
+        builder.addAttackType("magic");
+        builder.commitRow();
+        npc = builder.build().get(NPC_ID);
+    }
+
+    @Test
+    public void deathProbabilityDoesNotAllocate()
+    {
+        double sum = 0.0;
+        for (int i = 0; i < WARM_UP_CALLS; i++)
+        {
+            sum += deathProbabilities(i);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++)
+        {
+            sum += deathProbabilities(i);
+        }
+        long allocated = allocatedBytes() - before - counterOverhead;
+
+        assertEquals("bytes allocated by " + MEASURED_CALLS + " calls (sum " + sum + ")", 0, allocated);
+    }
+
+    @Test
+    public void recordingHitsDoesNotAllocate()
+    {
+        PlayerStats warmUp = new PlayerStats(1, "Warm up");
+        for (int i = 0; i < WARM_UP_CALLS; i++)
+        {
+            recordHits(warmUp, i);
+        }
+
+        // Events are stored in chunks of 256; the first event allocates the chunk the measured hits land in
+        PlayerStats stats = new PlayerStats(2, "Measured");
+        recordHits(stats, 0);
+
+        long before = allocatedBytes();
+        for (int i = 1; i <= MEASURED_CALLS / 2; i++)
+        {
+            recordHits(stats, i);
+        }
+        long allocated = allocatedBytes() - before - counterOverhead;
+
+        assertEquals("bytes allocated by " + MEASURED_CALLS + " hits", 0, allocated);
+    }
+
+    private double deathProbabilities(int i)
+    {
+        int hp = 1 + i % 99;
+        HitDistribution distribution = formulas.getNpcHitDistribution(npc, true, state);
+        return formulas.calculateDeathProbability(hp, npc, true, state)
+                + formulas.calculateDeathProbability(hp, 1 + i % HitDistribution.MAX_HITS, npc, false, state)
+                + distribution.deathChance(1 + i % HitDistribution.MAX_HITS, hp);
+    }
+
+    private static void recordHits(PlayerStats stats, int tick)
+    {
+        stats.addDamageDealt(tick % 50, tick, NPC_ID);
+        stats.addDamageTaken(tick % 30, tick, DamageType.PRAYABLE);
+    }
+
+    private long allocatedBytes()
+    {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,182 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import net.runelite.api.Actor;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drains hand-built buffers the way the plugin does at GameTick, ActorDeath and logout
+ */
+public class TickEventBufferTest
+{
+    private static final int WHIP_ANIMATION = 1658;
+    private static final int WHIP_ENTRY = 3;
+
+    private final Player localPlayer = actor(Player.class, "Player");
+    private final NPC boss = actor(NPC.class, "Boss");
+
+    private final List<String> processed = new ArrayList<>();
+    private final TickEventBuffer.Handler recorder = new TickEventBuffer.Handler()
+    {
+        @Override
+        public void onHitsplat(Actor target, int amount, int hitpoints)
+        {
+            processed.add("hit " + target + " " + amount + " " + hitpoints);
+        }
+
+        @Override
+        public void onAttackAnimation(Actor actor, int animationId, int animation)
+        {
+            processed.add("anim " + actor + " " + animationId + " " + animation);
+        }
+    };
+
+    @Test
+    public void mixedEventsDrainInArrivalOrder()
+    {
+        TickEventBuffer buffer = new TickEventBuffer();
+        buffer.addAttackAnimation(localPlayer, WHIP_ANIMATION, WHIP_ENTRY);
+        buffer.addHitsplat(localPlayer, 12, 75);
+        buffer.addHitsplat(boss, 30, 0);
+        buffer.addAttackAnimation(boss, 7855, 9);
+
+        buffer.drain(recorder);
+
+        assertEquals(Arrays.asList(
+                "anim Player 1658 3",
+                "hit Player 12 75",
+                "hit Boss 30 0",
+                "anim Boss 7855 9"), processed);
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void growingKeepsOrder()
+    {
+        TickEventBuffer buffer = new TickEventBuffer();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+        {
+            if (i % 3 == 0)
+            {
+                buffer.addAttackAnimation(localPlayer, WHIP_ANIMATION, i);
+                expected.add("anim Player 1658 " + i);
+            }
+            else
+            {
+                buffer.addHitsplat(boss, i, 0);
+                expected.add("hit Boss " + i + " 0");
+            }
+        }
+
+        buffer.drain(recorder);
+
+        assertEquals(expected, processed);
+    }
+
+    @Test
+    public void deathDrainsKillingBlowBeforeTheFightEnds()
+    {
+        TickEventBuffer buffer = new TickEventBuffer();
+        buffer.addAttackAnimation(localPlayer, WHIP_ANIMATION, WHIP_ENTRY);
+        buffer.addHitsplat(boss, 45, 0);
+
+        // ActorDeath: the staged killing blow is processed first, then the death ends the fight
+        buffer.drain(recorder);
+        processed.add("death Boss");
+
+        // A hitsplat after the death waits for the tick; nothing from before it is processed twice
+        buffer.addHitsplat(localPlayer, 5, 60);
+        buffer.drain(recorder);
+
+        assertEquals(Arrays.asList(
+                "anim Player 1658 3",
+                "hit Boss 45 0",
+                "death Boss",
+                "hit Player 5 60"), processed);
+    }
+
+    @Test
+    public void logoutDrainsThenTickHasNothingLeft()
+    {
+        TickEventBuffer buffer = new TickEventBuffer();
+        buffer.addHitsplat(localPlayer, 20, 40);
+        buffer.addAttackAnimation(localPlayer, WHIP_ANIMATION, WHIP_ENTRY);
+
+        // GameStateChanged to LOGIN_SCREEN: staged events are recorded before the fight ends
+        buffer.drain(recorder);
+        processed.add("logout");
+        buffer.drain(recorder);
+
+        assertEquals(Arrays.asList("hit Player 20 40", "anim Player 1658 3", "logout"), processed);
+    }
+
+    @Test
+    public void eventsStagedWhileDrainingAreProcessedInTheSamePass()
+    {
+        TickEventBuffer buffer = new TickEventBuffer();
+        buffer.addHitsplat(boss, 10, 0);
+        buffer.drain(new TickEventBuffer.Handler()
+        {
+            @Override
+            public void onHitsplat(Actor target, int amount, int hitpoints)
+            {
+                recorder.onHitsplat(target, amount, hitpoints);
+                if (processed.size() == 1)
+                {
+                    buffer.addAttackAnimation(localPlayer, WHIP_ANIMATION, WHIP_ENTRY);
+                }
+            }
+
+            @Override
+            public void onAttackAnimation(Actor actor, int animationId, int animation)
+            {
+                recorder.onAttackAnimation(actor, animationId, animation);
+            }
+        });
+
+        assertEquals(Arrays.asList("hit Boss 10 0", "anim Player 1658 3"), processed);
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void clearDropsStagedEvents()
+    {
+        TickEventBuffer buffer = new TickEventBuffer();
+        buffer.addHitsplat(boss, 10, 0);
+        buffer.clear();
+        buffer.drain(recorder);
+
+        assertEquals(Collections.emptyList(), processed);
+    }
+
+    private static <T extends Actor> T actor(Class<T> type, String name)
+    {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                        case "toString":
+                        case "getName":
+                            return name;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }));
+    }
+}
@@ -0,0 +1,118 @@
+package net.runelite.client.plugins.pvmperformancetracker.helpers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.Assert.assertEquals;
+
+public class WriteBehindQueueTest
+{
+    // Timed flushes never fire during a test; each test flushes on its own thread
+    private static final long FLUSH_INTERVAL_MILLIS = 3_600_000;
+
+    private final List<List<String>> written = new ArrayList<>();
+    private int failuresLeft;
+
+    private ScheduledThreadPoolExecutor executor;
+    private WriteBehindQueue<String> queue;
+
+    @Before
+    public void setUp()
+    {
+        executor = new ScheduledThreadPoolExecutor(1);
+        // Items are "key:value"; the key is what coalesces
+        queue = new WriteBehindQueue<>(executor, item -> item.substring(0, item.indexOf(':')), batch ->
+        {
+            if (failuresLeft > 0)
+            {
+                failuresLeft--;
+                throw new IOException("Disk full");
+            }
+            written.add(new ArrayList<>(batch));
+        }, 100, FLUSH_INTERVAL_MILLIS, 4);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void failedBatchIsRetriedAtTheHead()
+    {
+        failuresLeft = 1;
+        queue.offer("a:1");
+        queue.offer("b:1");
+        queue.flush();
+
+        queue.offer("c:1");
+        queue.flush();
+
+        assertEquals(Arrays.asList(Arrays.asList("a:1", "b:1", "c:1")), written);
+        assertEquals(2, queue.getRetried());
+        assertEquals(0, queue.getFailed());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void newerItemReplacesFailedOne()
+    {
+        failuresLeft = 1;
+        queue.offer("a:1");
+        queue.flush();
+
+        queue.offer("a:2");
+        queue.flush();
+
+        assertEquals(Arrays.asList(Arrays.asList("a:2")), written);
+    }
+
+    @Test
+    public void retriedBatchStaysWithinCapacity()
+    {
+        failuresLeft = 1;
+        queue.offer("a:1");
+        queue.offer("b:1");
+        queue.offer("c:1");
+        queue.flush();
+
+        queue.offer("d:1");
+        queue.offer("e:1");
+        queue.flush();
+
+        // The oldest failed item made room for the new ones
+        assertEquals(Arrays.asList(Arrays.asList("b:1", "c:1", "d:1", "e:1")), written);
+        assertEquals(1, queue.getDropped());
+    }
+
+    @Test
+    public void batchIsGivenUpAfterMaxAttempts()
+    {
+        failuresLeft = Integer.MAX_VALUE;
+        queue.offer("a:1");
+        for (int i = 0; i < WriteBehindQueue.MAX_ATTEMPTS; i++)
+        {
+            queue.flush();
+        }
+
+        assertEquals(0, queue.getDepth());
+        assertEquals(1, queue.getFailed());
+
+        // A later batch gets its own attempts
+        failuresLeft = WriteBehindQueue.MAX_ATTEMPTS - 1;
+        queue.offer("b:1");
+        for (int i = 0; i < WriteBehindQueue.MAX_ATTEMPTS; i++)
+        {
+            queue.flush();
+        }
+        assertEquals(Arrays.asList(Arrays.asList("b:1")), written);
+    }
+}
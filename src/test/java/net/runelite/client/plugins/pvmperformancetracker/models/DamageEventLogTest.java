@@ -0,0 +1,109 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import net.runelite.client.plugins.pvmperformancetracker.enums.DamageType;
+import net.runelite.client.plugins.pvmperformancetracker.helpers.DamageDetailSpill;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DamageEventLogTest
+{
+    private static final int EVENTS = 600;
+
+    private Path directory;
+    private DamageDetailSpill spill;
+    private DamageEventLog log;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("damage-event-log-test");
+        spill = new DamageDetailSpill(directory.toFile());
+
+        log = new DamageEventLog();
+        for (int i = 0; i < EVENTS; i++)
+        {
+            log.add(i, i % 40, 8061, DamageType.PRAYABLE);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        spill.close();
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void spilledChunksReadBack()
+    {
+        assertEquals(EVENTS, log.spill(spill));
+        assertEquals(0, log.getResidentEvents());
+
+        for (int i = 0; i < EVENTS; i++)
+        {
+            assertEquals(i, log.getTick(i));
+            assertEquals(i % 40, log.getAmount(i));
+            assertEquals(8061, log.getTargetId(i));
+            assertEquals(DamageType.PRAYABLE, log.getDamageType(i));
+        }
+    }
+
+    @Test
+    public void readingAfterCloseKeepsTotals()
+    {
+        long total = log.getTotalAmount();
+        log.spill(spill);
+        spill.close();
+
+        for (int i = 0; i < EVENTS; i++)
+        {
+            assertEquals(0, log.getAmount(i));
+            assertEquals(DamageType.UNKNOWN, log.getDamageType(i));
+        }
+        assertEquals(EVENTS, log.size());
+        assertEquals(total, log.getTotalAmount());
+        assertEquals(EVENTS, log.asList().size());
+    }
+
+    @Test
+    public void appendingAfterCloseKeepsRecording()
+    {
+        log.spill(spill);
+        spill.close();
+
+        // The last chunk is partly full, so this reads it back before appending
+        log.add(EVENTS, 25, 8061, DamageType.AVOIDABLE);
+
+        assertEquals(EVENTS + 1, log.size());
+        assertEquals(25, log.getAmount(EVENTS));
+        assertEquals(DamageType.AVOIDABLE, log.getDamageType(EVENTS));
+    }
+
+    @Test
+    public void unreadableSpillFileKeepsTotals() throws IOException
+    {
+        long total = log.getTotalAmount();
+        log.spill(spill);
+
+        // Cut the file short under the log, as a full disk or an external cleanup would
+        Path file = directory.resolve("pvmperformancetracker").resolve("damage-detail.bin");
+        assertTrue(Files.exists(file));
+        Files.write(file, new byte[0]);
+
+        assertEquals(0, log.getAmount(EVENTS - 1));
+        assertEquals(total, log.getTotalAmount());
+    }
+}
@@ -0,0 +1,127 @@
+package net.runelite.client.plugins.pvmperformancetracker.models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class FightHistoryBufferTest
+{
+    private static final int CAPACITY = 3;
+
+    private final List<Fight> fights = new ArrayList<>();
+
+    @Test
+    public void newestFirstAndOldestEvicted()
+    {
+        FightHistoryBuffer buffer = new FightHistoryBuffer(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            assertNull(buffer.add(fight(i), snapshot(i)));
+        }
+
+        assertSame(fights.get(0), buffer.add(fight(3), snapshot(3)));
+        assertHistory(buffer.asList(), 3, 2, 1);
+        assertSame(fights.get(3).snapshot(3), buffer.snapshots().get(0));
+    }
+
+    @Test
+    public void publishedViewsDontChange()
+    {
+        FightHistoryBuffer buffer = new FightHistoryBuffer(CAPACITY);
+        buffer.add(fight(0), snapshot(0));
+        buffer.add(fight(1), snapshot(1));
+        List<Fight> published = buffer.asList();
+        List<FightSnapshot> publishedSnapshots = buffer.snapshots();
+
+        // Enough adds to evict both fights and compact the window into new arrays more than once
+        for (int i = 2; i < 2 + 4 * CAPACITY; i++)
+        {
+            buffer.add(fight(i), snapshot(i));
+        }
+
+        assertHistory(published, 1, 0);
+        assertSame(fights.get(1).snapshot(1), publishedSnapshots.get(0));
+        assertHistory(buffer.asList(), 13, 12, 11);
+    }
+
+    @Test
+    public void resizeKeepsNewest()
+    {
+        FightHistoryBuffer buffer = new FightHistoryBuffer(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            buffer.add(fight(i), snapshot(i));
+        }
+
+        buffer.resize(2);
+        assertHistory(buffer.asList(), 2, 1);
+
+        buffer.resize(4);
+        buffer.add(fight(3), snapshot(3));
+        buffer.add(fight(4), snapshot(4));
+        assertHistory(buffer.asList(), 4, 3, 2, 1);
+        assertEquals(4, buffer.snapshots().size());
+    }
+
+    @Test
+    public void refreshReplacesInvalidatedSnapshots()
+    {
+        FightHistoryBuffer buffer = new FightHistoryBuffer(CAPACITY);
+        buffer.add(fight(0), snapshot(0));
+        buffer.add(fight(1), snapshot(1));
+        List<FightSnapshot> before = buffer.snapshots();
+
+        fights.get(0).invalidateSnapshot();
+        List<FightSnapshot> changed = new ArrayList<>();
+        buffer.refreshSnapshots(10, changed::add);
+
+        List<FightSnapshot> after = buffer.snapshots();
+        assertSame(before.get(0), after.get(0));
+        assertNotSame(before.get(1), after.get(1));
+        assertSame(fights.get(0).snapshot(10), after.get(1));
+        assertEquals(1, changed.size());
+        assertSame(after.get(1), changed.get(0));
+    }
+
+    @Test
+    public void clearEmptiesHistory()
+    {
+        FightHistoryBuffer buffer = new FightHistoryBuffer(CAPACITY);
+        buffer.add(fight(0), snapshot(0));
+        List<Fight> published = buffer.asList();
+
+        buffer.clear();
+
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.asList().size());
+        assertHistory(published, 0);
+    }
+
+    private Fight fight(int index)
+    {
+        Fight fight = new Fight(index * 100);
+        fight.endFight(index * 100 + 50);
+        fights.add(fight);
+        return fight;
+    }
+
+    private FightSnapshot snapshot(int index)
+    {
+        return fights.get(index).snapshot(index * 100 + 50);
+    }
+
+    private void assertHistory(List<Fight> history, int... expected)
+    {
+        assertEquals(expected.length, history.size());
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertSame(fights.get(expected[i]), history.get(i));
+        }
+    }
+}